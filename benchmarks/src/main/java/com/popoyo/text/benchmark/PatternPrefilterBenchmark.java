@@ -0,0 +1,60 @@
+package com.popoyo.text.benchmark;
+
+import com.popoyo.text.extractor.PatternTextExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraccion con {@link PatternTextExtractor} sobre todas las lineas de una pagina con el formato de
+ * {@link SampleDocument}, donde la expresion solo coincide en pocas lineas. Las expresiones cubren un texto literal,
+ * una expresion con un texto requerido, una con una clase de caracteres requerida y una que el analisis previo no
+ * puede descartar, como referencia.
+ *
+ * @author aalaniz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatternPrefilterBenchmark {
+
+    @Param({"Code:", "INV-\\d{4}-\\d+", "TOTAL GENERAL [0-9,]+\\.\\d\\d", "[#@]\\w+", "(Account|Branch) \\w+"})
+    public String regex;
+
+    private PatternTextExtractor<String> extractor;
+    private String[] lines;
+
+    @Setup
+    public void setUp() {
+        extractor = new PatternTextExtractor<>(regex);
+        lines = new String[SampleDocument.LINES_PER_PAGE + 2];
+        lines[0] = "INVOICE No: INV-2019-0042";
+        lines[1] = "Customer: ACME Corp | Code: C-77 |";
+        for (int i = 2; i < lines.length; i++) {
+            int item = i - 1;
+            lines[i] = String.format("2019-%02d-%02d ITEM%05d Description of item %d   %,d.%02d",
+                    (item % 12) + 1, (item % 28) + 1, item, item, item * 37, item % 100);
+        }
+    }
+
+    @Benchmark
+    public void page(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(extractor.rawValue(line));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.popoyo.text.benchmark;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Genera en memoria un documento con el formato esperado por benchmark/parser-concepts.json: un encabezado en la
+ * primera pagina seguido de lineas de detalle en todas las paginas, la ultima pagina termina con "TOTAL GENERAL".
+ *
+ * @author aalaniz
+ */
+final class SampleDocument {
+
+    static final int LINES_PER_PAGE = 60;
+
+    private SampleDocument() {
+    }
+
+    static byte[] generate(int pages) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            int item = 0;
+            for (int p = 1; p <= pages; p++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.setFont(PDType1Font.COURIER, 9);
+                    content.setLeading(11);
+                    content.beginText();
+                    content.newLineAtOffset(30, 760);
+                    if (p == 1) {
+                        content.showText("INVOICE No: INV-2019-0042");
+                        content.newLine();
+                        content.showText("Customer: ACME Corp | Code: C-77 |");
+                        content.newLine();
+                        content.showText("Date: 2019-10-21");
+                        content.newLine();
+                        content.showText("Account 0012345678 Branch Main Office END");
+                        content.newLine();
+                    }
+                    for (int i = 0; i < LINES_PER_PAGE; i++) {
+                        item++;
+                        content.showText(String.format("2019-%02d-%02d ITEM%05d Description of item %d   %,d.%02d",
+                                (item % 12) + 1, (item % 28) + 1, item, item, item * 37, item % 100));
+                        content.newLine();
+                    }
+                    if (p == pages) {
+                        content.showText("TOTAL GENERAL 999,999.99");
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            document.save(os);
+            return os.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.popoyo.text.benchmark;
+
+import com.popoyo.text.converter.ConversionConfiguration;
+import com.popoyo.text.converter.ConversionException;
+import com.popoyo.text.converter.StringInputConverter;
+import com.popoyo.text.converter.ValueConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion de un valor a cada tipo soportado por {@link StringInputConverter}. [convert] resuelve las reglas en cada
+ * llamada, [convertResolved] usa un {@link ValueConverter} obtenido una sola vez, como lo hace el parser.
+ *
+ * @author aalaniz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringInputConverterBenchmark {
+
+    @Param({"String", "Character", "Boolean", "Integer", "Long", "Double", "BigInteger", "BigDecimal", "LocalDate",
+            "LocalDateTime", "Date"})
+    public String type;
+
+    private Class<?> expectedType;
+    private String value;
+    private ValueConverter<?> converter;
+
+    @Setup
+    public void setUp() throws ConversionException {
+        switch (type) {
+            case "String":
+                expectedType = String.class;
+                value = "INV-2019-0042";
+                break;
+            case "Character":
+                expectedType = Character.class;
+                value = "X";
+                break;
+            case "Boolean":
+                expectedType = Boolean.class;
+                value = "si";
+                break;
+            case "Integer":
+                expectedType = Integer.class;
+                value = "1,234,567";
+                break;
+            case "Long":
+                expectedType = Long.class;
+                value = "1,234,567,890,123";
+                break;
+            case "Double":
+                expectedType = Double.class;
+                value = "1,234,567.89";
+                break;
+            case "BigInteger":
+                expectedType = BigInteger.class;
+                value = "123,456,789,012,345,678,901";
+                break;
+            case "BigDecimal":
+                expectedType = BigDecimal.class;
+                value = "1,234,567.89";
+                break;
+            case "LocalDate":
+                expectedType = LocalDate.class;
+                value = "2019-10-21";
+                break;
+            case "LocalDateTime":
+                expectedType = LocalDateTime.class;
+                value = "2019-10-21T13:45:30";
+                break;
+            case "Date":
+                expectedType = Date.class;
+                value = "2019-10-21T13:45:30";
+                break;
+            default:
+                throw new IllegalArgumentException("Tipo no soportado " + type);
+        }
+        converter = StringInputConverter.INSTANCE.converterFor(expectedType, ConversionConfiguration.DEFAULT_CONFIGURATION);
+    }
+
+    @Benchmark
+    public Object convert() throws ConversionException {
+        return StringInputConverter.INSTANCE.convert(value, expectedType);
+    }
+
+    @Benchmark
+    public Object convertResolved() throws ConversionException {
+        return converter.convert(value);
+    }
+}
@@ -0,0 +1,57 @@
+package com.popoyo.text.benchmark;
+
+import com.popoyo.text.parser.Concept;
+import com.popoyo.text.parser.ConceptException;
+import com.popoyo.text.parser.ConceptReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraccion del valor crudo de una linea con cada {@link com.popoyo.text.parser.TextExtractorStrategy}. Los conceptos
+ * se leen de benchmark/extractor-concepts.json, cada uno tiene como descripcion el nombre de su estrategia.
+ *
+ * @author aalaniz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextExtractorBenchmark {
+
+    private static final String LINE = "2019-10-21 ITEM00042 Customer: ACME Corp | Code: C-77 | Amount 1,234.50";
+
+    @Param({"SELF", "OFFSET", "FIXED", "BETWEEN", "PATTERN", "BETWEEN_CONCEPT_AND_PATTERN"})
+    public String strategy;
+
+    private Concept concept;
+
+    @Setup
+    public void setUp() throws IOException, ConceptException {
+        for (Concept candidate : ConceptReader.readFromClasspath("/benchmark/extractor-concepts.json")) {
+            if (candidate.getDescription().equals(strategy)) {
+                concept = candidate;
+                return;
+            }
+        }
+        throw new IllegalStateException("No existe un concepto para la estrategia " + strategy);
+    }
+
+    @Benchmark
+    public String rawValue() throws ConceptException {
+        return concept.rawValue(LINE);
+    }
+}
@@ -0,0 +1,55 @@
+package com.popoyo.text.benchmark;
+
+import com.popoyo.text.parser.Concept;
+import com.popoyo.text.parser.ConceptException;
+import com.popoyo.text.parser.ConceptReader;
+import com.popoyo.text.parser.PdfSource;
+import com.popoyo.text.parser.TextParser;
+import com.popoyo.text.parser.TextParsingResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraccion completa de un documento generado por {@link SampleDocument}, incluye la carga del pdf, la obtencion del
+ * texto de cada pagina y la conversion de los valores.
+ *
+ * @author aalaniz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextParserBenchmark {
+
+    @Param({"10", "100"})
+    public int pages;
+
+    private byte[] document;
+    private List<Concept> concepts;
+
+    @Setup
+    public void setUp() throws IOException, ConceptException {
+        document = SampleDocument.generate(pages);
+        concepts = ConceptReader.readFromClasspath("/benchmark/parser-concepts.json");
+    }
+
+    @Benchmark
+    public TextParsingResult parsePdf() throws IOException {
+        return new TextParser(PdfSource.of("sample.pdf", document), concepts).parsePdf();
+    }
+}
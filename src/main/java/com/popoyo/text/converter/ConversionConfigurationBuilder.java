@@ -1,6 +1,13 @@
 package com.popoyo.text.converter;
 
+import java.nio.CharBuffer;
 import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -194,10 +201,30 @@ public class ConversionConfigurationBuilder {
     public static class DateConversionRule {
         final String dateFormat;
         final String dateTimeFormat;
+        final ZoneId zoneId;
+        final DateTimeFormatter dateFormatter;
+        final DateTimeFormatter dateTimeFormatter;
+        final FixedWidthDateParser dateParser;
+        final FixedWidthDateParser dateTimeParser;
 
         DateConversionRule(DateConversionRuleBuilder builder) {
             this.dateFormat = builder.dateFormat;
             this.dateTimeFormat = builder.dateTimeFormat;
+            this.zoneId = builder.zoneId == null ? ZoneId.systemDefault() : builder.zoneId;
+            if (dateFormat != null) {
+                this.dateFormatter = DateTimeFormatter.ofPattern(dateFormat);
+                this.dateParser = FixedWidthDateParser.forPattern(dateFormat);
+            } else {
+                this.dateFormatter = DateTimeFormatter.ISO_DATE;
+                this.dateParser = FixedWidthDateParser.isoDate();
+            }
+            if (dateTimeFormat != null) {
+                this.dateTimeFormatter = DateTimeFormatter.ofPattern(dateTimeFormat);
+                this.dateTimeParser = FixedWidthDateParser.forPattern(dateTimeFormat);
+            } else {
+                this.dateTimeFormatter = DateTimeFormatter.ISO_DATE_TIME;
+                this.dateTimeParser = FixedWidthDateParser.isoDateTime();
+            }
         }
 
         public String getDateFormat() {
@@ -207,12 +234,88 @@ public class ConversionConfigurationBuilder {
         public String getDateTimeFormat() {
             return dateTimeFormat;
         }
+
+        public ZoneId getZoneId() {
+            return zoneId;
+        }
+
+        LocalDate parseDate(CharSequence value, int start, int end) throws ConversionException {
+            LocalDate date = dateParser == null ? null : dateParser.parseDate(value, start, end);
+            if (date != null) {
+                return date;
+            }
+            try {
+                return LocalDate.parse(CharBuffer.wrap(value, start, end), dateFormatter);
+            } catch (DateTimeParseException e) {
+                throw new ConversionException(value.subSequence(start, end).toString(), LocalDate.class);
+            }
+        }
+
+        LocalDateTime parseDateTime(CharSequence value, int start, int end) throws ConversionException {
+            LocalDateTime dateTime = dateTimeParser == null ? null : dateTimeParser.parseDateTime(value, start, end);
+            if (dateTime != null) {
+                return dateTime;
+            }
+            try {
+                return LocalDateTime.parse(CharBuffer.wrap(value, start, end), dateTimeFormatter);
+            } catch (DateTimeParseException e) {
+                throw new ConversionException(value.subSequence(start, end).toString(), LocalDateTime.class);
+            }
+        }
+
+        /**
+         * Igual que {@link #parseDate(CharSequence, int, int)}, pero devuelve null si el valor no es una fecha. Un
+         * valor sin digitos se descarta sin recurrir al formateador, que solo informa el error con una excepcion.
+         */
+        LocalDate tryParseDate(CharSequence value, int start, int end) {
+            LocalDate date = dateParser == null ? null : dateParser.parseDate(value, start, end);
+            if (date != null || !hasDigit(value, start, end)) {
+                return date;
+            }
+            try {
+                return LocalDate.parse(CharBuffer.wrap(value, start, end), dateFormatter);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+
+        LocalDateTime tryParseDateTime(CharSequence value, int start, int end) {
+            LocalDateTime dateTime = dateTimeParser == null ? null : dateTimeParser.parseDateTime(value, start, end);
+            if (dateTime != null || !hasDigit(value, start, end)) {
+                return dateTime;
+            }
+            try {
+                return LocalDateTime.parse(CharBuffer.wrap(value, start, end), dateTimeFormatter);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Los formatos de {@link DateTimeFormatter#ofPattern(String)} y los formatos ISO leen el anio con los digitos
+         * 0 a 9, por lo que un valor sin esos digitos nunca es una fecha valida.
+         */
+        private static boolean hasDigit(CharSequence value, int start, int end) {
+            for (int i = start; i < end; i++) {
+                char c = value.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Date toDate(LocalDateTime dateTime) {
+            long epochSecond = dateTime.toEpochSecond(zoneId.getRules().getOffset(dateTime));
+            return new Date(epochSecond * 1000 + dateTime.getNano() / 1_000_000);
+        }
     }
 
     public static class DateConversionRuleBuilder {
         ConversionConfigurationBuilder parentBuilder;
         String dateFormat;
         String dateTimeFormat;
+        ZoneId zoneId;
 
         DateConversionRuleBuilder(ConversionConfigurationBuilder parentBuilder) {
             this.parentBuilder = parentBuilder;
@@ -240,7 +343,15 @@ public class ConversionConfigurationBuilder {
         }
 
         public DateConversionRuleBuilder isoDateTimeFormat() {
-            dateTimeFormat = "uuuu-MM-ddThh:mm:ss";
+            dateTimeFormat = "uuuu-MM-dd'T'HH:mm:ss";
+            return this;
+        }
+
+        public DateConversionRuleBuilder zoneId(ZoneId zoneId) {
+            if (zoneId == null) {
+                throw new IllegalArgumentException("Parametro [zoneId] es requerido");
+            }
+            this.zoneId = zoneId;
             return this;
         }
 
@@ -0,0 +1,130 @@
+package com.popoyo.text.converter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Lectura directa de fechas con formatos de ancho fijo comunes, sin pasar por {@link java.time.format.DateTimeFormatter}.
+ * Cuando el valor no tiene exactamente la forma esperada o contiene una fecha que requiere las reglas de resolucion del
+ * formateador (por ejemplo 30 de febrero) devuelve null y la conversion debe hacerse con el formateador.
+ *
+ * @author aalaniz
+ */
+final class FixedWidthDateParser {
+
+    private static final int DATE_LENGTH = 10;
+    private static final int DATE_TIME_LENGTH = 19;
+
+    private enum Layout {
+        YEAR_MONTH_DAY, DAY_MONTH_YEAR, YEAR_MONTH_DAY_TIME
+    }
+
+    private final Layout layout;
+
+    private FixedWidthDateParser(Layout layout) {
+        this.layout = layout;
+    }
+
+    static FixedWidthDateParser forPattern(String pattern) {
+        switch (pattern) {
+            case "uuuu-MM-dd":
+            case "yyyy-MM-dd":
+                return new FixedWidthDateParser(Layout.YEAR_MONTH_DAY);
+            case "dd/MM/uuuu":
+            case "dd/MM/yyyy":
+                return new FixedWidthDateParser(Layout.DAY_MONTH_YEAR);
+            case "uuuu-MM-dd'T'HH:mm:ss":
+            case "yyyy-MM-dd'T'HH:mm:ss":
+                return new FixedWidthDateParser(Layout.YEAR_MONTH_DAY_TIME);
+            default:
+                return null;
+        }
+    }
+
+    static FixedWidthDateParser isoDate() {
+        return new FixedWidthDateParser(Layout.YEAR_MONTH_DAY);
+    }
+
+    static FixedWidthDateParser isoDateTime() {
+        return new FixedWidthDateParser(Layout.YEAR_MONTH_DAY_TIME);
+    }
+
+    LocalDate parseDate(CharSequence value, int start, int end) {
+        if (end - start != DATE_LENGTH) {
+            return null;
+        }
+        int year;
+        int month;
+        int day;
+        if (layout == Layout.YEAR_MONTH_DAY) {
+            if (value.charAt(start + 4) != '-' || value.charAt(start + 7) != '-') {
+                return null;
+            }
+            year = digits(value, start, 4);
+            month = digits(value, start + 5, 2);
+            day = digits(value, start + 8, 2);
+        } else if (layout == Layout.DAY_MONTH_YEAR) {
+            if (value.charAt(start + 2) != '/' || value.charAt(start + 5) != '/') {
+                return null;
+            }
+            day = digits(value, start, 2);
+            month = digits(value, start + 3, 2);
+            year = digits(value, start + 6, 4);
+        } else {
+            return null;
+        }
+        return isValidDate(year, month, day) ? LocalDate.of(year, month, day) : null;
+    }
+
+    LocalDateTime parseDateTime(CharSequence value, int start, int end) {
+        if (layout != Layout.YEAR_MONTH_DAY_TIME || end - start != DATE_TIME_LENGTH) {
+            return null;
+        }
+        if (value.charAt(start + 4) != '-' || value.charAt(start + 7) != '-' || value.charAt(start + 10) != 'T' ||
+                value.charAt(start + 13) != ':' || value.charAt(start + 16) != ':') {
+            return null;
+        }
+        int year = digits(value, start, 4);
+        int month = digits(value, start + 5, 2);
+        int day = digits(value, start + 8, 2);
+        int hour = digits(value, start + 11, 2);
+        int minute = digits(value, start + 14, 2);
+        int second = digits(value, start + 17, 2);
+        if (!isValidDate(year, month, day) || hour < 0 || hour > 23 || minute < 0 || minute > 59 ||
+                second < 0 || second > 59) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second);
+    }
+
+    private static boolean isValidDate(int year, int month, int day) {
+        return year > 0 && month >= 1 && month <= 12 && day >= 1 && day <= monthLength(year, month);
+    }
+
+    private static int monthLength(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static int digits(CharSequence value, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
@@ -0,0 +1,310 @@
+package com.popoyo.text.converter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Lectura de numeros en una sola pasada sobre el rango de texto: omite el separador de miles, mueve el signo menos
+ * final al inicio cuando la regla lo indica y redondea con {@link RoundingMode#HALF_UP} a [round] decimales mientras
+ * recorre los digitos. El resultado se empaqueta en un long (digitos sin escala, escala y signo) para no crear objetos.
+ * Solo cubre la forma [+|-]digitos[.digitos][-] con hasta 17 digitos significativos, cualquier otro valor devuelve
+ * {@link #INVALID} y debe convertirse con las funciones de {@link Long}, {@link Double} o {@link BigDecimal}, que
+ * ademas producen los mensajes de error. Es inmutable y puede compartirse entre hilos.
+ *
+ * @author aalaniz
+ */
+final class NumberParser {
+
+    static final long INVALID = -1L;
+
+    private static final long MAX_UNSCALED = 99_999_999_999_999_999L;
+    private static final int MAX_SCALE = 31;
+    private static final int SCALE_SHIFT = 57;
+    private static final long UNSCALED_MASK = (1L << SCALE_SHIFT) - 1;
+    private static final long NEGATIVE = 1L << 62;
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+    private static final long MAX_EXACT_FLOAT = 1L << 24;
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+            1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+    private final char millisSeparator;
+    private final boolean minusSignAtEnd;
+    private final int round;
+
+    /**
+     * [round] menor a cero indica que no se redondea.
+     */
+    NumberParser(char millisSeparator, boolean minusSignAtEnd, int round) {
+        this.millisSeparator = millisSeparator;
+        this.minusSignAtEnd = minusSignAtEnd;
+        this.round = round;
+    }
+
+    /**
+     * Lee el rango [start, end) de [content]. Si [decimal] es false no se acepta el punto decimal ni se redondea.
+     */
+    long parse(CharSequence content, int start, int end, boolean decimal) {
+        int maxScale = decimal && round >= 0 ? round : MAX_SCALE;
+        long unscaled = 0;
+        int scale = 0;
+        int digits = 0;
+        int droppedDigit = -1;
+        boolean negative = false;
+        boolean signed = false;
+        boolean point = false;
+        for (int i = start; i < end; i++) {
+            char c = content.charAt(i);
+            if (c == millisSeparator) {
+                continue;
+            }
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (point && scale == maxScale) {
+                    if (round < 0) {
+                        // Sin redondeo los digitos no pueden descartarse
+                        return INVALID;
+                    }
+                    if (droppedDigit == -1) {
+                        droppedDigit = c - '0';
+                    }
+                    continue;
+                }
+                if (unscaled > (MAX_UNSCALED - (c - '0')) / 10) {
+                    return INVALID;
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (point) {
+                    scale++;
+                }
+            } else if (c == '.' && decimal && !point) {
+                point = true;
+            } else if ((c == '-' || c == '+') && digits == 0 && !point && !signed) {
+                negative = c == '-';
+                signed = true;
+            } else if (c == '-' && minusSignAtEnd && !signed && digits > 0 && isLast(content, i + 1, end)) {
+                negative = true;
+                signed = true;
+            } else {
+                return INVALID;
+            }
+        }
+        if (digits == 0 || scale > MAX_SCALE) {
+            return INVALID;
+        }
+        if (droppedDigit >= 5) {
+            unscaled++;
+            if (unscaled > MAX_UNSCALED) {
+                return INVALID;
+            }
+        }
+        if (unscaled == 0 && decimal && round >= 0) {
+            // Igual que al redondear con BigDecimal, un valor que redondea a cero no conserva el signo
+            negative = false;
+        }
+        return unscaled | ((long) scale << SCALE_SHIFT) | (negative ? NEGATIVE : 0);
+    }
+
+    /**
+     * Devuelve true si despues de [from] solo quedan separadores de miles.
+     */
+    private boolean isLast(CharSequence content, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (content.charAt(i) != millisSeparator) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static long unscaled(long number) {
+        return number & UNSCALED_MASK;
+    }
+
+    static int scale(long number) {
+        return (int) (number >>> SCALE_SHIFT) & MAX_SCALE;
+    }
+
+    static boolean isNegative(long number) {
+        return (number & NEGATIVE) != 0;
+    }
+
+    /**
+     * Valor entero de un numero sin decimales.
+     */
+    static long longValue(long number) {
+        return isNegative(number) ? -unscaled(number) : unscaled(number);
+    }
+
+    BigDecimal bigDecimalValue(long number) {
+        BigDecimal value = BigDecimal.valueOf(longValue(number), scale(number));
+        return round >= 0 && value.scale() < round ? value.setScale(round) : value;
+    }
+
+    /**
+     * Devuelve true si el numero puede convertirse a double con una sola operacion exacta, sin pasar por
+     * {@link Double#parseDouble(String)}.
+     */
+    static boolean isExactDouble(long number) {
+        return unscaled(number) < MAX_EXACT_DOUBLE && scale(number) < DOUBLE_POWERS_OF_TEN.length;
+    }
+
+    static double doubleValue(long number) {
+        double value = unscaled(number) / DOUBLE_POWERS_OF_TEN[scale(number)];
+        return isNegative(number) ? -value : value;
+    }
+
+    static boolean isExactFloat(long number) {
+        return unscaled(number) < MAX_EXACT_FLOAT && scale(number) < FLOAT_POWERS_OF_TEN.length;
+    }
+
+    static float floatValue(long number) {
+        float value = unscaled(number) / FLOAT_POWERS_OF_TEN[scale(number)];
+        return isNegative(number) ? -value : value;
+    }
+
+    /**
+     * Copia el rango quitando el separador de miles y, si corresponde, mueve el signo menos del final al inicio.
+     */
+    String clean(CharSequence content, int start, int end) {
+        char[] chars = new char[end - start];
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = content.charAt(i);
+            if (c != millisSeparator) {
+                chars[length++] = c;
+            }
+        }
+        if (minusSignAtEnd && length > 0 && chars[length - 1] == '-') {
+            System.arraycopy(chars, 0, chars, 1, length - 1);
+            chars[0] = '-';
+        }
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * Devuelve true si {@link Long#valueOf(String)} y {@link java.math.BigInteger#BigInteger(String)} rechazan
+     * [value] por su forma, sin crear la excepcion. Un valor bien formado aun puede estar fuera del rango del tipo.
+     */
+    static boolean isMalformedInteger(String value) {
+        int length = value.length();
+        int i = length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+') ? 1 : 0;
+        if (i == length) {
+            return true;
+        }
+        for (; i < length; i++) {
+            if (Character.digit(value.charAt(i), 10) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Devuelve true si {@link BigDecimal#BigDecimal(String)} rechaza [value] porque no tiene digitos, contiene un
+     * caracter que no forma parte de un numero o un signo fuera del inicio o del exponente, como el signo menos al
+     * final cuando la regla no lo indica.
+     */
+    static boolean isMalformedDecimal(String value) {
+        boolean digits = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isDigit(c)) {
+                digits = true;
+            } else if (c == '-' || c == '+') {
+                if (i > 0 && !isExponent(value.charAt(i - 1), false)) {
+                    return true;
+                }
+            } else if (c != '.' && !isExponent(c, false)) {
+                return true;
+            }
+        }
+        return !digits;
+    }
+
+    /**
+     * Devuelve true si {@link Double#valueOf(String)} rechaza [value] porque esta vacio o tiene un signo fuera del
+     * inicio o del exponente. Acepta otras formas, como "NaN" o los valores hexadecimales, por lo que los demas
+     * caracteres no se validan.
+     */
+    static boolean isMalformedFloating(String value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return true;
+        }
+        for (int i = start + 1; i < end; i++) {
+            char c = value.charAt(i);
+            if ((c == '-' || c == '+') && !isExponent(value.charAt(i - 1), true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isExponent(char c, boolean hexadecimal) {
+        return c == 'e' || c == 'E' || (hexadecimal && (c == 'p' || c == 'P'));
+    }
+
+    /**
+     * Redondeo de los valores que no pudieron leerse en una sola pasada. Los valores con exponente positivo (escala
+     * negativa) no se completan con ceros, el resultado podria tener millones de digitos.
+     */
+    BigDecimal round(BigDecimal value) {
+        if (round < 0 || value.scale() == round || value.scale() < 0) {
+            return value;
+        }
+        return setScale(value);
+    }
+
+    /**
+     * Se redondea el texto [value] y no el double, para no redondear dos veces el mismo digito.
+     */
+    Double roundDouble(String value) {
+        Double number = Double.valueOf(value);
+        if (round < 0 || number.isNaN() || number.isInfinite()) {
+            return number;
+        }
+        return setScale(decimal(value, number.toString())).doubleValue();
+    }
+
+    Float roundFloat(String value) {
+        Float number = Float.valueOf(value);
+        if (round < 0 || number.isNaN() || number.isInfinite()) {
+            return number;
+        }
+        return setScale(decimal(value, number.toString())).floatValue();
+    }
+
+    /**
+     * Un valor menor a una decima de la ultima posicion [round] siempre redondea a cero, se resuelve sin dividir para
+     * no calcular potencias de diez enormes con valores como 1e-999999999.
+     */
+    private BigDecimal setScale(BigDecimal value) {
+        if (value.precision() - (long) value.scale() < -round) {
+            return BigDecimal.ZERO.setScale(round);
+        }
+        return value.setScale(round, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Double.valueOf acepta formas que BigDecimal no, como "1.5d" o los valores hexadecimales.
+     */
+    private static BigDecimal decimal(String value, String canonicalValue) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return new BigDecimal(canonicalValue);
+        }
+    }
+}
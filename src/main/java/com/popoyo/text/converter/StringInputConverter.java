@@ -11,10 +11,10 @@ import java.math.BigInteger;
 import java.text.DecimalFormatSymbols;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.Temporal;
 import java.util.Date;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
 
 /**
  *
@@ -24,6 +24,9 @@ public final class StringInputConverter {
 
     public static final StringInputConverter INSTANCE = new StringInputConverter();
 
+    private static final String CONSTRUCTOR_FAILED = "La creacion del objecto a traves de un constructor de tipo String fallo";
+    private static final String EMPTY_VALUE = "El valor no puede ser null";
+
     private StringInputConverter() {
     }
 
@@ -32,181 +35,332 @@ public final class StringInputConverter {
     }
 
     public <T> T convert(String value, Class<T> expectedType, ConversionConfiguration configuration) throws ConversionException {
+        return converterFor(expectedType, configuration).convert(value);
+    }
+
+    /**
+     * Resuelve una sola vez las reglas de conversion para [expectedType], el {@link ValueConverter} devuelto puede
+     * reutilizarse para convertir cualquier cantidad de valores.
+     */
+    public <T> ValueConverter<T> converterFor(Class<T> expectedType, ConversionConfiguration configuration) throws ConversionException {
         if (configuration == null) {
             throw new ConversionException("Parametro [configuration] es requerido");
         }
-        if (value == null || value.isEmpty()) {
-            return handleEmptyValue(value, expectedType, configuration);
-        } else if (expectedType == String.class) {
-            return (T) value;
+        ValueConverter<T> emptyConverter = emptyValueConverter(expectedType, configuration);
+        ValueConverter<T> converter = valueConverter(expectedType, configuration);
+        return new ValueConverter<T>() {
+            @Override
+            public T convert(String value) throws ConversionException {
+                return value == null || value.isEmpty() ? emptyConverter.convert(value) : converter.convert(value);
+            }
+
+            @Override
+            public T convert(CharSequence content, int start, int end) throws ConversionException {
+                return start == end ? emptyConverter.convert("") : converter.convert(content, start, end);
+            }
+
+            @Override
+            public Object tryConvert(String value) {
+                return value == null || value.isEmpty() ? emptyConverter.tryConvert(value) : converter.tryConvert(value);
+            }
+
+            @Override
+            public Object tryConvert(CharSequence content, int start, int end) {
+                return start == end ? emptyConverter.tryConvert("") : converter.tryConvert(content, start, end);
+            }
+        };
+    }
+
+    private <T> ValueConverter<T> valueConverter(Class<T> expectedType, ConversionConfiguration configuration) {
+        if (expectedType == String.class) {
+            return value -> (T) value;
         } else if (expectedType == StringBuilder.class) {
-            return (T) new StringBuilder(value);
+            return (SpanConverter<T>) (content, start, end) ->
+                    (T) new StringBuilder(end - start).append(content, start, end);
         } else if (expectedType == Character.class) {
-            return (T) convertToCharacter(value);
+            return checkedConverter(expectedType, (content, start, end) -> (T) characterValue(content, start, end));
         } else if (expectedType == Boolean.class) {
-            return (T) convertToBoolean(value);
+            return checkedConverter(expectedType, (content, start, end) -> (T) booleanValue(content, start, end));
         } else if (Number.class.isAssignableFrom(expectedType)) {
-            return handleNumericValue(value, expectedType, configuration);
+            return numericValueConverter(expectedType, configuration);
         } else if (Temporal.class.isAssignableFrom(expectedType) || Date.class.isAssignableFrom(expectedType)) {
-            return handleDateValue(value, expectedType, configuration);
+            return dateValueConverter(expectedType, configuration);
         } else {
-            return createUsingConstructor(value, expectedType);
+            return constructorConverter(expectedType);
         }
     }
 
-    private <T> T handleEmptyValue(String value, Class<T> expectedType, ConversionConfiguration configuration) throws ConversionException {
+    private <T> ValueConverter<T> emptyValueConverter(Class<T> expectedType, ConversionConfiguration configuration) {
         EmptyConversionRule emptyConversionRule = configuration.getEmptyRule(expectedType);
         if (emptyConversionRule != null) {
             if (emptyConversionRule.returnNull) {
-                return (T) null;
+                return value -> (T) null;
             } else if (emptyConversionRule.throwException) {
-                throw new ConversionException("El valor no puede ser null");
+                return new ValueConverter<T>() {
+                    @Override
+                    public T convert(String value) throws ConversionException {
+                        throw new ConversionException(EMPTY_VALUE);
+                    }
+
+                    @Override
+                    public Object tryConvert(String value) {
+                        return INVALID;
+                    }
+                };
             } else {
-                return (T) emptyConversionRule.returnDefaultValue;
+                T returnDefaultValue = (T) emptyConversionRule.returnDefaultValue;
+                return value -> returnDefaultValue;
             }
         } else {
-            return (T) null;
+            return value -> (T) null;
         }
     }
 
-    private <T> T handleNumericValue(String value, Class<T> expectedType, ConversionConfiguration configuration)
-            throws ConversionException {
-        String cleanValue = removeMillisSeparator(value, configuration);
-        cleanValue = handleMinusSignAtEnd(cleanValue, configuration);
+    private <T> ValueConverter<T> numericValueConverter(Class<T> expectedType, ConversionConfiguration configuration) {
+        NumberConversionRule numberConversionRule = configuration.getNumberConversionRule();
+        NumberParser parser = new NumberParser(millisSeparator(configuration),
+                numberConversionRule != null && numberConversionRule.minusSignAtEnd,
+                numberConversionRule != null ? numberConversionRule.round : -1);
         if (expectedType == Byte.class) {
-            return (T) Byte.valueOf(cleanValue);
+            return integralConverter(parser, Byte.MIN_VALUE, Byte.MAX_VALUE,
+                    value -> (T) Byte.valueOf((byte) value), value -> (T) Byte.valueOf(value));
         } else if (expectedType == Short.class) {
-            return (T) Short.valueOf(cleanValue);
+            return integralConverter(parser, Short.MIN_VALUE, Short.MAX_VALUE,
+                    value -> (T) Short.valueOf((short) value), value -> (T) Short.valueOf(value));
         } else if (expectedType == Integer.class) {
-            return (T) Integer.valueOf(cleanValue);
+            return integralConverter(parser, Integer.MIN_VALUE, Integer.MAX_VALUE,
+                    value -> (T) Integer.valueOf((int) value), value -> (T) Integer.valueOf(value));
         } else if (expectedType == Long.class) {
-            return (T) Long.valueOf(cleanValue);
+            return integralConverter(parser, Long.MIN_VALUE, Long.MAX_VALUE,
+                    value -> (T) Long.valueOf(value), value -> (T) Long.valueOf(value));
+        } else if (expectedType == BigInteger.class) {
+            return integralConverter(parser, Long.MIN_VALUE, Long.MAX_VALUE,
+                    value -> (T) BigInteger.valueOf(value), value -> (T) new BigInteger(value));
         } else if (expectedType == Float.class) {
-            return (T) Float.valueOf(cleanValue);
+            return numberConverter(parser, true, NumberParser::isMalformedFloating,
+                    number -> NumberParser.isExactFloat(number) ? (T) Float.valueOf(NumberParser.floatValue(number)) : null,
+                    value -> (T) parser.roundFloat(value));
         } else if (expectedType == Double.class) {
-            return (T) Double.valueOf(cleanValue);
-        } else if (expectedType == BigInteger.class) {
-            return (T) new BigInteger(cleanValue);
+            return numberConverter(parser, true, NumberParser::isMalformedFloating,
+                    number -> NumberParser.isExactDouble(number) ? (T) Double.valueOf(NumberParser.doubleValue(number)) : null,
+                    value -> (T) parser.roundDouble(value));
         } else if (expectedType == BigDecimal.class) {
-            return (T) new BigDecimal(cleanValue);
+            return numberConverter(parser, true, NumberParser::isMalformedDecimal,
+                    number -> (T) parser.bigDecimalValue(number),
+                    value -> (T) parser.round(new BigDecimal(value)));
         } else {
-            return createUsingConstructor(cleanValue, expectedType);
+            ValueConverter<T> converter = constructorConverter(expectedType);
+            return (SpanConverter<T>) (content, start, end) -> converter.convert(parser.clean(content, start, end));
         }
     }
 
-    private <T> T handleDateValue(String value, Class<T> expectedType, ConversionConfiguration configuration) throws ConversionException {
+    /**
+     * Los valores que no pueden leerse en una sola pasada o estan fuera de [min, max] se convierten con [converter],
+     * que produce el mismo resultado o error que antes.
+     */
+    private static <T> ValueConverter<T> integralConverter(NumberParser parser, long min, long max,
+                                                           LongFunction<T> fastConverter, ValueConverter<T> converter) {
+        return numberConverter(parser, false, NumberParser::isMalformedInteger, number -> {
+            long value = NumberParser.longValue(number);
+            return value >= min && value <= max ? fastConverter.apply(value) : null;
+        }, converter);
+    }
+
+    /**
+     * Lee el valor con [parser] y lo convierte con [fastConverter]; si [parser] no puede leerlo o [fastConverter]
+     * devuelve null, el valor sin separadores de miles se convierte con [converter]. {@link ValueConverter#tryConvert}
+     * descarta sin crear la excepcion los valores que [malformed] reconoce como invalidos.
+     */
+    private static <T> ValueConverter<T> numberConverter(NumberParser parser, boolean decimal, Predicate<String> malformed,
+                                                         LongFunction<T> fastConverter, ValueConverter<T> converter) {
+        return new SpanConverter<T>() {
+            @Override
+            public T convert(CharSequence content, int start, int end) throws ConversionException {
+                T value = fastValue(content, start, end);
+                return value != null ? value : converter.convert(parser.clean(content, start, end));
+            }
+
+            @Override
+            public Object tryConvert(CharSequence content, int start, int end) {
+                T value = fastValue(content, start, end);
+                if (value != null) {
+                    return value;
+                }
+                String cleanValue = parser.clean(content, start, end);
+                return malformed.test(cleanValue) ? INVALID : converter.tryConvert(cleanValue);
+            }
+
+            private T fastValue(CharSequence content, int start, int end) {
+                long number = parser.parse(content, start, end, decimal);
+                return number == NumberParser.INVALID ? null : fastConverter.apply(number);
+            }
+        };
+    }
+
+    private <T> ValueConverter<T> dateValueConverter(Class<T> expectedType, ConversionConfiguration configuration) {
         // TODO Considerar locale para el formateo de las fechas
         // TODO Incluir manejo de Time
         DateConversionRule dateConversionRule = configuration.getDateConversionRule();
-        String dateFormat = dateConversionRule.dateFormat;
-        String dateTimeFormat = dateConversionRule.dateTimeFormat;
         if (expectedType == LocalDate.class) {
-            if (dateFormat != null) {
-                return (T) LocalDate.parse(value, DateTimeFormatter.ofPattern(dateFormat));
-            } else {
-                return (T) LocalDate.parse(value, DateTimeFormatter.ISO_DATE);
-            }
+            return checkedConverter((content, start, end) -> (T) dateConversionRule.parseDate(content, start, end),
+                    (content, start, end) -> (T) dateConversionRule.tryParseDate(content, start, end));
         } else if (expectedType == LocalDateTime.class) {
-            if (dateTimeFormat != null) {
-                return (T) LocalDateTime.parse(value, DateTimeFormatter.ofPattern(dateTimeFormat));
-            } else {
-                return (T) LocalDateTime.parse(value, DateTimeFormatter.ISO_DATE_TIME);
-            }
+            return checkedConverter((content, start, end) -> (T) dateConversionRule.parseDateTime(content, start, end),
+                    (content, start, end) -> (T) dateConversionRule.tryParseDateTime(content, start, end));
         } else if (Date.class.isAssignableFrom(expectedType)) {
-            LocalDateTime localDateTime = handleDateValue(value, LocalDateTime.class, configuration);
-            Date date = Date.from(localDateTime.atZone(ZoneId.systemDefault()).toInstant());
-            if (expectedType == Date.class) {
-                return (T) date;
-            } else if (expectedType == java.sql.Date.class) {
-                return (T) new java.sql.Date(date.getTime());
-            } else if (expectedType == java.sql.Time.class) {
-                return (T) new java.sql.Time(date.getTime());
-            } else if (expectedType == java.sql.Timestamp.class) {
-                return (T) new java.sql.Timestamp(date.getTime());
-            } else {
-                return createUsingConstructor(value, expectedType);
-            }
+            ValueConverter<T> constructorConverter = constructorConverter(expectedType);
+            return (SpanConverter<T>) (content, start, end) -> {
+                Date date = dateConversionRule.toDate(dateConversionRule.parseDateTime(content, start, end));
+                if (expectedType == Date.class) {
+                    return (T) date;
+                } else if (expectedType == java.sql.Date.class) {
+                    return (T) new java.sql.Date(date.getTime());
+                } else if (expectedType == java.sql.Time.class) {
+                    return (T) new java.sql.Time(date.getTime());
+                } else if (expectedType == java.sql.Timestamp.class) {
+                    return (T) new java.sql.Timestamp(date.getTime());
+                } else {
+                    return constructorConverter.convert(content, start, end);
+                }
+            };
         } else {
-            return createUsingConstructor(value, expectedType);
+            return constructorConverter(expectedType);
         }
     }
 
-    public static <T> T createUsingConstructor(String value, Class<T> expectedType) throws ConversionException {
+    private static <T> ValueConverter<T> constructorConverter(Class<T> expectedType) {
+        Constructor<T> constructor;
         try {
-            Constructor<T> constructor = expectedType.getConstructor(String.class);
-            return constructor.newInstance(value);
-        } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
-            String detail = "La creacion del objecto a traves de un constructor de tipo String fallo";
-            throw new ConversionException(value, expectedType, detail);
+            constructor = expectedType.getConstructor(String.class);
+        } catch (NoSuchMethodException e) {
+            return value -> {
+                throw new ConversionException(value, expectedType, CONSTRUCTOR_FAILED);
+            };
         }
+        return value -> {
+            try {
+                return constructor.newInstance(value);
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new ConversionException(value, expectedType, CONSTRUCTOR_FAILED);
+            }
+        };
+    }
+
+    public static <T> T createUsingConstructor(String value, Class<T> expectedType) throws ConversionException {
+        return constructorConverter(expectedType).convert(value);
     }
 
-    private static String removeMillisSeparator(String value, ConversionConfiguration configuration) {
-        String cleanValue;
-        char millisSeparator;
+    private static char millisSeparator(ConversionConfiguration configuration) {
         if (configuration.getNumberConversionRule() != null) {
             NumberConversionRule numberConversionRule = configuration.getNumberConversionRule();
-            millisSeparator = numberConversionRule.millisSeparator;
+            return numberConversionRule.millisSeparator;
         } else {
             DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
-            millisSeparator = symbols.getGroupingSeparator();
-        }
-        if (value.indexOf(millisSeparator) != -1) {
-            cleanValue = removeAll(value, millisSeparator);
-        } else {
-            cleanValue = value;
+            return symbols.getGroupingSeparator();
         }
-        return cleanValue;
     }
 
-    private static String handleMinusSignAtEnd(String value, ConversionConfiguration configuration) {
-        String cleanValue;
-        NumberConversionRule numberConversionRule = configuration.getNumberConversionRule();
-        if (numberConversionRule != null && numberConversionRule.minusSignAtEnd && value.endsWith("-")) {
-            char[] origin = value.toCharArray();
-            char[] dest = new char[origin.length];
-            dest[0] = '-';
-            System.arraycopy(origin, 0, dest, 1, origin.length - 1);
-            cleanValue = new String(dest);
+    private static Character characterValue(CharSequence content, int start, int end) {
+        return end - start > 1 ? null : Character.valueOf(content.charAt(start));
+    }
+
+    private static Boolean booleanValue(CharSequence content, int start, int end) {
+        if (equalsIgnoreCase(content, start, end, "t") || equalsIgnoreCase(content, start, end, "true") ||
+                equalsIgnoreCase(content, start, end, "v") || equalsIgnoreCase(content, start, end, "verdadero") ||
+                equalsIgnoreCase(content, start, end, "y") || equalsIgnoreCase(content, start, end, "yes") ||
+                equalsIgnoreCase(content, start, end, "s") || equalsIgnoreCase(content, start, end, "si") ||
+                equalsIgnoreCase(content, start, end, "1")) {
+            return Boolean.TRUE;
+        } else if (equalsIgnoreCase(content, start, end, "f") || equalsIgnoreCase(content, start, end, "false") ||
+                equalsIgnoreCase(content, start, end, "falso") ||
+                equalsIgnoreCase(content, start, end, "n") || equalsIgnoreCase(content, start, end, "no") ||
+                equalsIgnoreCase(content, start, end, "0")) {
+            return Boolean.FALSE;
         } else {
-            cleanValue = value;
+            return null;
         }
-        return cleanValue;
     }
 
-    private static String removeAll(String value, char old) {
-        char[] chars = value.toCharArray();
-        StringBuilder newValue = new StringBuilder(chars.length);
-        for (int i = 0; i < chars.length; i++) {
-            if (chars[i] != old) {
-                newValue.append(chars[i]);
+    /**
+     * Conversion con [parser], que devuelve null cuando el rango no puede convertirse a [expectedType].
+     */
+    private static <T> ValueConverter<T> checkedConverter(Class<T> expectedType, SpanParser<T> parser) {
+        return checkedConverter((content, start, end) -> {
+            T value = parser.parse(content, start, end);
+            if (value == null) {
+                throw new ConversionException(content.subSequence(start, end).toString(), expectedType);
             }
-        }
-        return newValue.toString();
+            return value;
+        }, parser);
+    }
+
+    /**
+     * [converter] produce el resultado o el error; {@link ValueConverter#tryConvert} usa [parser], que devuelve null
+     * en lugar de lanzar la excepcion.
+     */
+    private static <T> ValueConverter<T> checkedConverter(SpanConverter<T> converter, SpanParser<T> parser) {
+        return new SpanConverter<T>() {
+            @Override
+            public T convert(CharSequence content, int start, int end) throws ConversionException {
+                return converter.convert(content, start, end);
+            }
+
+            @Override
+            public Object tryConvert(CharSequence content, int start, int end) {
+                T value = parser.parse(content, start, end);
+                return value == null ? INVALID : value;
+            }
+        };
     }
 
-    private static Character convertToCharacter(String value) throws ConversionException {
-        if (value.length() > 1) {
-            throw new ConversionException(value, Character.class);
+    /**
+     * Misma comparacion de {@link String#equalsIgnoreCase(String)} sobre el rango [start, end) de [content].
+     */
+    private static boolean equalsIgnoreCase(CharSequence content, int start, int end, String text) {
+        if (end - start != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c1 = content.charAt(start + i);
+            char c2 = text.charAt(i);
+            if (c1 != c2) {
+                char u1 = Character.toUpperCase(c1);
+                char u2 = Character.toUpperCase(c2);
+                if (u1 != u2 && Character.toLowerCase(u1) != Character.toLowerCase(u2)) {
+                    return false;
+                }
+            }
         }
-        return Character.valueOf(value.charAt(0));
+        return true;
     }
 
-    private static Boolean convertToBoolean(String value) throws ConversionException {
-        if ("t".equalsIgnoreCase(value) || "true".equalsIgnoreCase(value) ||
-                "v".equalsIgnoreCase(value) || "verdadero".equalsIgnoreCase(value) ||
-                "y".equalsIgnoreCase(value) || "yes".equalsIgnoreCase(value) ||
-                "s".equalsIgnoreCase(value) || "si".equalsIgnoreCase(value) ||
-                "1".equals(value)) {
-            return Boolean.TRUE;
-        } else if ("f".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value) ||
-                "falso".equalsIgnoreCase(value) ||
-                "n".equalsIgnoreCase(value) || "no".equalsIgnoreCase(value) ||
-                "0".equals(value)) {
-            return Boolean.FALSE;
-        } else {
-            throw new ConversionException(value, Boolean.class);
+    /**
+     * Conversion que lee directamente del rango, la conversion de un String completo usa el mismo camino.
+     */
+    @FunctionalInterface
+    private interface SpanConverter<T> extends ValueConverter<T> {
+
+        @Override
+        T convert(CharSequence content, int start, int end) throws ConversionException;
+
+        @Override
+        default T convert(String value) throws ConversionException {
+            return convert(value, 0, value.length());
+        }
+
+        @Override
+        default Object tryConvert(String value) {
+            return tryConvert(value, 0, value.length());
         }
     }
 
+    /**
+     * Lectura del rango que devuelve null si el valor no es valido, sin lanzar excepciones.
+     */
+    @FunctionalInterface
+    private interface SpanParser<T> {
+
+        T parse(CharSequence content, int start, int end);
+    }
+
 }
@@ -0,0 +1,52 @@
+package com.popoyo.text.converter;
+
+/**
+ * Conversion hacia un tipo especifico cuyas reglas ya fueron resueltas a partir de una {@link ConversionConfiguration}.
+ *
+ * @author aalaniz
+ */
+@FunctionalInterface
+public interface ValueConverter<T> {
+
+    /**
+     * Resultado de {@link #tryConvert(String)} y {@link #tryConvert(CharSequence, int, int)} cuando el valor no puede
+     * convertirse.
+     */
+    Object INVALID = new Object();
+
+    T convert(String value) throws ConversionException;
+
+    /**
+     * Convierte el rango [start, end) de [content]. Las implementaciones que pueden leer el valor directamente del
+     * rango evitan crear el String intermedio.
+     */
+    default T convert(CharSequence content, int start, int end) throws ConversionException {
+        return convert(content.subSequence(start, end).toString());
+    }
+
+    /**
+     * Igual que {@link #convert(String)}, pero devuelve {@link #INVALID} en lugar de lanzar la excepcion. El mensaje
+     * del error se obtiene repitiendo la conversion con {@link #convert(String)}.
+     */
+    default Object tryConvert(String value) {
+        try {
+            return convert(value);
+        } catch (ConversionException | IllegalArgumentException e) {
+            return INVALID;
+        }
+    }
+
+    /**
+     * Igual que {@link #convert(CharSequence, int, int)}, pero devuelve {@link #INVALID} en lugar de lanzar la
+     * excepcion. Las implementaciones que reconocen los valores invalidos antes de convertirlos no crean la excepcion
+     * ni su mensaje.
+     */
+    default Object tryConvert(CharSequence content, int start, int end) {
+        try {
+            return convert(content, start, end);
+        } catch (ConversionException | IllegalArgumentException e) {
+            return INVALID;
+        }
+    }
+
+}
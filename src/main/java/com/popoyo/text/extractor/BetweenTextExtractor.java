@@ -24,16 +24,43 @@ public class BetweenTextExtractor<T> implements TextExtractor<T> {
 
     @Override
     public String rawValue(String content) {
-        int fromIndex = content.indexOf(leadingText);
-        if (fromIndex != -1) {
-            fromIndex += leadingText.length();
-            int toIndex = content.indexOf(trailingText, fromIndex);
+        return TextSpan.toString(content, span(content));
+    }
+
+    /**
+     * Extrae el valor conociendo de antemano la posicion de [leadingText] y la primera posicion de [trailingText] en
+     * [content], -1 si no aparecen. Si [trailingText] aparece antes del final de [leadingText] se busca de nuevo a
+     * partir de ese punto.
+     */
+    public String rawValue(String content, int leadingIndex, int trailingIndex) {
+        return TextSpan.toString(content, span(content, leadingIndex, trailingIndex));
+    }
+
+    @Override
+    public long span(CharSequence content) {
+        int leadingIndex = TextSpan.indexOf(content, leadingText, 0);
+        if (leadingIndex != -1) {
+            int fromIndex = leadingIndex + leadingText.length();
+            return valueSpan(content, fromIndex, TextSpan.indexOf(content, trailingText, fromIndex));
+        } else {
+            return TextSpan.EMPTY;
+        }
+    }
 
-            String rawValue = toIndex == -1 ? content.substring(fromIndex) : content.substring(fromIndex, toIndex);
-            return trim ? rawValue.trim() : rawValue;
+    public long span(CharSequence content, int leadingIndex, int trailingIndex) {
+        if (leadingIndex != -1) {
+            int fromIndex = leadingIndex + leadingText.length();
+            int toIndex = trailingIndex == -1 || trailingIndex >= fromIndex ? trailingIndex
+                    : TextSpan.indexOf(content, trailingText, fromIndex);
+            return valueSpan(content, fromIndex, toIndex);
         } else {
-            return "";
+            return TextSpan.EMPTY;
         }
     }
 
+    private long valueSpan(CharSequence content, int fromIndex, int toIndex) {
+        int end = toIndex == -1 ? content.length() : toIndex;
+        return trim ? TextSpan.trim(content, fromIndex, end) : TextSpan.of(fromIndex, end);
+    }
+
 }
@@ -0,0 +1,167 @@
+package com.popoyo.text.extractor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reglas [cleanup] de {@link PatternTextExtractor} compiladas una sola vez. Cada regla elimina del valor el texto que
+ * coincide con ella, en el mismo orden en que fueron definidas, con el mismo resultado que aplicar
+ * {@link String#replaceAll(String, String)} regla por regla:
+ * <ul>
+ * <li>las reglas que son un solo caracter literal (por ejemplo "," o "\\$") se agrupan cuando son consecutivas y se
+ * eliminan en una sola pasada, el orden entre ellas no altera el resultado</li>
+ * <li>las demas reglas literales se eliminan sin usar expresiones regulares</li>
+ * <li>el resto se compila como {@link Pattern}</li>
+ * </ul>
+ * La primera regla lee directamente el rango del valor, sin copiarlo. Es inmutable y puede compartirse entre hilos.
+ *
+ * @author aalaniz
+ */
+final class CleanupRules {
+
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    private final Rule[] rules;
+
+    private CleanupRules(List<Rule> rules) {
+        this.rules = rules.toArray(new Rule[0]);
+    }
+
+    /**
+     * Devuelve null si [cleanup] no tiene reglas que eliminen texto.
+     */
+    static CleanupRules compile(String[] cleanup) {
+        if (cleanup == null) {
+            return null;
+        }
+        List<Rule> rules = new ArrayList<>();
+        StringBuilder characters = new StringBuilder();
+        for (String regex : cleanup) {
+            String literal = literal(regex);
+            if (literal != null && literal.length() == 1) {
+                characters.append(literal);
+                continue;
+            }
+            if (characters.length() > 0) {
+                rules.add(new CharacterRule(characters.toString()));
+                characters.setLength(0);
+            }
+            if (literal != null) {
+                if (!literal.isEmpty()) {
+                    rules.add(new LiteralRule(literal));
+                }
+            } else {
+                rules.add(new PatternRule(Pattern.compile(regex)));
+            }
+        }
+        if (characters.length() > 0) {
+            rules.add(new CharacterRule(characters.toString()));
+        }
+        return rules.isEmpty() ? null : new CleanupRules(rules);
+    }
+
+    /**
+     * Texto que representa [regex] si no contiene metacaracteres, o solo metacaracteres escapados con '\', o null.
+     */
+    private static String literal(String regex) {
+        StringBuilder literal = new StringBuilder(regex.length());
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 == regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                    return null;
+                }
+                literal.append(regex.charAt(++i));
+            } else if (METACHARACTERS.indexOf(c) >= 0) {
+                return null;
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.toString();
+    }
+
+    String apply(CharSequence content, int start, int end) {
+        String value = rules[0].apply(content, start, end);
+        for (int i = 1; i < rules.length; i++) {
+            value = rules[i].apply(value, 0, value.length());
+        }
+        return value;
+    }
+
+    private interface Rule {
+
+        String apply(CharSequence content, int start, int end);
+    }
+
+    private static final class CharacterRule implements Rule {
+        private final String characters;
+
+        CharacterRule(String characters) {
+            this.characters = characters;
+        }
+
+        @Override
+        public String apply(CharSequence content, int start, int end) {
+            char[] value = new char[end - start];
+            int length = 0;
+            for (int i = start; i < end; i++) {
+                char c = content.charAt(i);
+                if (characters.indexOf(c) < 0) {
+                    value[length++] = c;
+                }
+            }
+            return new String(value, 0, length);
+        }
+    }
+
+    private static final class LiteralRule implements Rule {
+        private final String literal;
+
+        LiteralRule(String literal) {
+            this.literal = literal;
+        }
+
+        @Override
+        public String apply(CharSequence content, int start, int end) {
+            StringBuilder value = new StringBuilder(end - start);
+            int from = start;
+            int index;
+            while ((index = indexOf(content, from, end)) >= 0) {
+                value.append(content, from, index);
+                from = index + literal.length();
+            }
+            return value.append(content, from, end).toString();
+        }
+
+        private int indexOf(CharSequence content, int from, int end) {
+            int index = TextSpan.indexOf(content, literal, from);
+            return index >= 0 && index + literal.length() <= end ? index : -1;
+        }
+    }
+
+    private static final class PatternRule implements Rule {
+        private final Pattern pattern;
+
+        PatternRule(Pattern pattern) {
+            this.pattern = pattern;
+        }
+
+        /**
+         * Con la region [start, end) los anclajes y los look-behind se comportan igual que sobre la subcadena.
+         */
+        @Override
+        public String apply(CharSequence content, int start, int end) {
+            Matcher matcher = pattern.matcher(content).region(start, end);
+            StringBuilder value = new StringBuilder(end - start);
+            int from = start;
+            while (matcher.find()) {
+                value.append(content, from, matcher.start());
+                from = matcher.end();
+            }
+            return value.append(content, from, end).toString();
+        }
+    }
+}
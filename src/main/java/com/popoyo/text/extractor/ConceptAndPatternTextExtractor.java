@@ -14,30 +14,85 @@ public class ConceptAndPatternTextExtractor<T> implements TextExtractor<T> {
 
     private final Concept afterConcept;
     private final Pattern beforePattern;
+    private final RegexPrefilter beforePrefilter;
     private final boolean trim;
 
     public ConceptAndPatternTextExtractor(Concept afterConcept, String beforeRegex, boolean trim) {
         this.afterConcept = afterConcept;
         this.beforePattern = Pattern.compile(beforeRegex);
+        this.beforePrefilter = RegexPrefilter.of(beforeRegex);
         this.trim = trim;
     }
 
+    public Concept getAfterConcept() {
+        return afterConcept;
+    }
+
     @Override
     public String rawValue(String content) {
-        try {
-            String left = afterConcept.rawValue(content);
-            Matcher matcher = beforePattern.matcher(content);
-
-            if (!left.isEmpty() && matcher.find()) {
-                int start = content.indexOf(left) + left.length();
-                int end = matcher.start();
-                String value = content.substring(start, end);
-                return trim ? value.trim() : value;
-            } else {
-                return "";
+        long span = span(content);
+        if (span == TextSpan.INVALID) {
+            try {
+                // El valor de [afterConcept] no puede extraerse, su rawValue lanza la excepcion con el detalle
+                afterConcept.rawValue(content);
+            } catch (ConceptException ex) {
+                throw new IllegalArgumentException(ex.getMessage());
             }
-        } catch(ConceptException ex) {
-            throw new IllegalArgumentException(ex.getMessage());
+            return "";
+        }
+        return TextSpan.toString(content, span);
+    }
+
+    /**
+     * Ubica el valor de [afterConcept] con su propio span, por lo que la cadena de conceptos se recorre una sola vez.
+     */
+    @Override
+    public long span(CharSequence content) {
+        long afterSpan = afterConcept.span(content);
+        if (afterSpan == TextSpan.INVALID) {
+            return TextSpan.INVALID;
+        } else if (afterSpan != TextSpan.NONE) {
+            return spanAfter(content, afterSpan);
+        }
+        try {
+            return spanAfter(content, afterConcept.rawValue(content.toString()));
+        } catch (ConceptException | IllegalArgumentException ex) {
+            return TextSpan.INVALID;
+        }
+    }
+
+    /**
+     * Ubicacion del valor cuando ya se conoce [afterSpan], la ubicacion del valor de [afterConcept]. Si ese valor es
+     * vacio el valor tambien lo es.
+     */
+    public long spanAfter(CharSequence content, long afterSpan) {
+        return TextSpan.length(afterSpan) == 0 ? TextSpan.EMPTY : span(content, TextSpan.end(afterSpan));
+    }
+
+    /**
+     * Igual que {@link #spanAfter(CharSequence, long)} cuando el valor de [afterConcept] no es un rango de la linea,
+     * como un PATTERN con [cleanup]; el valor se ubica buscando [afterValue] en la linea.
+     */
+    public long spanAfter(CharSequence content, String afterValue) {
+        if (afterValue.isEmpty()) {
+            return TextSpan.EMPTY;
+        }
+        return span(content, TextSpan.indexOf(content, afterValue, 0) + afterValue.length());
+    }
+
+    /**
+     * Ubicacion del valor cuando ya se conoce [afterEnd], la posicion donde termina el valor de [afterConcept]. El
+     * valor va desde [afterEnd] hasta la primera coincidencia de [beforeRegex] a partir de esa posicion.
+     */
+    public long span(CharSequence content, int afterEnd) {
+        if (!beforePrefilter.mayMatch(content)) {
+            return TextSpan.EMPTY;
+        }
+        Matcher matcher = beforePattern.matcher(content);
+        if (matcher.find(afterEnd)) {
+            return trim ? TextSpan.trim(content, afterEnd, matcher.start()) : TextSpan.of(afterEnd, matcher.start());
+        } else {
+            return TextSpan.EMPTY;
         }
     }
 }
@@ -2,6 +2,7 @@ package com.popoyo.text.extractor;
 
 public class FixedTextExtractor<T> implements TextExtractor<T> {
     private static final String LENGTH_OUT_OF_BOUNDS = "[%d] es mayor que la cantidad de caracteres disponibles [%d]";
+    private static final String RANGE_OUT_OF_BOUNDS = "El rango [%d, %d) esta fuera de la linea de longitud [%d]";
 
     private final int index;
     private final int length;
@@ -16,11 +17,28 @@ public class FixedTextExtractor<T> implements TextExtractor<T> {
 
     @Override
     public String rawValue(String content) throws IllegalArgumentException {
-        int remaining = content.length() - index + 1;
-        if (length != -1 && length > remaining) {
-            throw new IllegalArgumentException(String.format(LENGTH_OUT_OF_BOUNDS, length, remaining));
+        long span = span(content);
+        if (span == TextSpan.INVALID) {
+            int remaining = content.length() - index;
+            if (remaining >= 0 && length > remaining) {
+                throw new IllegalArgumentException(String.format(LENGTH_OUT_OF_BOUNDS, length, remaining));
+            }
+            int end = length == -1 ? content.length() : index + length;
+            throw new IllegalArgumentException(String.format(RANGE_OUT_OF_BOUNDS, index, end, content.length()));
         }
-        return length == -1 ? content.substring(index) : content.substring(index, index + length);
+        return TextSpan.toString(content, span);
+    }
+
+    /**
+     * Devuelve {@link TextSpan#INVALID} si el rango [index, index + length) no esta dentro de [content].
+     */
+    @Override
+    public long span(CharSequence content) {
+        int end = length == -1 ? content.length() : index + length;
+        if (index > end || end > content.length()) {
+            return TextSpan.INVALID;
+        }
+        return TextSpan.of(index, end);
     }
 
 }
@@ -22,12 +22,27 @@ public class OffsetTextExtractor<T> implements TextExtractor<T> {
 
     @Override
     public String rawValue(String content) {
-        int index = content.indexOf(offset);
+        return rawValue(content, content.indexOf(offset));
+    }
+
+    /**
+     * Extrae el valor conociendo de antemano la posicion de [offset] en [content], -1 si no aparece.
+     */
+    public String rawValue(String content, int index) {
+        return TextSpan.toString(content, span(content, index));
+    }
+
+    @Override
+    public long span(CharSequence content) {
+        return span(content, TextSpan.indexOf(content, offset, 0));
+    }
+
+    public long span(CharSequence content, int index) {
         if (index != -1) {
-            String rawValue = content.substring(index + offset.length());
-            return trim ? rawValue.trim() : rawValue;
+            int start = index + offset.length();
+            return trim ? TextSpan.trim(content, start, content.length()) : TextSpan.of(start, content.length());
         } else {
-            return "";
+            return TextSpan.EMPTY;
         }
     }
 
@@ -11,13 +11,15 @@ import java.util.regex.Pattern;
 public class PatternTextExtractor<T> implements TextExtractor<T> {
 
     private final Pattern pattern;
-    private final String[] cleanup;
+    private final RegexPrefilter prefilter;
+    private final CleanupRules cleanupRules;
     private final boolean trim;
 
     public PatternTextExtractor(String regex, String[] cleanup, boolean trim) throws NullPointerException {
         Objects.requireNonNull(regex, "[regex] es requerido");
         this.pattern = Pattern.compile(regex);
-        this.cleanup = cleanup;
+        this.prefilter = RegexPrefilter.of(regex);
+        this.cleanupRules = CleanupRules.compile(cleanup);
         this.trim = trim;
     }
 
@@ -31,27 +33,45 @@ public class PatternTextExtractor<T> implements TextExtractor<T> {
 
     @Override
     public String rawValue(String content) {
-        Matcher matcher = pattern.matcher(content);
-
-        if (matcher.find()) {
-            String rawValue = content.substring(matcher.start(), matcher.end());
-            rawValue = trim ? rawValue.trim() : rawValue;
-            if (cleanup == null || cleanup.length == 0) {
-                return rawValue;
-            } else {
-                return cleanExtractedContent(rawValue);
-            }
-        } else {
-            return "";
+        long span = valueSpan(content);
+        if (cleanupRules == null || TextSpan.length(span) == 0) {
+            return TextSpan.toString(content, span);
         }
+        return cleanupRules.apply(content, TextSpan.start(span), TextSpan.end(span));
+    }
+
+    /**
+     * Con [cleanup] el valor deja de ser un rango de [content] y se devuelve {@link TextSpan#NONE}.
+     */
+    @Override
+    public long span(CharSequence content) {
+        return cleanupRules == null ? valueSpan(content) : TextSpan.NONE;
     }
 
-    private String cleanExtractedContent(String content) {
-        String cleanupContent = content;
-        for (String textToRemove : cleanup) {
-            cleanupContent = cleanupContent.replaceAll(textToRemove, "");
+    /**
+     * Las lineas que no contienen el texto requerido por la expresion se descartan sin ejecutar el
+     * {@link Matcher}, ver {@link RegexPrefilter}.
+     */
+    private long valueSpan(CharSequence content) {
+        String literal = prefilter.literal();
+        if (literal != null) {
+            int start = TextSpan.indexOf(content, literal, 0);
+            if (start < 0) {
+                return TextSpan.EMPTY;
+            }
+            return trim ? TextSpan.trim(content, start, start + literal.length())
+                    : TextSpan.of(start, start + literal.length());
+        }
+        if (!prefilter.mayMatch(content)) {
+            return TextSpan.EMPTY;
+        }
+        Matcher matcher = pattern.matcher(content);
+        if (matcher.find()) {
+            return trim ? TextSpan.trim(content, matcher.start(), matcher.end())
+                    : TextSpan.of(matcher.start(), matcher.end());
+        } else {
+            return TextSpan.EMPTY;
         }
-        return cleanupContent;
     }
 
 }
@@ -0,0 +1,383 @@
+package com.popoyo.text.extractor;
+
+/**
+ * Condicion necesaria para que una expresion regular encuentre una coincidencia en una linea, obtenida al analizar la
+ * expresion una sola vez. Permite descartar con un indexOf o con una revision de caracteres las lineas que no pueden
+ * coincidir, sin ejecutar el {@link java.util.regex.Matcher}:
+ * <ul>
+ * <li>el texto literal mas largo que toda coincidencia debe contener, por ejemplo "ITEM" en "ITEM\\d+"</li>
+ * <li>si no hay texto literal, una clase de caracteres requerida como [0-9] o \d</li>
+ * </ul>
+ * Si la expresion completa es un texto literal {@link #literal()} lo devuelve y la busqueda puede hacerse con
+ * indexOf. El analisis es conservador: ante alternativas de primer nivel, flags en linea o construcciones que no
+ * reconoce no descarta ninguna linea. Es inmutable y puede compartirse entre hilos.
+ *
+ * @author aalaniz
+ */
+final class RegexPrefilter {
+
+    private static final RegexPrefilter NONE = new RegexPrefilter(null, null, null);
+    private static final int ASCII = 128;
+
+    private final String requiredText;
+    private final boolean[] requiredCharacters;
+    private final String literal;
+
+    private RegexPrefilter(String requiredText, boolean[] requiredCharacters, String literal) {
+        this.requiredText = requiredText;
+        this.requiredCharacters = requiredCharacters;
+        this.literal = literal;
+    }
+
+    static RegexPrefilter of(String regex) {
+        try {
+            return new Analyzer(regex).analyze();
+        } catch (UnsupportedOperationException e) {
+            return NONE;
+        }
+    }
+
+    /**
+     * Devuelve false solo si [content] no puede contener una coincidencia de la expresion.
+     */
+    boolean mayMatch(CharSequence content) {
+        if (requiredText != null) {
+            return TextSpan.indexOf(content, requiredText, 0) >= 0;
+        } else if (requiredCharacters != null) {
+            for (int i = 0; i < content.length(); i++) {
+                char c = content.charAt(i);
+                if (c < ASCII && requiredCharacters[c]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Texto equivalente a la expresion, o null si la expresion no es un texto literal.
+     */
+    String literal() {
+        return literal;
+    }
+
+    /**
+     * Recorre la expresion atomo por atomo. Los caracteres literales consecutivos que aparecen exactamente una vez
+     * forman un texto requerido; cualquier otro atomo corta el texto. Lanza {@link UnsupportedOperationException}
+     * cuando la expresion usa algo que no se analiza.
+     */
+    private static final class Analyzer {
+        private final String regex;
+        private final StringBuilder run = new StringBuilder();
+        private int position;
+        private String longestRun = "";
+        private boolean[] firstRequiredClass;
+        private boolean pure = true;
+        private boolean repeated;
+
+        Analyzer(String regex) {
+            this.regex = regex;
+        }
+
+        RegexPrefilter analyze() {
+            while (position < regex.length()) {
+                atom();
+            }
+            endRun();
+            if (longestRun.isEmpty()) {
+                return firstRequiredClass == null ? NONE : new RegexPrefilter(null, firstRequiredClass, null);
+            }
+            return new RegexPrefilter(longestRun, null, pure ? longestRun : null);
+        }
+
+        private void atom() {
+            char c = regex.charAt(position++);
+            if (c == '|' || c == ')' || c == '{') {
+                throw new UnsupportedOperationException();
+            } else if (c == '(') {
+                skipGroup();
+                other(null);
+            } else if (c == '[') {
+                other(characterClass());
+            } else if (c == '.') {
+                other(null);
+            } else if (c == '^' || c == '$') {
+                zeroWidth();
+            } else if (c == '\\') {
+                escape();
+            } else {
+                literal(c);
+            }
+        }
+
+        private void escape() {
+            char c = next();
+            if (!Character.isLetterOrDigit(c)) {
+                literal(c);
+            } else if (c == 't') {
+                literal('\t');
+            } else if (c == 'n') {
+                literal('\n');
+            } else if (c == 'r') {
+                literal('\r');
+            } else if (c == 'f') {
+                literal('\f');
+            } else if (c == 'd') {
+                other(digits());
+            } else if (c == 'b' || c == 'B' || c == 'A' || c == 'z' || c == 'Z' || c == 'G') {
+                zeroWidth();
+            } else if (c == 'Q') {
+                quotation();
+            } else if (c >= '1' && c <= '9' || c == 'k') {
+                // Una referencia a un grupo puede coincidir con el texto vacio, no se analiza
+                throw new UnsupportedOperationException();
+            } else if (c == 'p' || c == 'P' || c == 'N' || c == 'x') {
+                if (position < regex.length() && regex.charAt(position) == '{') {
+                    skipTo('}');
+                } else {
+                    skip(c == 'x' ? 2 : c == 'N' ? 0 : 1);
+                }
+                other(null);
+            } else if (c == 'u') {
+                skip(4);
+                other(null);
+            } else if (c == 'c') {
+                skip(1);
+                other(null);
+            } else if (c == '0') {
+                // Los digitos octales no se analizan
+                throw new UnsupportedOperationException();
+            } else {
+                // \w, \s, \D, etc. consumen un caracter que no se analiza
+                other(null);
+            }
+        }
+
+        /**
+         * \Q...\E: cada caracter es un literal, el cuantificador que sigue a \E aplica solo al ultimo.
+         */
+        private void quotation() {
+            int end = regex.indexOf("\\E", position);
+            String quoted = end < 0 ? regex.substring(position) : regex.substring(position, end);
+            position = end < 0 ? regex.length() : end + 2;
+            if (quoted.isEmpty()) {
+                throw new UnsupportedOperationException();
+            }
+            for (int i = 0; i < quoted.length() - 1; i++) {
+                run.append(quoted.charAt(i));
+            }
+            literal(quoted.charAt(quoted.length() - 1));
+        }
+
+        private void literal(char c) {
+            int min = quantifier();
+            if (min == 1 && !repeated) {
+                run.append(c);
+                return;
+            }
+            pure = false;
+            if (min >= 1) {
+                run.append(c);
+            }
+            endRun();
+        }
+
+        /**
+         * Atomo que consume al menos un caracter que no es literal, [characters] es el conjunto de caracteres ASCII
+         * que puede consumir o null si no se conoce.
+         */
+        private void other(boolean[] characters) {
+            int min = quantifier();
+            pure = false;
+            endRun();
+            if (min >= 1 && characters != null && firstRequiredClass == null) {
+                firstRequiredClass = characters;
+            }
+        }
+
+        private void zeroWidth() {
+            quantifier();
+            pure = false;
+            endRun();
+        }
+
+        /**
+         * Lee el cuantificador que sigue al atomo y devuelve la cantidad minima de repeticiones. [repeated] indica si
+         * el atomo puede aparecer mas de una vez.
+         */
+        private int quantifier() {
+            repeated = false;
+            if (position == regex.length()) {
+                return 1;
+            }
+            char c = regex.charAt(position);
+            int min;
+            if (c == '?' || c == '*') {
+                position++;
+                min = 0;
+                repeated = c == '*';
+            } else if (c == '+') {
+                position++;
+                min = 1;
+                repeated = true;
+            } else if (c == '{') {
+                int end = regex.indexOf('}', position);
+                if (end < 0) {
+                    throw new UnsupportedOperationException();
+                }
+                String bounds = regex.substring(position + 1, end);
+                position = end + 1;
+                int comma = bounds.indexOf(',');
+                try {
+                    min = Integer.parseInt(comma < 0 ? bounds : bounds.substring(0, comma));
+                } catch (NumberFormatException e) {
+                    throw new UnsupportedOperationException();
+                }
+                repeated = !(comma < 0 ? bounds : bounds.substring(comma + 1)).equals("1") || min != 1;
+            } else {
+                return 1;
+            }
+            if (position < regex.length() && (regex.charAt(position) == '?' || regex.charAt(position) == '+')) {
+                position++;
+            }
+            return min;
+        }
+
+        /**
+         * Omite el grupo completo, su contenido no se analiza. Los flags en linea como (?i) cambian el significado
+         * del resto de la expresion, por lo que no se analizan.
+         */
+        private void skipGroup() {
+            if (position < regex.length() && regex.charAt(position) == '?') {
+                char kind = position + 1 < regex.length() ? regex.charAt(position + 1) : ')';
+                if (kind != ':' && kind != '=' && kind != '!' && kind != '<' && kind != '>') {
+                    throw new UnsupportedOperationException();
+                }
+            }
+            int depth = 1;
+            while (depth > 0) {
+                char c = next();
+                if (c == '\\') {
+                    if (next() == 'Q') {
+                        int end = regex.indexOf("\\E", position);
+                        position = end < 0 ? regex.length() : end + 2;
+                    }
+                } else if (c == '[') {
+                    characterClass();
+                } else if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                }
+            }
+        }
+
+        /**
+         * Lee una clase de caracteres y devuelve el conjunto de caracteres ASCII que acepta, o null si es negada,
+         * incluye caracteres no ASCII o usa construcciones que no se analizan.
+         */
+        private boolean[] characterClass() {
+            boolean[] characters = new boolean[ASCII];
+            boolean known = true;
+            if (position < regex.length() && regex.charAt(position) == '^') {
+                position++;
+                known = false;
+            }
+            if (position < regex.length() && regex.charAt(position) == ']') {
+                throw new UnsupportedOperationException();
+            }
+            int depth = 1;
+            int previous = -1;
+            while (true) {
+                char c = next();
+                if (c == ']') {
+                    if (--depth == 0) {
+                        break;
+                    }
+                    continue;
+                } else if (c == '[') {
+                    depth++;
+                    known = false;
+                    continue;
+                } else if (c == '&' && position < regex.length() && regex.charAt(position) == '&') {
+                    known = false;
+                    continue;
+                }
+                int character = c;
+                if (c == '\\') {
+                    char escaped = next();
+                    if (escaped == 'Q') {
+                        throw new UnsupportedOperationException();
+                    } else if (escaped == 'd') {
+                        add(characters, '0', '9');
+                        character = -1;
+                    } else if (!Character.isLetterOrDigit(escaped)) {
+                        character = escaped;
+                    } else {
+                        known = false;
+                        character = -1;
+                    }
+                } else if (c == '-' && previous >= 0 && position < regex.length() && regex.charAt(position) != ']') {
+                    char to = next();
+                    if (to == '\\' || to == '[') {
+                        throw new UnsupportedOperationException();
+                    }
+                    known &= add(characters, (char) previous, to);
+                    previous = -1;
+                    continue;
+                }
+                if (character >= 0) {
+                    known &= add(characters, (char) character, (char) character);
+                }
+                previous = character;
+            }
+            return known ? characters : null;
+        }
+
+        private static boolean add(boolean[] characters, char from, char to) {
+            if (to >= ASCII) {
+                return false;
+            }
+            for (char c = from; c <= to; c++) {
+                characters[c] = true;
+            }
+            return true;
+        }
+
+        private static boolean[] digits() {
+            boolean[] digits = new boolean[ASCII];
+            add(digits, '0', '9');
+            return digits;
+        }
+
+        private void skip(int count) {
+            if (position + count > regex.length()) {
+                throw new UnsupportedOperationException();
+            }
+            position += count;
+        }
+
+        private void skipTo(char c) {
+            int end = regex.indexOf(c, position);
+            if (end < 0) {
+                throw new UnsupportedOperationException();
+            }
+            position = end + 1;
+        }
+
+        private char next() {
+            if (position == regex.length()) {
+                throw new UnsupportedOperationException();
+            }
+            return regex.charAt(position++);
+        }
+
+        private void endRun() {
+            if (run.length() > longestRun.length()) {
+                longestRun = run.toString();
+            }
+            run.setLength(0);
+        }
+    }
+}
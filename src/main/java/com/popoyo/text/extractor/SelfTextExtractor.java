@@ -11,4 +11,9 @@ public class SelfTextExtractor<T> implements TextExtractor<T> {
         return content;
     }
 
+    @Override
+    public long span(CharSequence content) {
+        return TextSpan.of(0, content.length());
+    }
+
 }
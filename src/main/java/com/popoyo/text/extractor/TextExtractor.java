@@ -12,6 +12,15 @@ public interface TextExtractor<T> {
 
     String rawValue(String content);
 
+    /**
+     * Devuelve la ubicacion del valor dentro de [content] como un {@link TextSpan}, sin crear un String, o
+     * {@link TextSpan#NONE} si el valor no es un rango de [content] y debe obtenerse con {@link #rawValue(String)}.
+     * Devuelve {@link TextSpan#INVALID} en lugar de lanzar una excepcion cuando el valor no puede extraerse.
+     */
+    default long span(CharSequence content) {
+        return TextSpan.NONE;
+    }
+
     default T value(String content, Class<T> expectedType, ConversionConfiguration configuration) throws ConversionException {
         return StringInputConverter.INSTANCE.convert(rawValue(content), expectedType, configuration);
     }
@@ -0,0 +1,80 @@
+package com.popoyo.text.extractor;
+
+/**
+ * Rango [start, end) dentro de una linea, codificado en un long para no crear objetos durante la extraccion. Permite
+ * convertir el valor leyendo directamente de la linea y crear un String solo cuando el texto se necesita.
+ *
+ * @author aalaniz
+ */
+public final class TextSpan {
+
+    /**
+     * Indica que el extractor no puede expresar su valor como un rango de la linea y debe usarse
+     * {@link TextExtractor#rawValue(String)}.
+     */
+    public static final long NONE = -1L;
+
+    public static final long EMPTY = 0L;
+
+    /**
+     * Indica que el valor no puede extraerse de la linea. {@link TextExtractor#rawValue(String)} lanza la excepcion
+     * con el detalle del error.
+     */
+    public static final long INVALID = -2L;
+
+    private TextSpan() {
+    }
+
+    public static long of(int start, int end) {
+        return ((long) start << 32) | (end & 0xFFFFFFFFL);
+    }
+
+    public static int start(long span) {
+        return (int) (span >>> 32);
+    }
+
+    public static int end(long span) {
+        return (int) span;
+    }
+
+    public static int length(long span) {
+        return end(span) - start(span);
+    }
+
+    public static String toString(CharSequence content, long span) {
+        return content.subSequence(start(span), end(span)).toString();
+    }
+
+    /**
+     * Excluye los caracteres iniciales y finales menores o iguales a espacio, igual que {@link String#trim()}.
+     */
+    public static long trim(CharSequence content, int start, int end) {
+        while (start < end && content.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && content.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return of(start, end);
+    }
+
+    static int indexOf(CharSequence content, String text, int fromIndex) {
+        if (content instanceof String) {
+            return ((String) content).indexOf(text, fromIndex);
+        }
+        if (text.isEmpty()) {
+            return Math.min(Math.max(fromIndex, 0), content.length());
+        }
+        int last = content.length() - text.length();
+        for (int i = Math.max(fromIndex, 0); i <= last; i++) {
+            int j = 0;
+            while (j < text.length() && content.charAt(i + j) == text.charAt(j)) {
+                j++;
+            }
+            if (j == text.length()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
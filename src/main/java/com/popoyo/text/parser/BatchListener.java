@@ -0,0 +1,14 @@
+package com.popoyo.text.parser;
+
+/**
+ * Recibe el resultado de cada documento procesado por {@link BatchTextParser}. Las llamadas nunca son concurrentes,
+ * pero pueden ocurrir desde distintos hilos y en un orden distinto al de los documentos.
+ *
+ * @author aalaniz
+ */
+@FunctionalInterface
+public interface BatchListener {
+
+    void onDocument(DocumentResult documentResult);
+
+}
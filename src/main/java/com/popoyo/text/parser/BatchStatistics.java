@@ -0,0 +1,62 @@
+package com.popoyo.text.parser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * @author aalaniz
+ */
+public final class BatchStatistics {
+
+    private final int documents;
+    private final int failedDocuments;
+    private final long pages;
+    private final long elapsedNanos;
+
+    BatchStatistics(int documents, int failedDocuments, long pages, long elapsedNanos) {
+        this.documents = documents;
+        this.failedDocuments = failedDocuments;
+        this.pages = pages;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getDocuments() {
+        return documents;
+    }
+
+    public int getFailedDocuments() {
+        return failedDocuments;
+    }
+
+    public long getPages() {
+        return pages;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getDocumentsPerSecond() {
+        return perSecond(documents);
+    }
+
+    public double getPagesPerSecond() {
+        return perSecond(pages);
+    }
+
+    private double perSecond(long count) {
+        return elapsedNanos == 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchStatistics{" +
+                "documents=" + documents +
+                ", failedDocuments=" + failedDocuments +
+                ", pages=" + pages +
+                ", elapsedNanos=" + elapsedNanos +
+                ", documentsPerSecond=" + getDocumentsPerSecond() +
+                ", pagesPerSecond=" + getPagesPerSecond() +
+                '}';
+    }
+}
@@ -0,0 +1,194 @@
+package com.popoyo.text.parser;
+
+import com.popoyo.text.converter.ConversionConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aplica una misma lista de conceptos a muchos documentos usando un grupo fijo de hilos. La cantidad de documentos en
+ * proceso o en espera de un hilo esta limitada por [maxInFlight], por lo que los origenes se consumen a medida que se
+ * liberan espacios. Un documento que falla se reporta en su {@link DocumentResult} sin detener el resto del lote.
+ *
+ * @author aalaniz
+ */
+public class BatchTextParser {
+
+    private static final String INVALID_WORKERS = "[workers] debe ser mayor o igual a 1";
+    private static final String INVALID_MAX_IN_FLIGHT = "[maxInFlight] debe ser mayor o igual a [workers]";
+    private static final String BATCH_INTERRUPTED = "El procesamiento del lote fue interrumpido";
+    private static final String PDF_EXTENSION = ".pdf";
+
+    private final ExecutionPlan plan;
+    private final PdfLoadStrategy loadStrategy;
+    private final int workers;
+    private final int maxInFlight;
+    private TextExtractionMode extractionMode = TextExtractionMode.STANDARD;
+    private ParsingMetrics metrics = ParsingMetrics.NONE;
+    private ErrorLimit errorLimit = ErrorLimit.NONE;
+
+    public BatchTextParser(List<Concept> concepts, int workers) {
+        this(concepts, ConversionConfiguration.DEFAULT_CONFIGURATION, PdfLoadStrategy.DEFAULT, workers, workers * 2);
+    }
+
+    public BatchTextParser(List<Concept> concepts, ConversionConfiguration configuration, PdfLoadStrategy loadStrategy,
+                           int workers, int maxInFlight) {
+        if (workers < 1) {
+            throw new IllegalArgumentException(INVALID_WORKERS);
+        }
+        if (maxInFlight < workers) {
+            throw new IllegalArgumentException(INVALID_MAX_IN_FLIGHT);
+        }
+        Objects.requireNonNull(configuration, "[configuration] es requerido");
+        this.plan = new ExecutionPlan(concepts, configuration);
+        this.loadStrategy = Objects.requireNonNull(loadStrategy, "[loadStrategy] es requerido");
+        this.workers = workers;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Modo de extraccion de texto usado en todos los documentos, ver {@link TextParser#withExtractionMode}.
+     */
+    public BatchTextParser withExtractionMode(TextExtractionMode extractionMode) {
+        this.extractionMode = Objects.requireNonNull(extractionMode, "[extractionMode] es requerido");
+        return this;
+    }
+
+    /**
+     * Metricas compartidas por todos los documentos, ver {@link TextParser#withMetrics}.
+     */
+    public BatchTextParser withMetrics(ParsingMetrics metrics) {
+        this.metrics = Objects.requireNonNull(metrics, "[metrics] es requerido");
+        return this;
+    }
+
+    /**
+     * Limite de errores por concepto de cada documento, ver {@link TextParser#withErrorLimit}.
+     */
+    public BatchTextParser withErrorLimit(int maxErrorsPerConcept, boolean keepContent) {
+        this.errorLimit = new ErrorLimit(maxErrorsPerConcept, keepContent);
+        return this;
+    }
+
+    /**
+     * Procesa todos los archivos con extension pdf del directorio indicado.
+     */
+    public BatchStatistics parse(Path directory, BatchListener listener) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, BatchTextParser::isPdf)) {
+            Iterator<Path> paths = files.iterator();
+            return parse(new Iterator<PdfSource>() {
+                @Override
+                public boolean hasNext() {
+                    return paths.hasNext();
+                }
+
+                @Override
+                public PdfSource next() {
+                    return PdfSource.of(paths.next().toFile());
+                }
+            }, listener);
+        }
+    }
+
+    public BatchStatistics parse(File directory, BatchListener listener) throws IOException {
+        return parse(directory.toPath(), listener);
+    }
+
+    public BatchStatistics parse(Iterator<PdfSource> sources, BatchListener listener) throws IOException {
+        Objects.requireNonNull(listener, "[listener] es requerido");
+        BatchProgress progress = new BatchProgress(listener);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        long start = System.nanoTime();
+        try {
+            while (sources.hasNext()) {
+                PdfSource source = sources.next();
+                inFlight.acquire();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            progress.completed(parse(source));
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RuntimeException exc) {
+                    inFlight.release();
+                    throw exc;
+                }
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                // Espera a que terminen los documentos en proceso
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(BATCH_INTERRUPTED);
+        } finally {
+            executor.shutdownNow();
+        }
+        return progress.statistics(System.nanoTime() - start);
+    }
+
+    private DocumentResult parse(PdfSource source) {
+        long start = System.nanoTime();
+        PageCounter result = new PageCounter();
+        try {
+            new TextParser(source, plan, loadStrategy).withExtractionMode(extractionMode).withMetrics(metrics)
+                    .withErrorLimit(errorLimit).parsePdf(result);
+            return new DocumentResult(source, result, null, result.pages, System.nanoTime() - start);
+        } catch (Throwable exc) {
+            // Tambien un Error, para que cada origen tenga su resultado y el hilo siga con el resto del lote
+            return new DocumentResult(source, null, exc, result.pages, System.nanoTime() - start);
+        }
+    }
+
+    private static boolean isPdf(Path path) {
+        return Files.isRegularFile(path) && path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(PDF_EXTENSION);
+    }
+
+    private static final class PageCounter extends TextParsingResult {
+        private int pages;
+
+        @Override
+        public void onPageComplete(int page) {
+            pages++;
+        }
+    }
+
+    private static final class BatchProgress {
+        private final BatchListener listener;
+        private int documents;
+        private int failedDocuments;
+        private long pages;
+
+        BatchProgress(BatchListener listener) {
+            this.listener = listener;
+        }
+
+        synchronized void completed(DocumentResult documentResult) {
+            documents++;
+            pages += documentResult.getPages();
+            if (!documentResult.isSuccessful()) {
+                failedDocuments++;
+            }
+            listener.onDocument(documentResult);
+        }
+
+        synchronized BatchStatistics statistics(long elapsedNanos) {
+            return new BatchStatistics(documents, failedDocuments, pages, elapsedNanos);
+        }
+    }
+}
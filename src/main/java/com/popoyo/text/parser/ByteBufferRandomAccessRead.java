@@ -0,0 +1,126 @@
+package com.popoyo.text.parser;
+
+import org.apache.pdfbox.io.RandomAccessRead;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link RandomAccessRead} de solo lectura sobre un {@link ByteBuffer}, permite que PDFBox lea directamente de un
+ * arreglo o de un archivo mapeado en memoria sin copiar su contenido.
+ *
+ * @author aalaniz
+ */
+final class ByteBufferRandomAccessRead implements RandomAccessRead {
+
+    private static final String STREAM_IS_CLOSED = "El origen de datos esta cerrado";
+    private static final String INVALID_POSITION = "Posicion invalida [%d]";
+
+    private ByteBuffer buffer;
+
+    /**
+     * Lee los bytes entre la posicion y el limite de [buffer], los mismos que resume
+     * {@link PdfSource#digest(java.security.MessageDigest)}.
+     */
+    ByteBufferRandomAccessRead(ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(byte[] b, int offset, int length) throws IOException {
+        checkClosed();
+        if (length == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        int count = Math.min(length, buffer.remaining());
+        buffer.get(b, offset, count);
+        return count;
+    }
+
+    @Override
+    public long getPosition() throws IOException {
+        checkClosed();
+        return buffer.position();
+    }
+
+    @Override
+    public void seek(long position) throws IOException {
+        checkClosed();
+        if (position < 0) {
+            throw new IOException(String.format(INVALID_POSITION, position));
+        }
+        buffer.position((int) Math.min(position, buffer.limit()));
+    }
+
+    @Override
+    public long length() throws IOException {
+        checkClosed();
+        return buffer.limit();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return buffer == null;
+    }
+
+    @Override
+    public int peek() throws IOException {
+        checkClosed();
+        return buffer.hasRemaining() ? buffer.get(buffer.position()) & 0xff : -1;
+    }
+
+    @Override
+    public void rewind(int bytes) throws IOException {
+        checkClosed();
+        buffer.position(buffer.position() - bytes);
+    }
+
+    @Override
+    public byte[] readFully(int length) throws IOException {
+        checkClosed();
+        if (buffer.remaining() < length) {
+            throw new EOFException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public boolean isEOF() throws IOException {
+        checkClosed();
+        return !buffer.hasRemaining();
+    }
+
+    @Override
+    public int available() throws IOException {
+        checkClosed();
+        return buffer.remaining();
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+    }
+
+    private void checkClosed() throws IOException {
+        if (buffer == null) {
+            throw new IOException(STREAM_IS_CLOSED);
+        }
+    }
+}
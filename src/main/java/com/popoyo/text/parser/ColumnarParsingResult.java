@@ -0,0 +1,118 @@
+package com.popoyo.text.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de {@link TextParser#parsePdfColumnar()}: en lugar de un {@link ConceptOutput} por valor, cada concepto
+ * guarda sus valores en un {@link ConceptColumn}. Conviene para conceptos de detalle que producen miles de valores
+ * numericos. Los errores se conservan igual que en {@link TextParsingResult}.
+ *
+ * @author aalaniz
+ */
+public final class ColumnarParsingResult implements TextParsingListener {
+
+    private final ExecutionPlan plan;
+    private final ConceptColumn[] columns;
+    private final Map<Concept, ConceptColumn> columnByConcept;
+    private final Map<String, ConceptColumn> columnByDescription;
+    private final List<ConceptError> errors = new ArrayList<>();
+    private final Map<String, int[]> omittedErrors = new HashMap<>();
+    private int omittedErrorCount;
+
+    ColumnarParsingResult(ExecutionPlan plan) {
+        this.plan = plan;
+        this.columns = new ConceptColumn[plan.size()];
+        this.columnByConcept = new HashMap<>(plan.size() * 2);
+        this.columnByDescription = new HashMap<>(plan.size() * 2);
+        for (int i = 0; i < columns.length; i++) {
+            Concept concept = plan.concept(i);
+            ConceptColumn column = columnByConcept.get(concept);
+            if (column == null) {
+                column = new ConceptColumn(concept);
+                columnByConcept.put(concept, column);
+                columnByDescription.put(concept.getDescription(), column);
+            }
+            columns[i] = column;
+        }
+    }
+
+    /**
+     * Devuelve true si [plan] es el plan con el que se crearon las columnas, en cuyo caso los valores pueden
+     * agregarse por el indice del concepto sin crear un {@link ConceptOutput}.
+     */
+    boolean accepts(ExecutionPlan plan) {
+        return this.plan == plan;
+    }
+
+    void add(int index, int page, int line, Object value) {
+        columns[index].add(page, line, value);
+    }
+
+    @Override
+    public void onOutput(ConceptOutput output) {
+        columnByConcept.get(output.getConcept()).add(output.getPage(), output.getLine(), output.getValue());
+    }
+
+    @Override
+    public void onError(ConceptError error) {
+        errors.add(error);
+    }
+
+    @Override
+    public void onErrorsOmitted(Concept concept, int count) {
+        omittedErrors.computeIfAbsent(concept.getDescription(), description -> new int[1])[0] += count;
+        omittedErrorCount += count;
+    }
+
+    /**
+     * Devuelve null si ningun concepto tiene la descripcion [description].
+     */
+    public ConceptColumn column(String description) {
+        return columnByDescription.get(description);
+    }
+
+    public ConceptColumn column(Concept concept) {
+        return columnByConcept.get(concept);
+    }
+
+    /**
+     * Columnas en el orden de la lista de conceptos.
+     */
+    public List<ConceptColumn> columns() {
+        List<ConceptColumn> distinct = new ArrayList<>(columnByConcept.size());
+        for (ConceptColumn column : columns) {
+            if (!distinct.contains(column)) {
+                distinct.add(column);
+            }
+        }
+        return Collections.unmodifiableList(distinct);
+    }
+
+    public List<ConceptError> conceptErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Ver {@link TextParsingResult#omittedErrors()}.
+     */
+    public int omittedErrors() {
+        return omittedErrorCount;
+    }
+
+    public int omittedErrors(String description) {
+        int[] count = omittedErrors.get(description);
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarParsingResult{" +
+                "columns=" + columns() +
+                ", errors=" + errors.size() +
+                '}';
+    }
+}
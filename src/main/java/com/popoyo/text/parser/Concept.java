@@ -2,6 +2,8 @@ package com.popoyo.text.parser;
 
 import com.popoyo.text.converter.ConversionConfiguration;
 import com.popoyo.text.converter.ConversionException;
+import com.popoyo.text.converter.StringInputConverter;
+import com.popoyo.text.converter.ValueConverter;
 import com.popoyo.text.extractor.*;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
@@ -33,7 +35,9 @@ public final class Concept {
     private final String afterConceptKey;
     private final String beforeRegex;
     private final Map<String, Concept> cache;
-    private TextExtractor textExtractor;
+    private volatile TextExtractor textExtractor;
+    private Class<?> javaTypeClass;
+    private ValueConverter<?> defaultConverter;
 
     private Concept(ConceptBuilder builder) throws ConceptException {
         this.description = builder.description;
@@ -133,19 +137,45 @@ public final class Concept {
         return beforeRegex;
     }
 
-    void textExtractor() throws ConceptException {
+    /**
+     * Prepara el concepto para la extraccion: crea el {@link TextExtractor}, resuelve la clase de [javaType] y el
+     * {@link ValueConverter} para la configuracion por defecto.
+     */
+    void compile() throws ConceptException {
+        textExtractor = createTextExtractor();
+        resolveJavaType();
+    }
+
+    /**
+     * Igual que {@link #compile()}, pero el {@link TextExtractor}, que compila las expresiones regulares, se crea la
+     * primera vez que se usa. Solo para conceptos que ya fueron validados, ver {@link ConceptSnapshot}.
+     */
+    void compileLazily() throws ConceptException {
+        resolveJavaType();
+    }
+
+    private void resolveJavaType() throws ConceptException {
+        javaTypeClass = javaTypeClass();
+        try {
+            defaultConverter = StringInputConverter.INSTANCE.converterFor(javaTypeClass, ConversionConfiguration.DEFAULT_CONFIGURATION);
+        } catch (ConversionException e) {
+            throw new ConceptException(e.getMessage());
+        }
+    }
+
+    private TextExtractor createTextExtractor() throws ConceptException {
         if (strategy == TextExtractorStrategy.SELF) {
-            textExtractor = new SelfTextExtractor();
+            return new SelfTextExtractor();
         } else if (strategy == TextExtractorStrategy.OFFSET) {
-            textExtractor = new OffsetTextExtractor(leadingText);
+            return new OffsetTextExtractor(leadingText);
         } else if (strategy == TextExtractorStrategy.FIXED) {
-            textExtractor = new FixedTextExtractor(index, length);
+            return new FixedTextExtractor(index, length);
         } else if (strategy == TextExtractorStrategy.BETWEEN) {
-            textExtractor = new BetweenTextExtractor(leadingText, trailingText);
+            return new BetweenTextExtractor(leadingText, trailingText);
         } else if (strategy == TextExtractorStrategy.PATTERN) {
-            textExtractor = new PatternTextExtractor(regex, cleanup);
+            return new PatternTextExtractor(regex, cleanup);
         } else if (strategy == TextExtractorStrategy.BETWEEN_CONCEPT_AND_PATTERN) {
-            textExtractor = new ConceptAndPatternTextExtractor(cache.get(afterConceptKey), beforeRegex, true);
+            return new ConceptAndPatternTextExtractor(cache.get(afterConceptKey), beforeRegex, true);
         } else {
             throw ConceptException.createUnsupportedStrategy(strategy);
         }
@@ -172,16 +202,52 @@ public final class Concept {
     }
 
     public Object value(String content, ConversionConfiguration configuration) throws ConceptException, ConversionException {
-        return textExtractor.value(content, javaTypeClass(), configuration);
+        return converter(configuration).convert(rawValue(content));
+    }
+
+    ValueConverter<?> converter(ConversionConfiguration configuration) throws ConversionException {
+        if (configuration == ConversionConfiguration.DEFAULT_CONFIGURATION && defaultConverter != null) {
+            return defaultConverter;
+        }
+        return StringInputConverter.INSTANCE.converterFor(javaTypeClass, configuration);
     }
 
     public String rawValue(String content) throws ConceptException {
-        return textExtractor.rawValue(content);
+        return getTextExtractor().rawValue(content);
+    }
+
+    /**
+     * Ubicacion del valor dentro de [content], ver {@link TextExtractor#span(CharSequence)}.
+     */
+    public long span(CharSequence content) {
+        return getTextExtractor().span(content);
+    }
+
+    TextExtractor getTextExtractor() {
+        TextExtractor extractor = textExtractor;
+        if (extractor == null) {
+            synchronized (this) {
+                extractor = textExtractor;
+                if (extractor == null) {
+                    try {
+                        extractor = createTextExtractor();
+                    } catch (ConceptException e) {
+                        throw new IllegalStateException(e.getMessage(), e);
+                    }
+                    textExtractor = extractor;
+                }
+            }
+        }
+        return extractor;
+    }
+
+    Class<?> getJavaTypeClass() {
+        return javaTypeClass;
     }
 
-    private Class javaTypeClass() throws ConceptException {
+    private Class<?> javaTypeClass() throws ConceptException {
         try {
-            Class clazz = Class.forName(javaType);
+            Class<?> clazz = Class.forName(javaType);
             return clazz;
         } catch (ClassNotFoundException e) {
             throw ConceptException.createUnknownClass(javaType);
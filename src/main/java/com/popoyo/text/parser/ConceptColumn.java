@@ -0,0 +1,270 @@
+package com.popoyo.text.parser;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Valores de un concepto guardados en columnas: la pagina y la linea de cada valor en arreglos de int y el valor en un
+ * arreglo primitivo segun el tipo del concepto. Los tipos Byte, Short e Integer se guardan como int, Long como long,
+ * Float y Double como double y BigDecimal como long sin escala mas un byte de escala cuando el valor cabe en un long;
+ * los demas tipos se guardan como Object. Un valor numerico ocupa 16 bytes (17 si es BigDecimal) en lugar de un
+ * {@link ConceptOutput} mas el objeto del valor.
+ * <p>
+ * Los valores se acceden por posicion, de 0 a {@link #size()} - 1, en el mismo orden en que fueron extraidos.
+ *
+ * @author aalaniz
+ */
+public final class ConceptColumn {
+
+    private static final String INVALID_POSITION = "Posicion [%d] fuera del rango [0, %d)";
+    private static final String NOT_NUMERIC = "El concepto [%s] de tipo [%s] no es numerico";
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Forma en que la columna guarda los valores.
+     */
+    public enum Kind {
+        INT, LONG, DOUBLE, DECIMAL, OBJECT
+    }
+
+    private final Concept concept;
+    private final Class<?> javaType;
+    private final Kind kind;
+    private int size;
+    private int[] pages = new int[INITIAL_CAPACITY];
+    private int[] lines = new int[INITIAL_CAPACITY];
+    private int[] ints;
+    private long[] longs;
+    private double[] doubles;
+    private byte[] scales;
+    private Object[] objects;
+    private BitSet nulls;
+    private Map<Integer, BigDecimal> largeDecimals;
+
+    ConceptColumn(Concept concept) {
+        this.concept = concept;
+        this.javaType = concept.getJavaTypeClass();
+        this.kind = kindOf(javaType);
+        if (kind == Kind.INT) {
+            ints = new int[INITIAL_CAPACITY];
+        } else if (kind == Kind.LONG) {
+            longs = new long[INITIAL_CAPACITY];
+        } else if (kind == Kind.DOUBLE) {
+            doubles = new double[INITIAL_CAPACITY];
+        } else if (kind == Kind.DECIMAL) {
+            longs = new long[INITIAL_CAPACITY];
+            scales = new byte[INITIAL_CAPACITY];
+        } else {
+            objects = new Object[INITIAL_CAPACITY];
+        }
+    }
+
+    private static Kind kindOf(Class<?> javaType) {
+        if (javaType == Byte.class || javaType == Short.class || javaType == Integer.class) {
+            return Kind.INT;
+        } else if (javaType == Long.class) {
+            return Kind.LONG;
+        } else if (javaType == Float.class || javaType == Double.class) {
+            return Kind.DOUBLE;
+        } else if (javaType == BigDecimal.class) {
+            return Kind.DECIMAL;
+        } else {
+            return Kind.OBJECT;
+        }
+    }
+
+    void add(int page, int line, Object value) {
+        if (size == pages.length) {
+            grow();
+        }
+        pages[size] = page;
+        lines[size] = line;
+        if (value == null) {
+            if (nulls == null) {
+                nulls = new BitSet();
+            }
+            nulls.set(size);
+        } else if (kind == Kind.INT) {
+            ints[size] = ((Number) value).intValue();
+        } else if (kind == Kind.LONG) {
+            longs[size] = ((Number) value).longValue();
+        } else if (kind == Kind.DOUBLE) {
+            doubles[size] = ((Number) value).doubleValue();
+        } else if (kind == Kind.DECIMAL) {
+            addDecimal((BigDecimal) value);
+        } else {
+            objects[size] = value;
+        }
+        size++;
+    }
+
+    private void addDecimal(BigDecimal value) {
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE && value.scale() >= Byte.MIN_VALUE && value.scale() <= Byte.MAX_VALUE) {
+            longs[size] = unscaled.longValue();
+            scales[size] = (byte) value.scale();
+        } else {
+            // Los valores que no caben en un long se guardan aparte, son raros en un documento
+            if (largeDecimals == null) {
+                largeDecimals = new HashMap<>();
+            }
+            largeDecimals.put(size, value);
+        }
+    }
+
+    private void grow() {
+        int capacity = pages.length + (pages.length >> 1);
+        pages = Arrays.copyOf(pages, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        if (ints != null) {
+            ints = Arrays.copyOf(ints, capacity);
+        }
+        if (longs != null) {
+            longs = Arrays.copyOf(longs, capacity);
+        }
+        if (doubles != null) {
+            doubles = Arrays.copyOf(doubles, capacity);
+        }
+        if (scales != null) {
+            scales = Arrays.copyOf(scales, capacity);
+        }
+        if (objects != null) {
+            objects = Arrays.copyOf(objects, capacity);
+        }
+    }
+
+    public Concept getConcept() {
+        return concept;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getPage(int position) {
+        checkPosition(position);
+        return pages[position];
+    }
+
+    public int getLine(int position) {
+        checkPosition(position);
+        return lines[position];
+    }
+
+    /**
+     * Devuelve true si el conversor devolvio null para el valor, ver
+     * {@link com.popoyo.text.converter.ConversionConfigurationBuilder.EmptyConversionRule}. Los getters primitivos
+     * devuelven cero para estos valores.
+     */
+    public boolean isNull(int position) {
+        checkPosition(position);
+        return nulls != null && nulls.get(position);
+    }
+
+    public int getInt(int position) {
+        checkPosition(position);
+        if (kind == Kind.INT) {
+            return ints[position];
+        }
+        return (int) getLong(position);
+    }
+
+    public long getLong(int position) {
+        checkPosition(position);
+        if (kind == Kind.INT) {
+            return ints[position];
+        } else if (kind == Kind.LONG) {
+            return longs[position];
+        } else if (kind == Kind.DOUBLE) {
+            return (long) doubles[position];
+        } else if (kind == Kind.DECIMAL) {
+            return isNull(position) ? 0 : getDecimal(position).longValue();
+        }
+        throw notNumeric();
+    }
+
+    public double getDouble(int position) {
+        checkPosition(position);
+        if (kind == Kind.INT) {
+            return ints[position];
+        } else if (kind == Kind.LONG) {
+            return longs[position];
+        } else if (kind == Kind.DOUBLE) {
+            return doubles[position];
+        } else if (kind == Kind.DECIMAL) {
+            return isNull(position) ? 0 : getDecimal(position).doubleValue();
+        }
+        throw notNumeric();
+    }
+
+    public BigDecimal getDecimal(int position) {
+        checkPosition(position);
+        if (isNull(position)) {
+            return null;
+        } else if (kind == Kind.INT) {
+            return BigDecimal.valueOf(ints[position]);
+        } else if (kind == Kind.LONG) {
+            return BigDecimal.valueOf(longs[position]);
+        } else if (kind == Kind.DOUBLE) {
+            return BigDecimal.valueOf(doubles[position]);
+        } else if (kind == Kind.DECIMAL) {
+            BigDecimal large = largeDecimals == null ? null : largeDecimals.get(position);
+            return large != null ? large : BigDecimal.valueOf(longs[position], scales[position]);
+        }
+        throw notNumeric();
+    }
+
+    /**
+     * Valor con el tipo del concepto, igual al que tendria {@link ConceptOutput#getValue()}. Crea el objeto en cada
+     * llamada para los tipos numericos.
+     */
+    public Object getValue(int position) {
+        checkPosition(position);
+        if (isNull(position)) {
+            return null;
+        } else if (kind == Kind.OBJECT) {
+            return objects[position];
+        } else if (kind == Kind.DECIMAL) {
+            return getDecimal(position);
+        } else if (javaType == Byte.class) {
+            return (byte) ints[position];
+        } else if (javaType == Short.class) {
+            return (short) ints[position];
+        } else if (javaType == Integer.class) {
+            return ints[position];
+        } else if (javaType == Long.class) {
+            return longs[position];
+        } else if (javaType == Float.class) {
+            return (float) doubles[position];
+        } else {
+            return doubles[position];
+        }
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException(String.format(INVALID_POSITION, position, size));
+        }
+    }
+
+    private IllegalStateException notNumeric() {
+        return new IllegalStateException(String.format(NOT_NUMERIC, concept.getDescription(), javaType.getName()));
+    }
+
+    @Override
+    public String toString() {
+        return "ConceptColumn{" +
+                "concept='" + concept.getDescription() + '\'' +
+                ", kind=" + kind +
+                ", size=" + size +
+                '}';
+    }
+}
@@ -32,6 +32,10 @@ public final class ConceptError {
         return concept;
     }
 
+    /**
+     * Texto de la linea, null si el parser no conserva el texto de las lineas con error, ver
+     * {@link TextParser#withErrorLimit(int, boolean)}.
+     */
     public String getContent() {
         return content;
     }
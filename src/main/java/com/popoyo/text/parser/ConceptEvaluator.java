@@ -0,0 +1,277 @@
+package com.popoyo.text.parser;
+
+import com.popoyo.text.converter.ConversionException;
+import com.popoyo.text.converter.ValueConverter;
+import com.popoyo.text.extractor.ConceptAndPatternTextExtractor;
+import com.popoyo.text.extractor.TextSpan;
+
+/**
+ * Evalua los conceptos del plan linea por linea. Con un {@link ParsingMetrics} distinto de
+ * {@link ParsingMetrics#NONE} mide el tiempo de cada concepto y de cada pagina; sin metricas no se consulta el reloj.
+ * <p>
+ * Mientras un concepto puede conservar errores segun el {@link ErrorLimit}, sus valores se convierten con los metodos
+ * que lanzan la excepcion, cuyo mensaje se necesita para el {@link ConceptError}. Al alcanzar el limite se usan
+ * {@link TextSpan#INVALID} y {@link ValueConverter#INVALID}, que informan el error sin crear la excepcion, y los
+ * errores solo se cuentan.
+ *
+ * @author aalaniz
+ */
+final class ConceptEvaluator {
+
+    private final ExecutionPlan plan;
+    private final ParsingMetrics metrics;
+    private final ErrorLimit errorLimit;
+    private final boolean timed;
+    private final ExecutionPlan.Cursor cursor;
+    private final int[] keywordPositions;
+    private final long[] spans;
+    private final String[] rawValues;
+    private final int[] evaluatedAt;
+    private final int[] errorCounts;
+    private int evaluation;
+    private StopAtConcept stopAtConcept;
+    private boolean keywordsMatched;
+    private int pageLines;
+    private long pageEvaluateNanos;
+
+    ConceptEvaluator(ExecutionPlan plan) {
+        this(plan, ParsingMetrics.NONE, ErrorLimit.NONE);
+    }
+
+    ConceptEvaluator(ExecutionPlan plan, ParsingMetrics metrics, ErrorLimit errorLimit) {
+        this.plan = plan;
+        this.metrics = metrics;
+        this.errorLimit = errorLimit;
+        this.timed = metrics != ParsingMetrics.NONE;
+        this.cursor = plan.cursor();
+        this.keywordPositions = plan.keywordMatcher() == null ? null : new int[plan.keywordMatcher().size()];
+        this.spans = new long[plan.size()];
+        this.rawValues = new String[plan.size()];
+        this.evaluatedAt = new int[plan.size()];
+        this.errorCounts = new int[plan.size()];
+    }
+
+    void evaluate(int page, int line, String content, TextParsingListener listener) {
+        if (timed) {
+            long start = System.nanoTime();
+            evaluateLine(page, line, content, listener);
+            pageEvaluateNanos += System.nanoTime() - start;
+            pageLines++;
+        } else {
+            evaluateLine(page, line, content, listener);
+        }
+    }
+
+    /**
+     * Informa a las metricas el tiempo de la pagina, [pageNanos] incluye la extraccion del texto y la evaluacion de
+     * todas sus lineas.
+     */
+    void completePage(int page, long pageNanos) {
+        if (timed) {
+            metrics.onPage(page, pageLines, pageNanos - pageEvaluateNanos, pageEvaluateNanos);
+            pageLines = 0;
+            pageEvaluateNanos = 0;
+        }
+    }
+
+    private void evaluateLine(int page, int line, String content, TextParsingListener listener) {
+        int count = cursor.select(page, line);
+        int[] selected = cursor.selected();
+        keywordsMatched = false;
+        evaluation++;
+        ColumnarParsingResult columns = listener instanceof ColumnarParsingResult
+                && ((ColumnarParsingResult) listener).accepts(plan) ? (ColumnarParsingResult) listener : null;
+        for (int i = 0; i < count; i++) {
+            int index = selected[i];
+            Concept concept = plan.concept(index);
+            long start = timed ? System.nanoTime() : 0;
+            try {
+                if (stopAtConcept == null) {
+                    stopAtConcept = createStopAtConcept(index, page, line, content);
+                }
+                if (concept.isProcessable(page, line, stopAtConcept)) {
+                    Object value = value(index, concept, content);
+                    if (value == ValueConverter.INVALID) {
+                        onError(index, concept, page, line, content, null, start, listener);
+                    } else if (columns != null) {
+                        columns.add(index, page, line, value);
+                    } else {
+                        ConceptOutput conceptOutput = new ConceptOutput(page, line, concept, value);
+                        listener.onOutput(conceptOutput);
+                    }
+                }
+            } catch (ConceptException | ConversionException | IllegalArgumentException | NullPointerException exc) {
+                onError(index, concept, page, line, content, exc, start, listener);
+            }
+        }
+    }
+
+    /**
+     * Los errores que superan el limite del concepto solo se cuentan. [exc] es null si el error se informo con un
+     * codigo de resultado, lo que solo ocurre una vez alcanzado el limite.
+     */
+    private void onError(int index, Concept concept, int page, int line, String content, Exception exc, long start,
+                         TextParsingListener listener) {
+        if (timed) {
+            metrics.onConceptError(concept, System.nanoTime() - start);
+        }
+        if (!errorLimit.keeps(++errorCounts[index])) {
+            listener.onErrorsOmitted(concept, 1);
+            return;
+        }
+        String error = exc == null ? null : exc.getMessage();
+        listener.onError(new ConceptError(page, line, concept, errorLimit.content(content), error));
+    }
+
+    /**
+     * Convierte el valor leyendo directamente de la linea, el valor crudo como String solo se crea para los
+     * extractores que no pueden expresarlo como un rango de la linea.
+     */
+    private Object value(int index, Concept concept, String content) throws ConceptException, ConversionException {
+        if (timed) {
+            return timedValue(index, concept, content);
+        }
+        long span = span(index, content);
+        String rawValue = span == TextSpan.NONE ? rawValue(index, content) : null;
+        return convert(index, span, rawValue, content);
+    }
+
+    private Object timedValue(int index, Concept concept, String content) throws ConceptException, ConversionException {
+        long start = System.nanoTime();
+        long span = span(index, content);
+        String rawValue = span == TextSpan.NONE ? rawValue(index, content) : null;
+        long extracted = System.nanoTime();
+        Object value = convert(index, span, rawValue, content);
+        if (value != ValueConverter.INVALID) {
+            metrics.onConceptValue(concept, value != null, extracted - start, System.nanoTime() - extracted);
+        }
+        return value;
+    }
+
+    /**
+     * Devuelve {@link ValueConverter#INVALID} si el concepto ya alcanzo su limite de errores y el valor no puede
+     * extraerse o convertirse.
+     */
+    private Object convert(int index, long span, String rawValue, String content)
+            throws ConceptException, ConversionException {
+        ValueConverter<?> converter = plan.converter(index);
+        if (errorLimit.keeps(errorCounts[index] + 1)) {
+            if (span == TextSpan.INVALID) {
+                // El extractor lanza la excepcion con el detalle del error
+                return converter.convert(plan.concept(index).rawValue(content));
+            } else if (span == TextSpan.NONE) {
+                return converter.convert(rawValue);
+            } else {
+                return converter.convert(content, TextSpan.start(span), TextSpan.end(span));
+            }
+        } else if (span == TextSpan.INVALID) {
+            return ValueConverter.INVALID;
+        } else if (span == TextSpan.NONE) {
+            return converter.tryConvert(rawValue);
+        } else {
+            return converter.tryConvert(content, TextSpan.start(span), TextSpan.end(span));
+        }
+    }
+
+    /**
+     * Ubicacion del valor de un concepto en la linea actual. Se calcula a lo sumo una vez por linea, de modo que los
+     * conceptos BETWEEN_CONCEPT_AND_PATTERN de una misma cadena reutilizan el valor de su [afterConcept] en lugar de
+     * volver a extraerlo.
+     */
+    private long span(int index, String content) throws ConceptException {
+        if (evaluatedAt[index] == evaluation) {
+            return spans[index];
+        }
+        long span;
+        int afterConcept = plan.afterConcept(index);
+        if (afterConcept != ExecutionPlan.NO_DEPENDENCY) {
+            span = dependentSpan(index, afterConcept, content);
+        } else if (plan.usesKeywords(index)) {
+            span = plan.span(index, content, keywordPositions(content));
+        } else {
+            span = plan.concept(index).span(content);
+        }
+        spans[index] = span;
+        rawValues[index] = null;
+        evaluatedAt[index] = evaluation;
+        return span;
+    }
+
+    private String rawValue(int index, String content) throws ConceptException {
+        long span = span(index, content);
+        if (span != TextSpan.NONE) {
+            return TextSpan.toString(content, span);
+        }
+        if (rawValues[index] == null) {
+            rawValues[index] = plan.concept(index).rawValue(content);
+        }
+        return rawValues[index];
+    }
+
+    /**
+     * El valor empieza donde termina el valor de [afterConcept], ver
+     * {@link ConceptAndPatternTextExtractor#span(CharSequence)}. El span de [afterConcept] se toma del que ya se
+     * calculo para la linea. Si el valor de [afterConcept] no puede extraerse y el concepto ya alcanzo su limite de
+     * errores se devuelve {@link TextSpan#INVALID} en lugar de crear la excepcion.
+     */
+    private long dependentSpan(int index, int afterConcept, String content) {
+        ConceptAndPatternTextExtractor extractor = (ConceptAndPatternTextExtractor) plan.concept(index).getTextExtractor();
+        try {
+            long afterSpan = span(afterConcept, content);
+            if (afterSpan == TextSpan.INVALID) {
+                return TextSpan.INVALID;
+            } else if (afterSpan != TextSpan.NONE) {
+                return extractor.spanAfter(content, afterSpan);
+            }
+            return extractor.spanAfter(content, rawValue(afterConcept, content));
+        } catch (ConceptException ex) {
+            if (!errorLimit.keeps(errorCounts[index] + 1)) {
+                return TextSpan.INVALID;
+            }
+            throw new IllegalArgumentException(ex.getMessage(), ex);
+        }
+    }
+
+    private StopAtConcept createStopAtConcept(int index, int page, int line, String content) {
+        int stopKeyword = plan.stopKeyword(index);
+        if (stopKeyword == ExecutionPlan.NO_KEYWORD) {
+            return plan.concept(index).createStopAtConcept(page, line, content);
+        } else if (keywordPositions(content)[stopKeyword] != KeywordMatcher.ABSENT) {
+            return new StopAtConcept(content, page, line);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Las posiciones de los textos literales se calculan a lo sumo una vez por linea y solo si algun concepto
+     * seleccionado las necesita.
+     */
+    private int[] keywordPositions(String content) {
+        if (!keywordsMatched) {
+            plan.keywordMatcher().match(content, keywordPositions);
+            keywordsMatched = true;
+        }
+        return keywordPositions;
+    }
+
+    /**
+     * Una vez encontrado el [stopAtKeyword] ningun concepto vuelve a ser procesable, por lo que el resto del
+     * documento puede omitirse.
+     */
+    boolean hasStopped() {
+        return stopAtConcept != null;
+    }
+
+    /**
+     * Cantidad de errores de cada concepto, por indice del plan. Es el estado que se guarda en un checkpoint para
+     * aplicar el limite de errores igual que sin interrupciones.
+     */
+    int[] errorCounts() {
+        return errorCounts;
+    }
+
+    void restoreErrorCounts(int[] counts) {
+        System.arraycopy(counts, 0, errorCounts, 0, errorCounts.length);
+    }
+}
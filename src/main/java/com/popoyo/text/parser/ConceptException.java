@@ -13,6 +13,8 @@ public class ConceptException extends Exception {
     private static final String UNKNOWN_CONCEPT = "[afterConcept] hace referencia a conceptos que no existen: %s";
     private static final String SELF_REFERENCED_CONCEPT = "[description] y [afterConcept] tienen el mismo valor para los siguientes " +
         "casos: %s";
+    private static final String CIRCULAR_DEPENDENCY = "[afterConcept] forma una dependencia circular entre los siguientes " +
+        "conceptos: %s";
     private static final String UNKNOWN_CLASS = "La clase [%s] no existe o no se encuentra disponible en el class path";
     private static final String UNSUPPORTED_STRATEGY = "La estrategia de extraccion de texto [%s] no esta soportada";
 
@@ -35,6 +37,11 @@ public class ConceptException extends Exception {
         return new ConceptException(String.format(SELF_REFERENCED_CONCEPT, detail));
     }
 
+    public static ConceptException createCircularDependencyException(List<String> concepts) {
+        String detail = concepts.stream().collect(Collectors.joining(", "));
+        return new ConceptException(String.format(CIRCULAR_DEPENDENCY, detail));
+    }
+
     public static ConceptException createUnknownClass(String clazz) {
         return new ConceptException(String.format(UNKNOWN_CLASS, clazz));
     }
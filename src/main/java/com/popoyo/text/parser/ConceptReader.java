@@ -2,11 +2,17 @@ package com.popoyo.text.parser;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -25,43 +31,98 @@ public abstract class ConceptReader {
     private static class ListOfConcept extends TypeReference<List<Concept>> {
     };
 
+    /**
+     * Inmutable y thread-safe, se comparte entre todas las lecturas.
+     */
+    private static final ObjectReader READER = new ObjectMapper().readerFor(new ListOfConcept());
+
     public static List<Concept> readFromClasspath(String resource) throws IOException, ConceptException {
         try (InputStream is = ConceptReader.class.getResourceAsStream(resource)) {
             if (is == null) {
                 throw new IOException(String.format(RESOURCE_NOT_FOUND, resource));
             }
-            ObjectMapper mapper = new ObjectMapper();
-            List<Concept> concepts = mapper.readValue(is, new ListOfConcept());
+            return read(is);
+        } catch (IOException ioe) {
+            throw new IOException(String.format(DESERIALIZATION_ERROR, resource), ioe);
+        }
+    }
+
+    public static List<Concept> readFromFile(Path file) throws IOException, ConceptException {
+        try (InputStream is = Files.newInputStream(file)) {
+            return read(is);
+        } catch (IOException ioe) {
+            throw new IOException(String.format(DESERIALIZATION_ERROR, file), ioe);
+        }
+    }
+
+    private static List<Concept> read(InputStream is) throws IOException, ConceptException {
+        try {
+            List<Concept> concepts = READER.readValue(is);
             validateDependantConcepts(concepts);
             List<Concept> sortedConcepts = sortConceptsBasedOnDependencies(concepts);
             for (Concept concept : sortedConcepts) {
-                concept.textExtractor();
+                concept.compile();
             }
             return sortedConcepts;
-        } catch (IOException ioe) {
-            throw new IOException(String.format(DESERIALIZATION_ERROR, resource), ioe);
         } catch (IllegalArgumentException | NullPointerException exc) {
             throw new ConceptException(exc.getMessage());
         }
     }
 
+    /**
+     * Ordena los conceptos de modo que cada concepto BETWEEN_CONCEPT_AND_PATTERN quede despues de su [afterConcept],
+     * conservando el orden original en todo lo demas. Cada concepto aparece una sola vez y los conceptos
+     * BETWEEN_CONCEPT_AND_PATTERN resuelven [afterConcept] a la misma instancia que esta en la lista, de modo que el
+     * parser puede reutilizar el valor ya extraido en la linea.
+     * <p>
+     * Como cada concepto depende a lo sumo de otro, el orden topologico se obtiene recorriendo la cadena de
+     * [afterConcept] de cada concepto hasta llegar a uno ya ordenado. Cada concepto se recorre una sola vez; si la
+     * cadena vuelve a un concepto del recorrido actual hay una dependencia circular.
+     */
     private static List<Concept> sortConceptsBasedOnDependencies(List<Concept> concepts) throws ConceptException {
         Map<String, Concept> cache = concepts.stream()
                 .collect(Collectors.toMap(Concept::getDescription, Function.identity()));
+        cache.replaceAll((description, concept) -> concept.getStrategy() == TextExtractorStrategy.BETWEEN_CONCEPT_AND_PATTERN
+                ? new Concept(concept, cache) : concept);
 
         List<Concept> sortedConcepts = new ArrayList<>(concepts.size());
+        Set<String> sortedDescriptions = new HashSet<>(cache.size() * 2);
+        Set<String> path = new LinkedHashSet<>();
+        Deque<Concept> family = new ArrayDeque<>();
         for (Concept concept : concepts) {
-            if (!sortedConcepts.contains(concept)) {
-                if (concept.getStrategy() == TextExtractorStrategy.BETWEEN_CONCEPT_AND_PATTERN) {
-                    sortedConcepts.addAll(findDependentConcepts(cache, sortedConcepts, concept));
-                } else {
-                    sortedConcepts.add(concept);
+            Concept next = cache.get(concept.getDescription());
+            while (next != null && !sortedDescriptions.contains(next.getDescription())) {
+                if (!path.add(next.getDescription())) {
+                    throw ConceptException.createCircularDependencyException(cycle(path, next.getDescription()));
                 }
+                family.push(next);
+                next = next.getStrategy() == TextExtractorStrategy.BETWEEN_CONCEPT_AND_PATTERN
+                        ? cache.get(next.getAfterConceptKey()) : null;
+            }
+            while (!family.isEmpty()) {
+                Concept member = family.pop();
+                sortedConcepts.add(member);
+                sortedDescriptions.add(member.getDescription());
             }
+            path.clear();
         }
         return sortedConcepts;
     }
 
+    /**
+     * Conceptos de [path] desde [start], terminando otra vez en [start].
+     */
+    private static List<String> cycle(Set<String> path, String start) {
+        List<String> cycle = new ArrayList<>();
+        for (String description : path) {
+            if (!cycle.isEmpty() || description.equals(start)) {
+                cycle.add(description);
+            }
+        }
+        cycle.add(start);
+        return cycle;
+    }
+
     private static void validateDependantConcepts(List<Concept> concepts) throws ConceptException {
         List<String> conceptsWithMissingConfiguration = concepts.stream()
                 .filter(concept -> concept.getStrategy() == TextExtractorStrategy.BETWEEN_CONCEPT_AND_PATTERN)
@@ -72,9 +133,9 @@ public abstract class ConceptReader {
             throw ConceptException.createAfterConceptIsMissingException(conceptsWithMissingConfiguration);
         }
 
-        List<String> conceptDescriptions = concepts.stream()
+        Set<String> conceptDescriptions = concepts.stream()
                 .map(Concept::getDescription)
-                .collect(Collectors.toList());
+                .collect(Collectors.toSet());
 
         Set<String> referencedConcepts = concepts.stream()
                 .filter(concept -> concept.getAfterConceptKey() != null)
@@ -95,30 +156,6 @@ public abstract class ConceptReader {
             throw ConceptException.createSelfReferencedConceptException(selfReferencedConcepts);
         }
 
-        // TODO Validar dependencia circular
-    }
-
-    private static List<Concept> findDependentConcepts(Map<String, Concept> cache, List<Concept> sortedConcepts, Concept concept) {
-        List<Concept> family = new ArrayList<>();
-        Concept next = new Concept(concept, cache);
-
-        family.add(next);
-        while (next.getAfterConceptKey() != null) {
-            next = cache.get(next.getAfterConceptKey());
-            addIfNoPresent(cache, sortedConcepts, next, family);
-        }
-        addIfNoPresent(cache, sortedConcepts, next, family);
-        Collections.reverse(family);
-        return family;
-    }
-
-    private static void addIfNoPresent(Map<String, Concept> cache, List<Concept> sortedConcepts, Concept concept, List<Concept> family) {
-        if (!sortedConcepts.contains(concept)) {
-            if (concept.getStrategy() == TextExtractorStrategy.BETWEEN_CONCEPT_AND_PATTERN) {
-                family.add(new Concept(concept, cache));
-            } else {
-                family.add(concept);
-            }
-        }
+        // Las dependencias circulares se detectan al ordenar los conceptos
     }
 }
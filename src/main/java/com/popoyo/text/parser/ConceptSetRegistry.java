@@ -0,0 +1,160 @@
+package com.popoyo.text.parser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Conjuntos de conceptos ya leidos, validados, ordenados y compilados por {@link ConceptReader}, para reutilizarlos
+ * entre documentos en lugar de leerlos en cada extraccion. Las listas devueltas son inmutables y pueden usarse desde
+ * varios hilos a la vez.
+ * <p>
+ * Se conservan a lo sumo [maxEntries] conjuntos y al superarlo se descarta el usado hace mas tiempo. Los conjuntos
+ * leidos de un archivo se vuelven a leer cuando cambia su fecha de modificacion o su tamano; el conjunto nuevo
+ * reemplaza al anterior de una sola vez, por lo que las extracciones en curso siguen usando la lista que ya obtuvieron.
+ * Si la nueva version del archivo no es valida se lanza la excepcion y se conserva la version anterior.
+ *
+ * @author aalaniz
+ */
+public final class ConceptSetRegistry {
+
+    private static final String INVALID_MAX_ENTRIES = "[maxEntries] debe ser mayor o igual a 1";
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    private static final String FILE_PREFIX = "file:";
+    private static final String SNAPSHOT_PREFIX = "snapshot:";
+
+    private final Map<String, ConceptSet> conceptSets;
+
+    public ConceptSetRegistry(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException(INVALID_MAX_ENTRIES);
+        }
+        this.conceptSets = new LinkedHashMap<String, ConceptSet>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ConceptSet> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Los recursos del classpath no cambian mientras la aplicacion se ejecuta, se leen una sola vez.
+     */
+    public List<Concept> fromClasspath(String resource) throws IOException, ConceptException {
+        String key = CLASSPATH_PREFIX + resource;
+        ConceptSet conceptSet = cached(key);
+        if (conceptSet == null) {
+            conceptSet = new ConceptSet(ConceptReader.readFromClasspath(resource), null);
+            conceptSet = store(key, conceptSet);
+        }
+        return conceptSet.concepts;
+    }
+
+    public List<Concept> fromFile(Path file) throws IOException, ConceptException {
+        return fromFile(FILE_PREFIX, file);
+    }
+
+    /**
+     * Igual que {@link #fromFile(Path)} para un archivo generado con {@link ConceptSnapshot}.
+     */
+    public List<Concept> fromSnapshot(Path snapshot) throws IOException, ConceptException {
+        return fromFile(SNAPSHOT_PREFIX, snapshot);
+    }
+
+    private List<Concept> fromFile(String prefix, Path file) throws IOException, ConceptException {
+        Path path = file.toAbsolutePath().normalize();
+        String key = prefix + path;
+        Stamp stamp = Stamp.of(path);
+        ConceptSet conceptSet = cached(key);
+        if (conceptSet == null || !stamp.equals(conceptSet.stamp)) {
+            List<Concept> concepts = prefix.equals(SNAPSHOT_PREFIX)
+                    ? ConceptSnapshot.read(path) : ConceptReader.readFromFile(path);
+            conceptSet = store(key, new ConceptSet(concepts, stamp));
+        }
+        return conceptSet.concepts;
+    }
+
+    public synchronized int size() {
+        return conceptSets.size();
+    }
+
+    public synchronized void invalidate(String resource) {
+        conceptSets.remove(CLASSPATH_PREFIX + resource);
+    }
+
+    public synchronized void invalidate(Path file) {
+        Path path = file.toAbsolutePath().normalize();
+        conceptSets.remove(FILE_PREFIX + path);
+        conceptSets.remove(SNAPSHOT_PREFIX + path);
+    }
+
+    public synchronized void clear() {
+        conceptSets.clear();
+    }
+
+    private synchronized ConceptSet cached(String key) {
+        return conceptSets.get(key);
+    }
+
+    /**
+     * La lectura se hace fuera del bloqueo, por lo que dos hilos pueden leer el mismo conjunto a la vez. Si otro hilo
+     * ya guardo una version del mismo archivo se conserva esa, de modo que todos usan la misma lista.
+     */
+    private synchronized ConceptSet store(String key, ConceptSet conceptSet) {
+        ConceptSet current = conceptSets.get(key);
+        if (current != null && Objects.equals(current.stamp, conceptSet.stamp)) {
+            return current;
+        }
+        conceptSets.put(key, conceptSet);
+        return conceptSet;
+    }
+
+    private static final class ConceptSet {
+        private final List<Concept> concepts;
+        private final Stamp stamp;
+
+        ConceptSet(List<Concept> concepts, Stamp stamp) {
+            this.concepts = Collections.unmodifiableList(concepts);
+            this.stamp = stamp;
+        }
+    }
+
+    /**
+     * Fecha de modificacion y tamano del archivo del que se leyo un conjunto.
+     */
+    private static final class Stamp {
+        private final FileTime lastModified;
+        private final long size;
+
+        private Stamp(FileTime lastModified, long size) {
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        static Stamp of(Path file) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new Stamp(attributes.lastModifiedTime(), attributes.size());
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Stamp)) {
+                return false;
+            }
+            Stamp stamp = (Stamp) other;
+            return size == stamp.size && lastModified.equals(stamp.lastModified);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lastModified, size);
+        }
+    }
+}
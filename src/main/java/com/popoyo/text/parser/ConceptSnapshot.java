@@ -0,0 +1,251 @@
+package com.popoyo.text.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representacion binaria de una lista de conceptos ya validada y ordenada por {@link ConceptReader}, para que los
+ * procesos que inician con frecuencia no tengan que deserializar el JSON con Jackson ni validar y ordenar los
+ * conceptos otra vez. Al leer un snapshot las expresiones regulares no se compilan; cada concepto crea su
+ * {@link com.popoyo.text.extractor.TextExtractor} la primera vez que se usa.
+ * <p>
+ * El archivo guarda la version del formato, el resumen SHA-256 de los atributos de los conceptos y, si se genero con
+ * {@link #compile(Path, Path)}, el resumen del JSON de origen. Un snapshot de otra version o cuyo contenido no
+ * coincide con su resumen se rechaza con {@link IOException}; {@link #read(Path, Path)} tambien lo rechaza si el JSON
+ * cambio despues de generarlo.
+ *
+ * @author aalaniz
+ */
+public final class ConceptSnapshot {
+
+    private static final String INVALID_SNAPSHOT = "El archivo [%s] no es un snapshot de conceptos valido";
+    private static final String UNSUPPORTED_VERSION = "El snapshot [%s] fue generado con otra version del formato";
+    private static final String STALE_SNAPSHOT = "El snapshot [%s] no corresponde al contenido actual del JSON de origen";
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+    private static final byte[] MAGIC = {'D', 'X', 'C', 'S'};
+    private static final int VERSION = 1;
+    private static final int NULL = -1;
+
+    private ConceptSnapshot() {
+    }
+
+    /**
+     * Lee [source] con {@link ConceptReader#readFromFile(Path)} y escribe el snapshot en [snapshot], recordando el
+     * resumen de [source].
+     */
+    public static void compile(Path source, Path snapshot) throws IOException, ConceptException {
+        String sourceFingerprint = fingerprint(source);
+        write(ConceptReader.readFromFile(source), snapshot, sourceFingerprint);
+    }
+
+    /**
+     * [concepts] debe ser una lista devuelta por {@link ConceptReader}. El archivo se escribe en un archivo temporal y
+     * se mueve a [snapshot], por lo que nunca se lee un snapshot incompleto.
+     */
+    public static void write(List<Concept> concepts, Path snapshot) throws IOException {
+        write(concepts, snapshot, null);
+    }
+
+    public static List<Concept> read(Path snapshot) throws IOException, ConceptException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            return read(in, snapshot, null);
+        }
+    }
+
+    /**
+     * Igual que {@link #read(Path)}, pero rechaza el snapshot si no fue generado a partir del contenido actual de
+     * [source].
+     */
+    public static List<Concept> read(Path snapshot, Path source) throws IOException, ConceptException {
+        String sourceFingerprint = fingerprint(source);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            return read(in, snapshot, sourceFingerprint);
+        }
+    }
+
+    private static void write(List<Concept> concepts, Path snapshot, String sourceFingerprint) throws IOException {
+        Path directory = snapshot.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, snapshot.getFileName().toString(), TEMPORARY_EXTENSION);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.write(MAGIC);
+                out.writeByte(VERSION);
+                writeString(out, fingerprint(concepts));
+                writeString(out, sourceFingerprint);
+                out.writeInt(concepts.size());
+                for (Concept concept : concepts) {
+                    writeConcept(out, concept);
+                }
+            }
+            Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static List<Concept> read(DataInputStream in, Path snapshot, String sourceFingerprint)
+            throws IOException, ConceptException {
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (magic[i] != MAGIC[i]) {
+                    throw new IOException(String.format(INVALID_SNAPSHOT, snapshot));
+                }
+            }
+            if (in.readUnsignedByte() != VERSION) {
+                throw new IOException(String.format(UNSUPPORTED_VERSION, snapshot));
+            }
+            String fingerprint = readString(in);
+            String recordedSourceFingerprint = readString(in);
+            if (sourceFingerprint != null && !sourceFingerprint.equals(recordedSourceFingerprint)) {
+                throw new IOException(String.format(STALE_SNAPSHOT, snapshot));
+            }
+            int size = in.readInt();
+            if (size < 0) {
+                throw new IOException(String.format(INVALID_SNAPSHOT, snapshot));
+            }
+            List<Concept> concepts = new ArrayList<>(Math.min(size, 1024));
+            for (int i = 0; i < size; i++) {
+                concepts.add(readConcept(in));
+            }
+            if (in.read() != -1 || !fingerprint(concepts).equals(fingerprint)) {
+                throw new IOException(String.format(INVALID_SNAPSHOT, snapshot));
+            }
+            return link(concepts);
+        } catch (EOFException | IllegalArgumentException e) {
+            throw new IOException(String.format(INVALID_SNAPSHOT, snapshot), e);
+        }
+    }
+
+    /**
+     * Igual que al leer el JSON, los conceptos BETWEEN_CONCEPT_AND_PATTERN resuelven [afterConcept] a la instancia que
+     * esta en la lista.
+     */
+    private static List<Concept> link(List<Concept> concepts) throws ConceptException {
+        Map<String, Concept> cache = new HashMap<>(concepts.size() * 2);
+        for (Concept concept : concepts) {
+            cache.put(concept.getDescription(), concept);
+        }
+        cache.replaceAll((description, concept) -> concept.getStrategy() == TextExtractorStrategy.BETWEEN_CONCEPT_AND_PATTERN
+                ? new Concept(concept, cache) : concept);
+        List<Concept> linked = new ArrayList<>(concepts.size());
+        for (Concept concept : concepts) {
+            Concept member = cache.get(concept.getDescription());
+            member.compileLazily();
+            linked.add(member);
+        }
+        return linked;
+    }
+
+    private static void writeConcept(DataOutputStream out, Concept concept) throws IOException {
+        writeString(out, concept.getDescription());
+        writeString(out, concept.getJavaType());
+        writeString(out, concept.getStrategy() == null ? null : concept.getStrategy().name());
+        out.writeInt(concept.getPage());
+        out.writeInt(concept.getLine());
+        writeString(out, concept.getLeadingText());
+        writeString(out, concept.getTrailingText());
+        out.writeInt(concept.getIndex());
+        out.writeInt(concept.getLength());
+        writeString(out, concept.getStopAtKeyword());
+        out.writeBoolean(concept.isDetail());
+        writeString(out, concept.getRegex());
+        String[] cleanup = concept.getCleanup();
+        out.writeInt(cleanup == null ? NULL : cleanup.length);
+        if (cleanup != null) {
+            for (String rule : cleanup) {
+                writeString(out, rule);
+            }
+        }
+        writeString(out, concept.getAfterConceptKey());
+        writeString(out, concept.getBeforeRegex());
+    }
+
+    private static Concept readConcept(DataInputStream in) throws IOException, ConceptException {
+        Concept.ConceptBuilder builder = new Concept.ConceptBuilder()
+                .withDescription(readString(in))
+                .withJavaType(readString(in));
+        String strategy = readString(in);
+        builder.withStrategy(strategy == null ? null : TextExtractorStrategy.valueOf(strategy))
+                .withPage(in.readInt())
+                .withLine(in.readInt())
+                .withLeadingText(readString(in))
+                .withTrailingText(readString(in))
+                .withIndex(in.readInt())
+                .withLength(in.readInt())
+                .withStopAtKeyword(readString(in))
+                .withDetail(in.readBoolean())
+                .withRegex(readString(in));
+        int cleanupLength = in.readInt();
+        if (cleanupLength != NULL) {
+            if (cleanupLength < 0) {
+                throw new EOFException();
+            }
+            String[] cleanup = new String[cleanupLength];
+            for (int i = 0; i < cleanupLength; i++) {
+                cleanup[i] = readString(in);
+            }
+            builder.withCleanup(cleanup);
+        }
+        return builder.withAfterConcept(readString(in))
+                .withBeforeRegex(readString(in))
+                .build();
+    }
+
+    private static String fingerprint(List<Concept> concepts) {
+        MessageDigest digest = Fingerprint.sha256();
+        for (Concept concept : concepts) {
+            Fingerprint.update(digest, concept);
+        }
+        return Fingerprint.hex(digest.digest());
+    }
+
+    private static String fingerprint(Path source) throws IOException {
+        MessageDigest digest = Fingerprint.sha256();
+        try (InputStream in = Files.newInputStream(source)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return Fingerprint.hex(digest.digest());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL) {
+            return null;
+        } else if (length < 0) {
+            throw new EOFException();
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
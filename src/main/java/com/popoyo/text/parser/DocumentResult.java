@@ -0,0 +1,48 @@
+package com.popoyo.text.parser;
+
+/**
+ * Resultado de un documento procesado por {@link BatchTextParser}. Si la extraccion fallo [result] es null y
+ * [error] contiene la causa, que tambien puede ser un {@link Error} como {@link OutOfMemoryError}.
+ *
+ * @author aalaniz
+ */
+public final class DocumentResult {
+
+    private final PdfSource source;
+    private final TextParsingResult result;
+    private final Throwable error;
+    private final int pages;
+    private final long elapsedNanos;
+
+    DocumentResult(PdfSource source, TextParsingResult result, Throwable error, int pages, long elapsedNanos) {
+        this.source = source;
+        this.result = result;
+        this.error = error;
+        this.pages = pages;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public PdfSource getSource() {
+        return source;
+    }
+
+    public TextParsingResult getResult() {
+        return result;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    public int getPages() {
+        return pages;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
@@ -0,0 +1,45 @@
+package com.popoyo.text.parser;
+
+import java.security.MessageDigest;
+
+/**
+ * Cantidad de {@link ConceptError} que se conservan por concepto y si estos guardan el texto de la linea. Los errores
+ * que superan el limite solo se cuentan, ver {@link TextParsingListener#onErrorsOmitted(Concept, int)}.
+ *
+ * @author aalaniz
+ */
+final class ErrorLimit {
+
+    static final ErrorLimit NONE = new ErrorLimit(Integer.MAX_VALUE, true);
+
+    private static final String INVALID_MAX_ERRORS = "[maxErrorsPerConcept] debe ser mayor o igual a 0";
+
+    private final int maxErrorsPerConcept;
+    private final boolean keepContent;
+
+    ErrorLimit(int maxErrorsPerConcept, boolean keepContent) {
+        if (maxErrorsPerConcept < 0) {
+            throw new IllegalArgumentException(INVALID_MAX_ERRORS);
+        }
+        this.maxErrorsPerConcept = maxErrorsPerConcept;
+        this.keepContent = keepContent;
+    }
+
+    /**
+     * Devuelve true si el error numero [count] de un concepto, contando desde 1, debe conservarse.
+     */
+    boolean keeps(int count) {
+        return count <= maxErrorsPerConcept;
+    }
+
+    String content(String content) {
+        return keepContent ? content : null;
+    }
+
+    /**
+     * Los resultados guardados en {@link ResultCache} dependen del limite.
+     */
+    void digest(MessageDigest digest) {
+        Fingerprint.update(digest, String.valueOf(maxErrorsPerConcept), String.valueOf(keepContent));
+    }
+}
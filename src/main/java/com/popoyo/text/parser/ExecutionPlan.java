@@ -0,0 +1,333 @@
+package com.popoyo.text.parser;
+
+import com.popoyo.text.converter.ConversionConfiguration;
+import com.popoyo.text.converter.ConversionConfigurationBuilder.DateConversionRule;
+import com.popoyo.text.converter.ConversionConfigurationBuilder.EmptyConversionRule;
+import com.popoyo.text.converter.ConversionConfigurationBuilder.NumberConversionRule;
+import com.popoyo.text.converter.ConversionException;
+import com.popoyo.text.converter.ValueConverter;
+import com.popoyo.text.extractor.BetweenTextExtractor;
+import com.popoyo.text.extractor.ConceptAndPatternTextExtractor;
+import com.popoyo.text.extractor.OffsetTextExtractor;
+import com.popoyo.text.extractor.TextExtractor;
+import com.popoyo.text.extractor.TextSpan;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indice de los conceptos por pagina y linea, construido una sola vez a partir de la lista ordenada de conceptos. Para
+ * cada linea solo se visitan los conceptos que pueden aplicar a ella: los fijos en esa pagina y linea, los de detalle
+ * cuyo inicio ya fue alcanzado y los que tienen [stopAtKeyword]. El orden de visita es el mismo de la lista original.
+ * Tambien mantiene el {@link ValueConverter} de cada concepto, resuelto una sola vez para la configuracion del parser,
+ * y un {@link KeywordMatcher} con los textos literales de los conceptos OFFSET, BETWEEN y [stopAtKeyword], de modo que
+ * cada linea se recorre una sola vez para ubicarlos todos. Para los conceptos BETWEEN_CONCEPT_AND_PATTERN guarda el
+ * indice de su [afterConcept], cuyo valor se reutiliza si ya fue extraido en la misma linea. Su
+ * {@link #fingerprint()} identifica los conceptos y la configuracion en {@link ResultCache}.
+ *
+ * @author aalaniz
+ */
+final class ExecutionPlan {
+
+    static final int NO_KEYWORD = -1;
+    static final int NO_DEPENDENCY = -1;
+
+    private static final int[] NONE = new int[0];
+
+    private final Concept[] concepts;
+    private final ValueConverter<?>[] converters;
+    private final int[] stopAtKeywordConcepts;
+    private final int[] detailConcepts;
+    private final Map<Integer, int[][]> fixedConceptsByPage;
+    private final PageDemand pageDemand;
+    private final KeywordMatcher keywordMatcher;
+    private final int[] leadingKeywords;
+    private final int[] trailingKeywords;
+    private final int[] stopKeywords;
+    private final int[] afterConcepts;
+    private final ConversionConfiguration configuration;
+    private volatile String fingerprint;
+
+    ExecutionPlan(List<Concept> concepts, ConversionConfiguration configuration) {
+        this.concepts = concepts.toArray(new Concept[0]);
+        this.configuration = configuration;
+        this.converters = new ValueConverter<?>[this.concepts.length];
+        this.leadingKeywords = new int[this.concepts.length];
+        this.trailingKeywords = new int[this.concepts.length];
+        this.stopKeywords = new int[this.concepts.length];
+        this.afterConcepts = new int[this.concepts.length];
+        Map<Concept, Integer> indexes = new IdentityHashMap<>(this.concepts.length * 2);
+        for (int i = 0; i < this.concepts.length; i++) {
+            indexes.putIfAbsent(this.concepts[i], i);
+        }
+        Map<String, Integer> keywords = new LinkedHashMap<>();
+
+        List<Integer> stopAtKeyword = new ArrayList<>();
+        List<Integer> details = new ArrayList<>();
+        Map<Integer, Map<Integer, List<Integer>>> fixed = new HashMap<>();
+        for (int i = 0; i < this.concepts.length; i++) {
+            Concept concept = this.concepts[i];
+            converters[i] = converter(concept, configuration);
+            registerKeywords(i, concept, keywords);
+            afterConcepts[i] = afterConcept(concept, indexes);
+            if (concept.getStopAtKeyword() != null) {
+                stopAtKeyword.add(i);
+            }
+            if (concept.getPage() == -1 || concept.getLine() == -1) {
+                continue;
+            }
+            if (concept.isDetail()) {
+                details.add(i);
+            } else if (concept.getPage() > 0 && concept.getLine() > 0) {
+                fixed.computeIfAbsent(concept.getPage(), page -> new HashMap<>())
+                        .computeIfAbsent(concept.getLine(), line -> new ArrayList<>())
+                        .add(i);
+            }
+        }
+        details.sort(Comparator.<Integer>comparingInt(i -> this.concepts[i].getPage())
+                .thenComparingInt(i -> this.concepts[i].getLine())
+                .thenComparingInt(i -> i));
+
+        this.stopAtKeywordConcepts = toArray(stopAtKeyword);
+        this.detailConcepts = toArray(details);
+        this.fixedConceptsByPage = new HashMap<>(fixed.size());
+        for (Map.Entry<Integer, Map<Integer, List<Integer>>> page : fixed.entrySet()) {
+            int maxLine = page.getValue().keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+            int[][] lines = new int[maxLine + 1][];
+            for (Map.Entry<Integer, List<Integer>> line : page.getValue().entrySet()) {
+                lines[line.getKey()] = toArray(line.getValue());
+            }
+            fixedConceptsByPage.put(page.getKey(), lines);
+        }
+        this.pageDemand = new PageDemand(concepts);
+        this.keywordMatcher = keywords.isEmpty() ? null : new KeywordMatcher(new ArrayList<>(keywords.keySet()));
+    }
+
+    int size() {
+        return concepts.length;
+    }
+
+    Concept concept(int index) {
+        return concepts[index];
+    }
+
+    ValueConverter<?> converter(int index) {
+        return converters[index];
+    }
+
+    /**
+     * Resumen SHA-256 de todos los atributos de los conceptos, en orden, y de la configuracion de conversion. Dos
+     * planes con el mismo resumen producen los mismos resultados sobre el mismo documento.
+     */
+    String fingerprint() {
+        String value = fingerprint;
+        if (value == null) {
+            MessageDigest digest = Fingerprint.sha256();
+            for (Concept concept : concepts) {
+                Fingerprint.update(digest, concept);
+            }
+            NumberConversionRule numberRule = configuration.getNumberConversionRule();
+            DateConversionRule dateRule = configuration.getDateConversionRule();
+            Fingerprint.update(digest, String.valueOf(numberRule.getMillisSeparator()), String.valueOf(numberRule.isMinusSignAtEnd()),
+                    String.valueOf(numberRule.getRound()), dateRule.getDateFormat(), dateRule.getDateTimeFormat(),
+                    String.valueOf(dateRule.getZoneId()));
+            List<EmptyConversionRule<?>> emptyRules = new ArrayList<>(configuration.getEmptyRules().values());
+            emptyRules.sort(Comparator.comparing(rule -> rule.getType().getName()));
+            for (EmptyConversionRule<?> rule : emptyRules) {
+                Object defaultValue = rule.getReturnDefaultValue();
+                Fingerprint.update(digest, rule.getType().getName(), String.valueOf(rule.isReturnNull()),
+                        String.valueOf(rule.isThrowException()),
+                        defaultValue == null ? null : defaultValue.getClass().getName() + ':' + defaultValue);
+            }
+            value = Fingerprint.hex(digest.digest());
+            fingerprint = value;
+        }
+        return value;
+    }
+
+    PageDemand pageDemand() {
+        return pageDemand;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Devuelve null si ningun concepto usa textos literales.
+     */
+    KeywordMatcher keywordMatcher() {
+        return keywordMatcher;
+    }
+
+    int stopKeyword(int index) {
+        return stopKeywords[index];
+    }
+
+    boolean usesKeywords(int index) {
+        return leadingKeywords[index] != NO_KEYWORD;
+    }
+
+    /**
+     * Ubica el valor de un concepto OFFSET o BETWEEN a partir de las posiciones encontradas por
+     * {@link KeywordMatcher#match(CharSequence, int[])}. Si el texto inicial no aparece en la linea el extractor no
+     * se ejecuta.
+     */
+    long span(int index, CharSequence content, int[] positions) {
+        int leadingIndex = positions[leadingKeywords[index]];
+        if (leadingIndex == KeywordMatcher.ABSENT) {
+            return TextSpan.EMPTY;
+        }
+        TextExtractor extractor = concepts[index].getTextExtractor();
+        if (trailingKeywords[index] == NO_KEYWORD) {
+            return ((OffsetTextExtractor) extractor).span(content, leadingIndex);
+        } else {
+            return ((BetweenTextExtractor) extractor).span(content, leadingIndex, positions[trailingKeywords[index]]);
+        }
+    }
+
+    /**
+     * Indice del [afterConcept] de un concepto BETWEEN_CONCEPT_AND_PATTERN, o {@link #NO_DEPENDENCY} si el concepto
+     * no depende de otro o su [afterConcept] no esta en la lista.
+     */
+    int afterConcept(int index) {
+        return afterConcepts[index];
+    }
+
+    private static int afterConcept(Concept concept, Map<Concept, Integer> indexes) {
+        TextExtractor extractor = concept.getTextExtractor();
+        if (extractor instanceof ConceptAndPatternTextExtractor) {
+            Integer index = indexes.get(((ConceptAndPatternTextExtractor) extractor).getAfterConcept());
+            return index == null ? NO_DEPENDENCY : index;
+        }
+        return NO_DEPENDENCY;
+    }
+
+    private void registerKeywords(int index, Concept concept, Map<String, Integer> keywords) {
+        TextExtractor extractor = concept.getTextExtractor();
+        leadingKeywords[index] = NO_KEYWORD;
+        trailingKeywords[index] = NO_KEYWORD;
+        if (extractor instanceof OffsetTextExtractor) {
+            leadingKeywords[index] = keyword(concept.getLeadingText(), keywords);
+        } else if (extractor instanceof BetweenTextExtractor) {
+            int leading = keyword(concept.getLeadingText(), keywords);
+            int trailing = keyword(concept.getTrailingText(), keywords);
+            if (leading != NO_KEYWORD && trailing != NO_KEYWORD) {
+                leadingKeywords[index] = leading;
+                trailingKeywords[index] = trailing;
+            }
+        }
+        stopKeywords[index] = keyword(concept.getStopAtKeyword(), keywords);
+    }
+
+    /**
+     * Los textos vacios no se registran, para ellos se mantiene la busqueda original del extractor.
+     */
+    private static int keyword(String text, Map<String, Integer> keywords) {
+        if (text == null || text.isEmpty()) {
+            return NO_KEYWORD;
+        }
+        return keywords.computeIfAbsent(text, key -> keywords.size());
+    }
+
+    private static ValueConverter<?> converter(Concept concept, ConversionConfiguration configuration) {
+        try {
+            return concept.converter(configuration);
+        } catch (ConversionException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private static int[] toArray(List<Integer> indexes) {
+        return indexes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Une dos listas ordenadas de indices sin repetir elementos y devuelve la cantidad de elementos escritos en
+     * [target].
+     */
+    private static int merge(int[] left, int leftLength, int[] right, int rightLength, int[] target) {
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < leftLength || j < rightLength) {
+            int next;
+            if (j == rightLength || (i < leftLength && left[i] < right[j])) {
+                next = left[i++];
+            } else if (i == leftLength || right[j] < left[i]) {
+                next = right[j++];
+            } else {
+                next = left[i++];
+                j++;
+            }
+            target[count++] = next;
+        }
+        return count;
+    }
+
+    /**
+     * Estado de recorrido del plan, debe usarse en orden ascendente de pagina y linea. No es thread-safe, cada hilo
+     * debe tener su propio cursor.
+     */
+    final class Cursor {
+        private final int[] selection = new int[concepts.length];
+        private int[] activeConcepts = stopAtKeywordConcepts;
+        private int activeCount = stopAtKeywordConcepts.length;
+        private int activatedDetails;
+        private int currentPage = -1;
+        private int[][] fixedLines;
+        private int[] selected = NONE;
+
+        /**
+         * Selecciona los conceptos aplicables a la linea indicada y devuelve su cantidad, los indices quedan
+         * disponibles en {@link #selected()}.
+         */
+        int select(int page, int line) {
+            if (page != currentPage) {
+                currentPage = page;
+                fixedLines = fixedConceptsByPage.get(page);
+            }
+            if (activateDetails(page, line)) {
+                int[] details = Arrays.copyOf(detailConcepts, activatedDetails);
+                Arrays.sort(details);
+                int[] active = new int[stopAtKeywordConcepts.length + details.length];
+                activeCount = merge(stopAtKeywordConcepts, stopAtKeywordConcepts.length, details, details.length, active);
+                activeConcepts = active;
+            }
+
+            int[] fixed = fixedLines != null && line < fixedLines.length ? fixedLines[line] : null;
+            if (fixed == null) {
+                selected = activeConcepts;
+                return activeCount;
+            } else {
+                selected = selection;
+                return merge(activeConcepts, activeCount, fixed, fixed.length, selection);
+            }
+        }
+
+        int[] selected() {
+            return selected;
+        }
+
+        private boolean activateDetails(int page, int line) {
+            boolean activated = false;
+            while (activatedDetails < detailConcepts.length) {
+                Concept detail = concepts[detailConcepts[activatedDetails]];
+                if (detail.getPage() < page || (detail.getPage() == page && detail.getLine() <= line)) {
+                    activatedDetails++;
+                    activated = true;
+                } else {
+                    break;
+                }
+            }
+            return activated;
+        }
+    }
+}
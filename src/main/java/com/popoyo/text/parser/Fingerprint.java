@@ -0,0 +1,67 @@
+package com.popoyo.text.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Funciones para calcular los resumenes SHA-256 que identifican conceptos, planes y documentos en las caches y en
+ * {@link ConceptSnapshot}.
+ *
+ * @author aalaniz
+ */
+final class Fingerprint {
+
+    private Fingerprint() {
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Agrega todos los atributos de [concept].
+     */
+    static void update(MessageDigest digest, Concept concept) {
+        update(digest, concept.getDescription(), concept.getJavaType(), String.valueOf(concept.getStrategy()),
+                String.valueOf(concept.getPage()), String.valueOf(concept.getLine()), concept.getLeadingText(),
+                concept.getTrailingText(), String.valueOf(concept.getIndex()), String.valueOf(concept.getLength()),
+                concept.getStopAtKeyword(), String.valueOf(concept.isDetail()), concept.getRegex(),
+                concept.getAfterConceptKey(), concept.getBeforeRegex());
+        String[] cleanup = concept.getCleanup();
+        update(digest, cleanup == null ? null : String.valueOf(cleanup.length));
+        if (cleanup != null) {
+            update(digest, cleanup);
+        }
+    }
+
+    /**
+     * Cada texto se agrega con su longitud, de modo que los limites entre textos no son ambiguos. Los null se
+     * distinguen del texto vacio.
+     */
+    static void update(MessageDigest digest, String... values) {
+        for (String value : values) {
+            if (value == null) {
+                digest.update((byte) 0);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                digest.update((byte) 1);
+                digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+                digest.update(bytes);
+            }
+        }
+    }
+}
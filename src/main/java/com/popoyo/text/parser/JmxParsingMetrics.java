@@ -0,0 +1,277 @@
+package com.popoyo.text.parser;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link ParsingMetrics} que acumula contadores e histogramas de tiempos y los publica como MXBeans:
+ * <ul>
+ * <li>[domain]:type=Phase,name=load|strip|evaluate, con la carga de cada documento y la extraccion del texto y la
+ * evaluacion de cada pagina</li>
+ * <li>[domain]:type=Concept,name=[description], registrado la primera vez que se evalua el concepto</li>
+ * </ul>
+ * Los conceptos se identifican por su descripcion, por lo que varios conjuntos de conceptos que comparten una
+ * descripcion acumulan en el mismo MXBean. Es thread-safe y puede compartirse entre parsers.
+ *
+ * @author aalaniz
+ */
+public final class JmxParsingMetrics implements ParsingMetrics {
+    private static final Logger LOGGER = Logger.getLogger(JmxParsingMetrics.class.getName());
+
+    public static final String DEFAULT_DOMAIN = "com.popoyo.text";
+
+    private static final String REGISTRATION_ERROR = "No se pudo registrar [%s] en el servidor JMX";
+
+    private final MBeanServer server;
+    private final String domain;
+    private final PhaseStats load = new PhaseStats();
+    private final PhaseStats strip = new PhaseStats();
+    private final PhaseStats evaluate = new PhaseStats();
+    private final ConcurrentMap<String, ConceptStats> concepts = new ConcurrentHashMap<>();
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    public JmxParsingMetrics() {
+        this(ManagementFactory.getPlatformMBeanServer(), DEFAULT_DOMAIN);
+    }
+
+    /**
+     * Si no es posible registrar un MXBean, por ejemplo porque otra instancia usa el mismo [domain], se registra una
+     * advertencia y las mediciones se siguen acumulando.
+     */
+    public JmxParsingMetrics(MBeanServer server, String domain) {
+        this.server = server;
+        this.domain = domain;
+        register("Phase", "load", load);
+        register("Phase", "strip", strip);
+        register("Phase", "evaluate", evaluate);
+    }
+
+    @Override
+    public void onDocumentLoaded(long nanos) {
+        load.record(nanos, 0);
+    }
+
+    @Override
+    public void onPage(int page, int lines, long stripNanos, long evaluateNanos) {
+        strip.record(stripNanos, lines);
+        evaluate.record(evaluateNanos, lines);
+    }
+
+    @Override
+    public void onConceptValue(Concept concept, boolean hit, long extractNanos, long convertNanos) {
+        ConceptStats stats = stats(concept);
+        stats.evaluations.increment();
+        if (hit) {
+            stats.hits.increment();
+        }
+        stats.extract.record(extractNanos);
+        stats.convert.record(convertNanos);
+    }
+
+    @Override
+    public void onConceptError(Concept concept, long nanos) {
+        ConceptStats stats = stats(concept);
+        stats.evaluations.increment();
+        stats.errors.increment();
+        stats.error.record(nanos);
+    }
+
+    public PhaseStatsMXBean getPhase(String name) {
+        switch (name) {
+            case "load":
+                return load;
+            case "strip":
+                return strip;
+            case "evaluate":
+                return evaluate;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Devuelve null si el concepto aun no fue evaluado.
+     */
+    public ConceptStatsMXBean getConcept(String description) {
+        return concepts.get(description);
+    }
+
+    /**
+     * Elimina del servidor JMX los MXBeans registrados por esta instancia.
+     */
+    public synchronized void unregister() {
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                LOGGER.log(Level.FINE, e.getMessage(), e);
+            }
+        }
+        registered.clear();
+    }
+
+    private ConceptStats stats(Concept concept) {
+        ConceptStats stats = concepts.get(concept.getDescription());
+        if (stats == null) {
+            stats = concepts.computeIfAbsent(concept.getDescription(), description -> new ConceptStats());
+            if (stats.registered.compareAndSet(false, true)) {
+                register("Concept", concept.getDescription(), stats);
+            }
+        }
+        return stats;
+    }
+
+    private synchronized void register(String type, String name, Object mxBean) {
+        String objectName = domain + ":type=" + type + ",name=" + ObjectName.quote(name);
+        try {
+            ObjectName registeredName = server.registerMBean(mxBean, new ObjectName(objectName)).getObjectName();
+            registered.add(registeredName);
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, String.format(REGISTRATION_ERROR, objectName), e);
+        }
+    }
+
+    public interface PhaseStatsMXBean {
+
+        long getCount();
+
+        /**
+         * Lineas procesadas, 0 para la carga del documento.
+         */
+        long getLines();
+
+        long getTotalNanos();
+
+        long getMeanNanos();
+
+        long getMaxNanos();
+
+        long getP50Nanos();
+
+        long getP99Nanos();
+    }
+
+    public interface ConceptStatsMXBean {
+
+        long getEvaluations();
+
+        long getHits();
+
+        long getErrors();
+
+        long getExtractNanos();
+
+        long getConvertNanos();
+
+        long getErrorNanos();
+
+        long getExtractP99Nanos();
+
+        long getConvertP99Nanos();
+    }
+
+    private static final class PhaseStats implements PhaseStatsMXBean {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder lines = new LongAdder();
+
+        void record(long nanos, int processedLines) {
+            histogram.record(nanos);
+            lines.add(processedLines);
+        }
+
+        @Override
+        public long getCount() {
+            return histogram.count();
+        }
+
+        @Override
+        public long getLines() {
+            return lines.sum();
+        }
+
+        @Override
+        public long getTotalNanos() {
+            return histogram.total();
+        }
+
+        @Override
+        public long getMeanNanos() {
+            return histogram.mean();
+        }
+
+        @Override
+        public long getMaxNanos() {
+            return histogram.max();
+        }
+
+        @Override
+        public long getP50Nanos() {
+            return histogram.percentile(0.5);
+        }
+
+        @Override
+        public long getP99Nanos() {
+            return histogram.percentile(0.99);
+        }
+    }
+
+    private static final class ConceptStats implements ConceptStatsMXBean {
+        private final AtomicBoolean registered = new AtomicBoolean();
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LatencyHistogram extract = new LatencyHistogram();
+        private final LatencyHistogram convert = new LatencyHistogram();
+        private final LatencyHistogram error = new LatencyHistogram();
+
+        @Override
+        public long getEvaluations() {
+            return evaluations.sum();
+        }
+
+        @Override
+        public long getHits() {
+            return hits.sum();
+        }
+
+        @Override
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        @Override
+        public long getExtractNanos() {
+            return extract.total();
+        }
+
+        @Override
+        public long getConvertNanos() {
+            return convert.total();
+        }
+
+        @Override
+        public long getErrorNanos() {
+            return error.total();
+        }
+
+        @Override
+        public long getExtractP99Nanos() {
+            return extract.percentile(0.99);
+        }
+
+        @Override
+        public long getConvertP99Nanos() {
+            return convert.percentile(0.99);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.popoyo.text.parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Automata Aho-Corasick sobre un conjunto fijo de palabras clave. Recorre una linea una sola vez y reporta la
+ * posicion de la primera aparicion de cada palabra, el mismo valor que devolveria {@link String#indexOf(String)}.
+ * Es inmutable despues de construido y puede compartirse entre hilos.
+ *
+ * @author aalaniz
+ */
+final class KeywordMatcher {
+
+    static final int ABSENT = -1;
+
+    private static final int ROOT = 0;
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final String[] keywords;
+    private final int[] symbols;
+    private final int alphabetSize;
+    private final int[] transitions;
+    private final int[][] outputs;
+
+    KeywordMatcher(List<String> keywords) {
+        this.keywords = keywords.toArray(new String[0]);
+
+        int maxChar = 0;
+        for (String keyword : this.keywords) {
+            if (keyword.isEmpty()) {
+                throw new IllegalArgumentException("Las palabras clave no pueden ser vacias");
+            }
+            for (int i = 0; i < keyword.length(); i++) {
+                maxChar = Math.max(maxChar, keyword.charAt(i));
+            }
+        }
+        // El simbolo 0 representa cualquier caracter que no aparece en las palabras clave
+        this.symbols = new int[maxChar + 1];
+        int nextSymbol = 1;
+        for (String keyword : this.keywords) {
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                if (symbols[c] == 0) {
+                    symbols[c] = nextSymbol++;
+                }
+            }
+        }
+        this.alphabetSize = nextSymbol;
+
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> matches = new ArrayList<>();
+        trie.add(newState());
+        matches.add(new ArrayList<>());
+        for (int k = 0; k < this.keywords.length; k++) {
+            String keyword = this.keywords[k];
+            int state = ROOT;
+            for (int i = 0; i < keyword.length(); i++) {
+                int symbol = symbols[keyword.charAt(i)];
+                int next = trie.get(state)[symbol];
+                if (next == ABSENT) {
+                    next = trie.size();
+                    trie.add(newState());
+                    matches.add(new ArrayList<>());
+                    trie.get(state)[symbol] = next;
+                }
+                state = next;
+            }
+            matches.get(state).add(k);
+        }
+
+        // Completa las transiciones con los enlaces de falla para obtener un automata determinista
+        int states = trie.size();
+        this.transitions = new int[states * alphabetSize];
+        this.outputs = new int[states][];
+        int[] failure = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < alphabetSize; symbol++) {
+            int next = trie.get(ROOT)[symbol];
+            if (next == ABSENT) {
+                transitions[symbol] = ROOT;
+            } else {
+                transitions[symbol] = next;
+                failure[next] = ROOT;
+                queue.add(next);
+            }
+        }
+        outputs[ROOT] = NO_OUTPUT;
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            List<Integer> output = matches.get(state);
+            output.addAll(matches.get(failure[state]));
+            outputs[state] = output.isEmpty() ? NO_OUTPUT : output.stream().mapToInt(Integer::intValue).toArray();
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int next = trie.get(state)[symbol];
+                int fallback = transitions[failure[state] * alphabetSize + symbol];
+                if (next == ABSENT) {
+                    transitions[state * alphabetSize + symbol] = fallback;
+                } else {
+                    transitions[state * alphabetSize + symbol] = next;
+                    failure[next] = fallback;
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    int size() {
+        return keywords.length;
+    }
+
+    /**
+     * Escribe en [positions] la posicion inicial de la primera aparicion de cada palabra clave en [content], o
+     * {@link #ABSENT} si no aparece. El arreglo debe tener al menos {@link #size()} elementos.
+     */
+    void match(CharSequence content, int[] positions) {
+        Arrays.fill(positions, 0, keywords.length, ABSENT);
+        int pending = keywords.length;
+        int state = ROOT;
+        for (int i = 0; i < content.length() && pending > 0; i++) {
+            char c = content.charAt(i);
+            int symbol = c < symbols.length ? symbols[c] : 0;
+            state = transitions[state * alphabetSize + symbol];
+            for (int keyword : outputs[state]) {
+                if (positions[keyword] == ABSENT) {
+                    positions[keyword] = i - keywords[keyword].length() + 1;
+                    pending--;
+                }
+            }
+        }
+    }
+
+    private int[] newState() {
+        int[] state = new int[alphabetSize];
+        Arrays.fill(state, ABSENT);
+        return state;
+    }
+}
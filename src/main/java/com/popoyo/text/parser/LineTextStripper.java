@@ -0,0 +1,133 @@
+package com.popoyo.text.parser;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * {@link PDFTextStripper} que entrega cada linea de la pagina en cuanto es escrita, en lugar de construir el texto
+ * completo de la pagina. Las lineas son las mismas que produce getText(document).split("\\n"): se separan por '\n',
+ * las lineas vacias intermedias se conservan, las del final se descartan y una pagina sin texto produce una sola
+ * linea vacia. No es thread-safe, cada hilo debe tener su propia instancia.
+ *
+ * @author aalaniz
+ */
+final class LineTextStripper extends PDFTextStripper {
+
+    interface LineHandler {
+
+        /**
+         * Recibe la linea [line], numerada desde 1, y devuelve false si no se necesitan mas lineas de la pagina.
+         */
+        boolean onLine(int line, String content);
+    }
+
+    private final LineWriter lineWriter = new LineWriter();
+
+    LineTextStripper(TextExtractionMode mode) throws IOException {
+        if (mode == TextExtractionMode.FAST) {
+            setSortByPosition(false);
+            setShouldSeparateByBeads(false);
+            setSuppressDuplicateOverlappingText(false);
+        }
+    }
+
+    void processPage(PDDocument document, int page, LineHandler handler) throws IOException {
+        setStartPage(page);
+        setEndPage(page);
+        lineWriter.start(handler);
+        writeText(document, lineWriter);
+        lineWriter.finish();
+    }
+
+    /**
+     * Recibe la salida del stripper y la corta en lineas reutilizando el mismo buffer.
+     */
+    private static final class LineWriter extends Writer {
+        private final StringBuilder line = new StringBuilder(256);
+        private LineHandler handler;
+        private int lineNumber;
+        private int pendingEmptyLines;
+        private boolean written;
+        private boolean stopped;
+
+        void start(LineHandler handler) {
+            this.handler = handler;
+            line.setLength(0);
+            lineNumber = 0;
+            pendingEmptyLines = 0;
+            written = false;
+            stopped = false;
+        }
+
+        void finish() {
+            if (!stopped) {
+                if (!written) {
+                    emit("");
+                } else if (line.length() > 0) {
+                    emitPendingEmptyLines();
+                    emit(line.toString());
+                }
+            }
+            handler = null;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length && !stopped; i++) {
+                accept(buffer[i]);
+            }
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+            for (int i = offset; i < offset + length && !stopped; i++) {
+                accept(text.charAt(i));
+            }
+        }
+
+        @Override
+        public void write(int c) {
+            if (!stopped) {
+                accept((char) c);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void accept(char c) {
+            written = true;
+            if (c != '\n') {
+                line.append(c);
+            } else if (line.length() == 0) {
+                // Solo se entrega si mas adelante aparece una linea con contenido
+                pendingEmptyLines++;
+            } else {
+                emitPendingEmptyLines();
+                emit(line.toString());
+                line.setLength(0);
+            }
+        }
+
+        private void emitPendingEmptyLines() {
+            while (pendingEmptyLines > 0 && !stopped) {
+                pendingEmptyLines--;
+                emit("");
+            }
+        }
+
+        private void emit(String content) {
+            if (!stopped) {
+                stopped = !handler.onLine(++lineNumber, content);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.popoyo.text.parser;
+
+import java.util.BitSet;
+
+/**
+ * Paginas del documento que pueden producir resultados segun la definicion de los conceptos. Las paginas fuera de la
+ * demanda no necesitan extraerse y el recorrido puede terminar en {@link #lastPage()}.
+ * <p>
+ * Cuando algun concepto tiene [stopAtKeyword] todas las paginas hasta la ultima demandada deben revisarse, ya que la
+ * palabra clave puede aparecer en cualquiera de ellas y detener el resto de la extraccion.
+ *
+ * @author aalaniz
+ */
+final class PageDemand {
+
+    static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private final BitSet fixedPages = new BitSet();
+    private final int firstDetailPage;
+    private final boolean scanAllPages;
+    private final int firstPage;
+    private final int lastPage;
+
+    PageDemand(Iterable<Concept> concepts) {
+        int detailPage = UNBOUNDED;
+        boolean stopAtKeyword = false;
+        for (Concept concept : concepts) {
+            if (concept.getStopAtKeyword() != null) {
+                stopAtKeyword = true;
+            }
+            if (concept.getPage() == -1 || concept.getLine() == -1) {
+                continue;
+            }
+            if (concept.isDetail()) {
+                detailPage = Math.min(detailPage, Math.max(concept.getPage(), 1));
+            } else if (concept.getPage() > 0 && concept.getLine() > 0) {
+                fixedPages.set(concept.getPage());
+            }
+        }
+        this.firstDetailPage = detailPage;
+        this.scanAllPages = stopAtKeyword;
+
+        int lastFixedPage = fixedPages.length() - 1;
+        this.lastPage = detailPage != UNBOUNDED ? UNBOUNDED : Math.max(lastFixedPage, 0);
+        int firstFixedPage = fixedPages.isEmpty() ? UNBOUNDED : fixedPages.nextSetBit(0);
+        this.firstPage = scanAllPages ? 1 : Math.min(firstFixedPage, detailPage);
+    }
+
+    boolean isRequired(int page) {
+        return page >= firstPage && page <= lastPage && (scanAllPages || page >= firstDetailPage || fixedPages.get(page));
+    }
+
+    int firstPage() {
+        return firstPage;
+    }
+
+    int lastPage() {
+        return lastPage;
+    }
+}
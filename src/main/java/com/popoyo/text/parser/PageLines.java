@@ -0,0 +1,44 @@
+package com.popoyo.text.parser;
+
+import com.popoyo.text.parser.LineTextStripper.LineHandler;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Texto de las paginas de un documento, entregado linea por linea con las mismas reglas de {@link LineTextStripper}.
+ * Puede provenir del pdf o de una entrada de {@link PageTextCache}. No es thread-safe, cada hilo debe tener su propia
+ * instancia.
+ *
+ * @author aalaniz
+ */
+interface PageLines extends Closeable {
+
+    int getNumberOfPages();
+
+    void processPage(int page, LineHandler handler) throws IOException;
+
+    /**
+     * Lineas extraidas del pdf con {@link LineTextStripper}. Al cerrarse cierra [document].
+     */
+    static PageLines of(PDDocument document, TextExtractionMode extractionMode) throws IOException {
+        LineTextStripper stripper = new LineTextStripper(extractionMode);
+        return new PageLines() {
+            @Override
+            public int getNumberOfPages() {
+                return document.getNumberOfPages();
+            }
+
+            @Override
+            public void processPage(int page, LineHandler handler) throws IOException {
+                stripper.processPage(document, page, handler);
+            }
+
+            @Override
+            public void close() throws IOException {
+                document.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,322 @@
+package com.popoyo.text.parser;
+
+import com.popoyo.text.parser.LineTextStripper.LineHandler;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Cache en disco del texto de cada pagina de un documento, tal como lo entrega {@link LineTextStripper}. Permite
+ * evaluar otros conceptos sobre el mismo documento sin volver a extraer el texto del pdf, que es la parte mas costosa
+ * del proceso. Cada entrada es un archivo cuyo nombre es el SHA-256 del contenido del documento y del
+ * {@link TextExtractionMode}, por lo que un documento modificado produce otra entrada.
+ * <p>
+ * El archivo tiene una tabla con la posicion de cada pagina seguida del texto de cada pagina comprimido por separado,
+ * y se lee con un {@link MappedByteBuffer}, de modo que solo se descomprimen las paginas que se procesan. Se guardan
+ * todas las paginas del documento, ya que la siguiente lista de conceptos puede necesitar otras. Una entrada de otra
+ * version del formato o que no puede leerse se considera vencida, se elimina y se vuelve a generar desde el pdf.
+ * Puede compartirse entre hilos.
+ *
+ * @author aalaniz
+ */
+public final class PageTextCache {
+    private static final Logger LOGGER = Logger.getLogger(PageTextCache.class.getName());
+
+    private static final String INVALID_ENTRY = "La entrada [%s] de la cache de texto no es valida y sera eliminada";
+    private static final String INVALID_FORMAT = "El contenido de la entrada no tiene un formato valido [%s]";
+    private static final String EXTENSION = ".dxt";
+    private static final String TEMPORARY_EXTENSION = EXTENSION + ".tmp";
+    private static final byte[] MAGIC = {'D', 'X', 'P', 'T'};
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = MAGIC.length + 1 + Integer.BYTES;
+    private static final int PAGE_ENTRY_SIZE = Long.BYTES + Integer.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private final Path directory;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Crea [directory] si no existe. Los archivos temporales que quedaron de una escritura interrumpida se eliminan,
+     * ver {@link TemporaryFiles}.
+     */
+    public PageTextCache(Path directory) throws IOException {
+        this.directory = Files.createDirectories(Objects.requireNonNull(directory, "[directory] es requerido"));
+        TemporaryFiles.deleteStale(this.directory, TEMPORARY_EXTENSION);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public void clear() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Lee el contenido completo de [source], pero no lo carga con PDFBox.
+     */
+    String key(PdfSource source, TextExtractionMode extractionMode) throws IOException {
+        MessageDigest digest = Fingerprint.sha256();
+        digest.update((byte) VERSION);
+        digest.update(extractionMode.name().getBytes(StandardCharsets.UTF_8));
+        source.digest(digest);
+        return Fingerprint.hex(digest.digest());
+    }
+
+    /**
+     * Devuelve null si no hay una entrada para [key] o si esta vencida.
+     */
+    Entry get(String key) {
+        Path file = file(key);
+        try {
+            Entry entry = open(file);
+            hits.incrementAndGet();
+            return entry;
+        } catch (NoSuchFileException e) {
+            misses.incrementAndGet();
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, String.format(INVALID_ENTRY, file), e);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ioe) {
+                LOGGER.log(Level.WARNING, String.format(INVALID_ENTRY, file), ioe);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Extrae el texto de todas las paginas de [document] y lo guarda bajo [key]. La entrada se escribe en un archivo
+     * temporal y se mueve a su nombre final, por lo que nunca se lee una entrada incompleta.
+     */
+    Entry put(String key, PDDocument document, TextExtractionMode extractionMode) throws IOException {
+        int numberOfPages = document.getNumberOfPages();
+        Path temporary = Files.createTempFile(directory, key, TEMPORARY_EXTENSION);
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                writePages(channel, PageLines.of(document, extractionMode), numberOfPages);
+            }
+            Files.move(temporary, file(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return open(file(key));
+    }
+
+    private static Entry open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new Entry(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Las lineas de cada pagina se guardan unidas por '\n'. Como las lineas no contienen '\n' y las lineas vacias
+     * del final no se entregan, el texto se vuelve a cortar en exactamente las mismas lineas. La tabla guarda ademas
+     * la cantidad de lineas, para distinguir una pagina sin lineas de una pagina con una linea vacia.
+     */
+    private static void writePages(FileChannel channel, PageLines pages, int numberOfPages) throws IOException {
+        ByteBuffer table = ByteBuffer.allocate(HEADER_SIZE + numberOfPages * PAGE_ENTRY_SIZE);
+        table.put(MAGIC).put((byte) VERSION).putInt(numberOfPages);
+        long offset = table.capacity();
+        channel.position(offset);
+
+        StringBuilder text = new StringBuilder(4096);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        byte[] buffer = new byte[8192];
+        try {
+            for (int page = 1; page <= numberOfPages; page++) {
+                text.setLength(0);
+                int[] lines = new int[1];
+                pages.processPage(page, (line, content) -> {
+                    if (line > 1) {
+                        text.append('\n');
+                    }
+                    text.append(content);
+                    lines[0] = line;
+                    return true;
+                });
+                byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+                deflater.reset();
+                deflater.setInput(bytes);
+                deflater.finish();
+                int compressed = 0;
+                while (!deflater.finished()) {
+                    int length = deflater.deflate(buffer);
+                    ByteBuffer block = ByteBuffer.wrap(buffer, 0, length);
+                    while (block.hasRemaining()) {
+                        channel.write(block);
+                    }
+                    compressed += length;
+                }
+                table.putLong(offset).putInt(compressed).putInt(bytes.length).putInt(lines[0]);
+                offset += compressed;
+            }
+        } finally {
+            deflater.end();
+        }
+        table.flip();
+        channel.position(0);
+        while (table.hasRemaining()) {
+            channel.write(table);
+        }
+        channel.force(false);
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+
+    /**
+     * Entrada leida de la cache. Es inmutable y puede compartirse entre hilos, cada hilo debe usar su propio
+     * {@link #pages()}.
+     */
+    static final class Entry {
+        private final ByteBuffer content;
+        private final int numberOfPages;
+
+        /**
+         * Valida la cabecera y la tabla de paginas, lanza {@link IOException} si la entrada esta vencida.
+         */
+        Entry(ByteBuffer content) throws IOException {
+            this.content = content;
+            if (content.capacity() < HEADER_SIZE) {
+                throw new IOException(String.format(INVALID_FORMAT, "size"));
+            }
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (content.get(i) != MAGIC[i]) {
+                    throw new IOException(String.format(INVALID_FORMAT, "magic"));
+                }
+            }
+            if (content.get(MAGIC.length) != VERSION) {
+                throw new IOException(String.format(INVALID_FORMAT, "version"));
+            }
+            this.numberOfPages = content.getInt(MAGIC.length + 1);
+            if (numberOfPages < 0 || HEADER_SIZE + (long) numberOfPages * PAGE_ENTRY_SIZE > content.capacity()) {
+                throw new IOException(String.format(INVALID_FORMAT, numberOfPages));
+            }
+            for (int page = 1; page <= numberOfPages; page++) {
+                int position = tablePosition(page);
+                long offset = content.getLong(position);
+                int compressed = content.getInt(position + Long.BYTES);
+                int length = content.getInt(position + Long.BYTES + Integer.BYTES);
+                int lines = content.getInt(position + Long.BYTES + 2 * Integer.BYTES);
+                if (offset < 0 || compressed < 0 || length < 0 || lines < 0 || (lines == 0 && length > 0)
+                        || offset + compressed > content.capacity()) {
+                    throw new IOException(String.format(INVALID_FORMAT, page));
+                }
+            }
+        }
+
+        int getNumberOfPages() {
+            return numberOfPages;
+        }
+
+        PageLines pages() {
+            return new CachedPageLines();
+        }
+
+        private static int tablePosition(int page) {
+            return HEADER_SIZE + (page - 1) * PAGE_ENTRY_SIZE;
+        }
+
+        /**
+         * Descomprime cada pagina con su propio {@link Inflater} y reutiliza los buffers entre paginas.
+         */
+        private final class CachedPageLines implements PageLines {
+            private final ByteBuffer view = content.duplicate();
+            private final Inflater inflater = new Inflater();
+            private byte[] compressed = new byte[0];
+            private byte[] text = new byte[0];
+
+            @Override
+            public int getNumberOfPages() {
+                return numberOfPages;
+            }
+
+            @Override
+            public void processPage(int page, LineHandler handler) throws IOException {
+                if (page < 1 || page > numberOfPages) {
+                    throw new IndexOutOfBoundsException(String.valueOf(page));
+                }
+                int position = tablePosition(page);
+                int offset = (int) content.getLong(position);
+                int compressedLength = content.getInt(position + Long.BYTES);
+                int length = content.getInt(position + Long.BYTES + Integer.BYTES);
+                if (content.getInt(position + Long.BYTES + 2 * Integer.BYTES) == 0) {
+                    // Una pagina sin lineas se guarda como un texto vacio, que se cortaria en una linea vacia
+                    return;
+                }
+                if (compressed.length < compressedLength) {
+                    compressed = new byte[compressedLength];
+                }
+                if (text.length < length) {
+                    text = new byte[length];
+                }
+                view.clear().position(offset);
+                view.get(compressed, 0, compressedLength);
+                inflater.reset();
+                inflater.setInput(compressed, 0, compressedLength);
+                try {
+                    int inflated = 0;
+                    while (inflated < length && !inflater.finished()) {
+                        int read = inflater.inflate(text, inflated, length - inflated);
+                        if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                            break;
+                        }
+                        inflated += read;
+                    }
+                    if (inflated != length) {
+                        throw new IOException(String.format(INVALID_FORMAT, page));
+                    }
+                } catch (DataFormatException e) {
+                    throw new IOException(String.format(INVALID_FORMAT, page), e);
+                }
+
+                String pageText = new String(text, 0, length, StandardCharsets.UTF_8);
+                int line = 1;
+                int start = 0;
+                int end;
+                while ((end = pageText.indexOf('\n', start)) >= 0) {
+                    if (!handler.onLine(line++, pageText.substring(start, end))) {
+                        return;
+                    }
+                    start = end + 1;
+                }
+                handler.onLine(line, pageText.substring(start));
+            }
+
+            @Override
+            public void close() {
+                inflater.end();
+            }
+        }
+    }
+}
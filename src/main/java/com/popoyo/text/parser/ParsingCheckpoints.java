@@ -0,0 +1,305 @@
+package com.popoyo.text.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Checkpoints de las extracciones de {@link TextParser} en un directorio local. Un checkpoint se identifica igual que
+ * una entrada de {@link ResultCache}, por el contenido del documento, los conceptos y la configuracion, el
+ * {@link TextExtractionMode} y el limite de errores, de modo que solo se retoma una extraccion que produce el mismo
+ * resultado.
+ * <p>
+ * Cada checkpoint es un archivo al que cada [interval] paginas se agrega un segmento con los resultados producidos
+ * desde el segmento anterior y el estado de la extraccion: la pagina desde la que continua y la cantidad de errores de
+ * cada concepto. Guardar un checkpoint cuesta lo mismo al inicio que al final de un documento grande; el archivo se
+ * elimina al terminar la extraccion. Cada segmento lleva su longitud y su CRC, por lo que un segmento incompleto por
+ * una interrupcion durante la escritura se descarta y la extraccion continua desde el segmento anterior. Un checkpoint
+ * cuyo encabezado no puede leerse se descarta y la extraccion empieza desde la primera pagina. Dos extracciones del
+ * mismo documento no deben usar el mismo directorio al mismo tiempo.
+ *
+ * @author aalaniz
+ */
+public final class ParsingCheckpoints {
+    private static final Logger LOGGER = Logger.getLogger(ParsingCheckpoints.class.getName());
+
+    private static final String INVALID_INTERVAL = "[interval] debe ser mayor o igual a 1";
+    private static final String INVALID_CHECKPOINT = "El checkpoint [%s] no es valido y sera eliminado";
+    private static final String INCOMPLETE_SEGMENT = "El checkpoint [%s] tiene un segmento incompleto, se retoma desde el segmento anterior";
+    private static final String WRITE_ERROR = "No se pudo guardar el checkpoint [%s], la extraccion continua sin checkpoints";
+    private static final String DELETE_ERROR = "No se pudo eliminar el checkpoint [%s]";
+    private static final String INVALID_FORMAT = "El contenido del checkpoint no tiene un formato valido [%s]";
+    private static final String EXTENSION = ".dxk";
+    private static final byte[] MAGIC = {'D', 'X', 'C', 'K'};
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = MAGIC.length + 1 + Integer.BYTES;
+    private static final int SEGMENT_HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+    private static final OpenOption[] CREATE = {StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE};
+    private static final OpenOption[] APPEND = {StandardOpenOption.WRITE, StandardOpenOption.APPEND};
+
+    private final Path directory;
+    private final int interval;
+
+    /**
+     * Crea [directory] si no existe.
+     */
+    public ParsingCheckpoints(Path directory, int interval) throws IOException {
+        if (interval < 1) {
+            throw new IllegalArgumentException(INVALID_INTERVAL);
+        }
+        this.directory = Files.createDirectories(Objects.requireNonNull(directory, "[directory] es requerido"));
+        this.interval = interval;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Calcula la clave del checkpoint. Lee el contenido completo de [source], pero no lo carga con PDFBox.
+     */
+    String key(PdfSource source, ExecutionPlan plan, TextExtractionMode extractionMode, ErrorLimit errorLimit)
+            throws IOException {
+        MessageDigest digest = Fingerprint.sha256();
+        digest.update(MAGIC);
+        digest.update((byte) VERSION);
+        digest.update(extractionMode.name().getBytes(StandardCharsets.UTF_8));
+        digest.update(plan.fingerprint().getBytes(StandardCharsets.UTF_8));
+        errorLimit.digest(digest);
+        source.digest(digest);
+        return Fingerprint.hex(digest.digest());
+    }
+
+    /**
+     * Devuelve null si no hay un checkpoint para [key]. Si el ultimo segmento esta incompleto el archivo se recorta
+     * hasta el segmento anterior, de modo que los segmentos siguientes se agregan a continuacion.
+     */
+    Checkpoint get(String key, ExecutionPlan plan) {
+        Path file = file(key);
+        try {
+            Checkpoint checkpoint = read(file, plan);
+            if (checkpoint == null) {
+                remove(key);
+            }
+            return checkpoint;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, String.format(INVALID_CHECKPOINT, file), e);
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Agrega al checkpoint de [key] un segmento con [nextPage], [errorCounts] y [results], los resultados producidos
+     * desde el segmento anterior. Con [first] el archivo se crea de nuevo. Si [results] contiene valores de un tipo
+     * que el formato de {@link ResultCache} no soporta, o el segmento no puede escribirse, el checkpoint se elimina y
+     * se devuelve false; el error se registra y no se propaga.
+     */
+    boolean append(String key, ExecutionPlan plan, boolean first, int nextPage, int[] errorCounts,
+                   TextParsingResult results) {
+        try {
+            byte[] segment = segment(plan, nextPage, errorCounts, results);
+            CRC32 crc = new CRC32();
+            crc.update(segment);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(file(key), first ? CREATE : APPEND)))) {
+                if (first) {
+                    out.write(MAGIC);
+                    out.writeByte(VERSION);
+                    out.writeInt(plan.size());
+                }
+                out.writeInt(segment.length);
+                out.writeInt((int) crc.getValue());
+                out.write(segment);
+            }
+            return true;
+        } catch (UnsupportedOperationException e) {
+            LOGGER.fine(e.getMessage());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, String.format(WRITE_ERROR, key), e);
+        }
+        remove(key);
+        return false;
+    }
+
+    void remove(String key) {
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, String.format(DELETE_ERROR, key), e);
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+
+    /**
+     * Los resultados del segmento se guardan al final con el formato de {@link ResultCache}.
+     */
+    private static byte[] segment(ExecutionPlan plan, int nextPage, int[] errorCounts, TextParsingResult results)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(nextPage);
+        for (int count : errorCounts) {
+            out.writeInt(count);
+        }
+        ResultCache.write(out, plan, results);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Devuelve null si el checkpoint no tiene ningun segmento completo.
+     */
+    private static Checkpoint read(Path file, ExecutionPlan plan) throws IOException {
+        long size = Files.size(file);
+        long validSize = HEADER_SIZE;
+        TextParsingResult result = new TextParsingResult();
+        int nextPage = 0;
+        int[] errorCounts = null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            readHeader(in, plan);
+            while (validSize < size) {
+                byte[] segment = readSegment(in, size - validSize - SEGMENT_HEADER_SIZE);
+                if (segment == null) {
+                    break;
+                }
+                DataInputStream segmentIn = new DataInputStream(new ByteArrayInputStream(segment));
+                int segmentNextPage = segmentIn.readInt();
+                int[] segmentErrorCounts = new int[plan.size()];
+                for (int i = 0; i < segmentErrorCounts.length; i++) {
+                    segmentErrorCounts[i] = segmentIn.readInt();
+                    if (segmentErrorCounts[i] < 0) {
+                        throw new IOException(String.format(INVALID_FORMAT, "state"));
+                    }
+                }
+                if (segmentNextPage <= nextPage) {
+                    throw new IOException(String.format(INVALID_FORMAT, "page"));
+                }
+                merge(result, ResultCache.read(segmentIn, plan), plan);
+                nextPage = segmentNextPage;
+                errorCounts = segmentErrorCounts;
+                validSize += SEGMENT_HEADER_SIZE + segment.length;
+            }
+        }
+        if (errorCounts == null) {
+            return null;
+        }
+        if (validSize < size) {
+            LOGGER.warning(String.format(INCOMPLETE_SEGMENT, file));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(validSize);
+            }
+        }
+        return new Checkpoint(nextPage, errorCounts, result);
+    }
+
+    private static void readHeader(DataInputStream in, ExecutionPlan plan) throws IOException {
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (magic[i] != MAGIC[i]) {
+                    throw new IOException(String.format(INVALID_FORMAT, "magic"));
+                }
+            }
+            if (in.readUnsignedByte() != VERSION) {
+                throw new IOException(String.format(INVALID_FORMAT, "version"));
+            }
+            if (in.readInt() != plan.size()) {
+                throw new IOException(String.format(INVALID_FORMAT, "size"));
+            }
+        } catch (EOFException e) {
+            throw new IOException(String.format(INVALID_FORMAT, "eof"), e);
+        }
+    }
+
+    /**
+     * Devuelve null si el segmento esta incompleto o no coincide con su CRC, como ocurre cuando la escritura se
+     * interrumpio. [available] es la cantidad de bytes que quedan en el archivo despues del encabezado del segmento.
+     */
+    private static byte[] readSegment(DataInputStream in, long available) throws IOException {
+        if (available < 0) {
+            return null;
+        }
+        int length = in.readInt();
+        int checksum = in.readInt();
+        if (length < 0 || length > available) {
+            return null;
+        }
+        byte[] segment = new byte[length];
+        in.readFully(segment);
+        CRC32 crc = new CRC32();
+        crc.update(segment);
+        return (int) crc.getValue() == checksum ? segment : null;
+    }
+
+    private static void merge(TextParsingResult result, TextParsingResult segment, ExecutionPlan plan) {
+        for (ConceptOutput output : segment) {
+            result.addConceptOutput(output);
+        }
+        for (ConceptError error : segment.conceptErrors()) {
+            result.addConceptError(error);
+        }
+        Set<String> descriptions = new HashSet<>();
+        for (int i = 0; i < plan.size(); i++) {
+            String description = plan.concept(i).getDescription();
+            int omitted = segment.omittedErrors(description);
+            if (omitted > 0 && descriptions.add(description)) {
+                result.addOmittedErrors(description, omitted);
+            }
+        }
+    }
+
+    /**
+     * Estado de una extraccion despues de procesar las paginas anteriores a [nextPage]. [errorCounts] tiene la
+     * cantidad de errores de cada concepto por indice del plan, incluidos los omitidos por el limite de errores.
+     */
+    static final class Checkpoint {
+        private final int nextPage;
+        private final int[] errorCounts;
+        private final TextParsingResult result;
+
+        Checkpoint(int nextPage, int[] errorCounts, TextParsingResult result) {
+            this.nextPage = nextPage;
+            this.errorCounts = errorCounts;
+            this.result = result;
+        }
+
+        int getNextPage() {
+            return nextPage;
+        }
+
+        int[] getErrorCounts() {
+            return errorCounts;
+        }
+
+        TextParsingResult getResult() {
+            return result;
+        }
+    }
+}
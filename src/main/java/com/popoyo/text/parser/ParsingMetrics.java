@@ -0,0 +1,36 @@
+package com.popoyo.text.parser;
+
+/**
+ * Recibe las mediciones de una extraccion: la carga del pdf, la extraccion del texto y la evaluacion de cada pagina,
+ * y el tiempo de cada concepto separado en ubicar el valor en la linea y convertirlo. Los tiempos estan en
+ * nanosegundos.
+ * <p>
+ * Los metodos se llaman desde los hilos que procesan el documento, por lo que las implementaciones deben ser
+ * thread-safe y no bloquear. Con {@link #NONE}, que es el valor por defecto, el parser no mide ningun tiempo.
+ *
+ * @author aalaniz
+ */
+public interface ParsingMetrics {
+
+    ParsingMetrics NONE = new ParsingMetrics() {
+    };
+
+    default void onDocumentLoaded(long nanos) {
+    }
+
+    /**
+     * [stripNanos] incluye la extraccion del texto del pdf, o la lectura de {@link PageTextCache}, y el corte en
+     * [lines] lineas; [evaluateNanos] es el tiempo de evaluar los conceptos sobre esas lineas.
+     */
+    default void onPage(int page, int lines, long stripNanos, long evaluateNanos) {
+    }
+
+    /**
+     * [hit] indica si el concepto produjo un valor distinto de null.
+     */
+    default void onConceptValue(Concept concept, boolean hit, long extractNanos, long convertNanos) {
+    }
+
+    default void onConceptError(Concept concept, long nanos) {
+    }
+}
@@ -0,0 +1,128 @@
+package com.popoyo.text.parser;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+
+import java.io.File;
+
+/**
+ * Define como se carga un documento pdf: cuanta memoria puede usar PDFBox para los datos temporales del documento,
+ * si el excedente se escribe en archivos temporales y si el contenido del archivo se lee a traves de un mapeo en
+ * memoria. El limite aplica a cada documento cargado, en modo paralelo cada hilo carga su propia copia.
+ *
+ * @author aalaniz
+ */
+public final class PdfLoadStrategy {
+
+    public static final PdfLoadStrategy DEFAULT = mainMemoryOnly();
+
+    private static final long UNRESTRICTED = -1;
+
+    private final boolean useMainMemory;
+    private final boolean useTempFile;
+    private final long maxMainMemoryBytes;
+    private final boolean memoryMapped;
+    private final File tempDir;
+
+    private PdfLoadStrategy(boolean useMainMemory, boolean useTempFile, long maxMainMemoryBytes, boolean memoryMapped,
+                            File tempDir) {
+        this.useMainMemory = useMainMemory;
+        this.useTempFile = useTempFile;
+        this.maxMainMemoryBytes = maxMainMemoryBytes;
+        this.memoryMapped = memoryMapped;
+        this.tempDir = tempDir;
+    }
+
+    public static PdfLoadStrategy mainMemoryOnly() {
+        return new PdfLoadStrategy(true, false, UNRESTRICTED, false, null);
+    }
+
+    /**
+     * Solo memoria principal, la carga falla si el documento necesita mas de [maxMainMemoryBytes].
+     */
+    public static PdfLoadStrategy mainMemoryOnly(long maxMainMemoryBytes) {
+        return new PdfLoadStrategy(true, false, requirePositive(maxMainMemoryBytes), false, null);
+    }
+
+    /**
+     * Usa hasta [maxMainMemoryBytes] de memoria principal y el resto en archivos temporales.
+     */
+    public static PdfLoadStrategy mixed(long maxMainMemoryBytes) {
+        return new PdfLoadStrategy(true, true, requirePositive(maxMainMemoryBytes), false, null);
+    }
+
+    public static PdfLoadStrategy tempFileOnly() {
+        return new PdfLoadStrategy(false, true, 0, false, null);
+    }
+
+    /**
+     * Lee el archivo a traves de un mapeo en memoria en lugar de copiarlo al heap, los datos temporales se mantienen
+     * en memoria principal.
+     */
+    public static PdfLoadStrategy memoryMapped() {
+        return new PdfLoadStrategy(true, false, UNRESTRICTED, true, null);
+    }
+
+    /**
+     * Lee el archivo a traves de un mapeo en memoria, los datos temporales usan hasta [maxMainMemoryBytes] de memoria
+     * principal y el resto en archivos temporales.
+     */
+    public static PdfLoadStrategy memoryMapped(long maxMainMemoryBytes) {
+        return new PdfLoadStrategy(true, true, requirePositive(maxMainMemoryBytes), true, null);
+    }
+
+    public PdfLoadStrategy withTempDir(File tempDir) {
+        if (tempDir == null || !tempDir.isDirectory()) {
+            throw new IllegalArgumentException("[tempDir] debe ser un directorio existente");
+        }
+        return new PdfLoadStrategy(useMainMemory, useTempFile, maxMainMemoryBytes, memoryMapped, tempDir);
+    }
+
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    public boolean usesTempFile() {
+        return useTempFile;
+    }
+
+    public long getMaxMainMemoryBytes() {
+        return maxMainMemoryBytes;
+    }
+
+    public File getTempDir() {
+        return tempDir;
+    }
+
+    /**
+     * Cada documento necesita su propio {@link MemoryUsageSetting}, por lo que se crea uno nuevo en cada llamada.
+     */
+    MemoryUsageSetting memoryUsageSetting() {
+        MemoryUsageSetting setting;
+        if (useMainMemory && useTempFile) {
+            setting = MemoryUsageSetting.setupMixed(maxMainMemoryBytes);
+        } else if (useTempFile) {
+            setting = MemoryUsageSetting.setupTempFileOnly();
+        } else {
+            setting = MemoryUsageSetting.setupMainMemoryOnly(maxMainMemoryBytes);
+        }
+        return tempDir == null ? setting : setting.setTempDir(tempDir);
+    }
+
+    private static long requirePositive(long maxMainMemoryBytes) {
+        if (maxMainMemoryBytes <= 0) {
+            throw new IllegalArgumentException("[maxMainMemoryBytes] debe ser mayor a cero");
+        }
+        return maxMainMemoryBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "PdfLoadStrategy{" +
+                "useMainMemory=" + useMainMemory +
+                ", useTempFile=" + useTempFile +
+                ", maxMainMemoryBytes=" + maxMainMemoryBytes +
+                ", memoryMapped=" + memoryMapped +
+                ", tempDir=" + tempDir +
+                '}';
+    }
+}
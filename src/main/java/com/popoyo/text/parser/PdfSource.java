@@ -0,0 +1,259 @@
+package com.popoyo.text.parser;
+
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.ScratchFile;
+import org.apache.pdfbox.pdfparser.PDFParser;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Objects;
+
+/**
+ * Origen del contenido de un documento pdf: un archivo, un arreglo de bytes, un {@link ByteBuffer} o un
+ * {@link InputStream}.
+ *
+ * @author aalaniz
+ */
+public abstract class PdfSource {
+
+    private static final String FILE_NOT_FOUND = "El archivo [%s] no existe";
+    private static final String ALREADY_READ = "El contenido de [%s] ya fue leido, un InputStream solo puede leerse una vez";
+
+    private final String name;
+
+    private PdfSource(String name) {
+        this.name = Objects.requireNonNull(name, "[name] es requerido");
+    }
+
+    public static PdfSource of(String path) {
+        return of(new File(Objects.requireNonNull(path, "[path] es requerido")));
+    }
+
+    public static PdfSource of(File file) {
+        return new FileSource(Objects.requireNonNull(file, "[file] es requerido"));
+    }
+
+    public static PdfSource of(String name, byte[] content) {
+        return of(name, ByteBuffer.wrap(Objects.requireNonNull(content, "[content] es requerido")));
+    }
+
+    public static PdfSource of(String name, ByteBuffer content) {
+        return new ByteBufferSource(name, Objects.requireNonNull(content, "[content] es requerido"));
+    }
+
+    /**
+     * El stream se consume en la primera carga y se cierra al terminar de leerlo.
+     */
+    public static PdfSource of(String name, InputStream content) {
+        return new InputStreamSource(name, Objects.requireNonNull(content, "[content] es requerido"));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    abstract PDDocument load(PdfLoadStrategy strategy) throws IOException;
+
+    /**
+     * Agrega el contenido del documento a [digest] sin cargarlo con PDFBox.
+     */
+    abstract void digest(MessageDigest digest) throws IOException;
+
+    /**
+     * Devuelve un origen que puede cargarse varias veces. Si este origen solo puede leerse una vez su contenido se
+     * copia a un archivo temporal, cuando la estrategia lo permite, o a memoria.
+     */
+    PdfSource reloadable(PdfLoadStrategy strategy) throws IOException {
+        return this;
+    }
+
+    /**
+     * Libera los recursos temporales creados por {@link #reloadable(PdfLoadStrategy)}.
+     */
+    void release() {
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Agrega [is] a [digest] y, si [copy] no es null, tambien lo copia a [copy].
+     */
+    private static void digest(InputStream is, MessageDigest digest, OutputStream copy) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+            if (copy != null) {
+                copy.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private static PDDocument parse(RandomAccessRead content, PdfLoadStrategy strategy) throws IOException {
+        ScratchFile scratchFile = new ScratchFile(strategy.memoryUsageSetting());
+        try {
+            PDFParser parser = new PDFParser(content, "", scratchFile);
+            parser.parse();
+            return parser.getPDDocument();
+        } catch (IOException ioe) {
+            IOUtils.closeQuietly(scratchFile);
+            IOUtils.closeQuietly(content);
+            throw ioe;
+        }
+    }
+
+    private static class FileSource extends PdfSource {
+        private final File file;
+
+        FileSource(File file) {
+            this(file.getPath(), file);
+        }
+
+        FileSource(String name, File file) {
+            super(name);
+            this.file = file;
+        }
+
+        @Override
+        PDDocument load(PdfLoadStrategy strategy) throws IOException {
+            if (!file.exists()) {
+                throw new IOException(String.format(FILE_NOT_FOUND, file.getPath()));
+            }
+            if (strategy.isMemoryMapped() && file.length() <= Integer.MAX_VALUE) {
+                MappedByteBuffer content;
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+                return parse(new ByteBufferRandomAccessRead(content), strategy);
+            }
+            return PDDocument.load(file, strategy.memoryUsageSetting());
+        }
+
+        @Override
+        void digest(MessageDigest digest) throws IOException {
+            if (!file.exists()) {
+                throw new IOException(String.format(FILE_NOT_FOUND, file.getPath()));
+            }
+            try (InputStream is = new FileInputStream(file)) {
+                PdfSource.digest(is, digest, null);
+            }
+        }
+    }
+
+    private static class TempFileSource extends FileSource {
+        private final File file;
+
+        TempFileSource(String name, File file) {
+            super(name, file);
+            this.file = file;
+        }
+
+        @Override
+        void release() {
+            file.delete();
+        }
+    }
+
+    private static class ByteBufferSource extends PdfSource {
+        private final ByteBuffer content;
+
+        ByteBufferSource(String name, ByteBuffer content) {
+            super(name);
+            this.content = content;
+        }
+
+        @Override
+        PDDocument load(PdfLoadStrategy strategy) throws IOException {
+            return parse(new ByteBufferRandomAccessRead(content), strategy);
+        }
+
+        @Override
+        void digest(MessageDigest digest) {
+            digest.update(content.duplicate());
+        }
+    }
+
+    /**
+     * Despues de {@link #digest(MessageDigest)} el contenido queda en memoria, ya que el stream no puede volver a
+     * leerse.
+     */
+    private static class InputStreamSource extends PdfSource {
+        private InputStream content;
+        private byte[] buffered;
+
+        InputStreamSource(String name, InputStream content) {
+            super(name);
+            this.content = content;
+        }
+
+        @Override
+        synchronized PDDocument load(PdfLoadStrategy strategy) throws IOException {
+            if (buffered != null) {
+                return parse(new ByteBufferRandomAccessRead(ByteBuffer.wrap(buffered)), strategy);
+            }
+            try (InputStream is = take()) {
+                return PDDocument.load(is, strategy.memoryUsageSetting());
+            }
+        }
+
+        @Override
+        synchronized PdfSource reloadable(PdfLoadStrategy strategy) throws IOException {
+            if (buffered != null) {
+                return of(getName(), buffered);
+            }
+            try (InputStream is = take()) {
+                if (strategy.usesTempFile()) {
+                    File file = File.createTempFile("data-extractor", ".pdf", strategy.getTempDir());
+                    try (OutputStream os = new FileOutputStream(file)) {
+                        IOUtils.copy(is, os);
+                    } catch (IOException ioe) {
+                        file.delete();
+                        throw ioe;
+                    }
+                    return new TempFileSource(getName(), file);
+                } else {
+                    ByteArrayOutputStream os = new ByteArrayOutputStream();
+                    IOUtils.copy(is, os);
+                    return of(getName(), os.toByteArray());
+                }
+            }
+        }
+
+        @Override
+        synchronized void digest(MessageDigest digest) throws IOException {
+            if (buffered == null) {
+                try (InputStream is = take()) {
+                    ByteArrayOutputStream os = new ByteArrayOutputStream();
+                    PdfSource.digest(is, digest, os);
+                    buffered = os.toByteArray();
+                }
+            } else {
+                digest.update(buffered);
+            }
+        }
+
+        private InputStream take() throws IOException {
+            if (content == null) {
+                throw new IOException(String.format(ALREADY_READ, getName()));
+            }
+            InputStream is = content;
+            content = null;
+            return is;
+        }
+    }
+}
@@ -0,0 +1,592 @@
+package com.popoyo.text.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Cache en disco de los {@link TextParsingResult} de {@link TextParser}. Cada entrada es un archivo del directorio
+ * cuyo nombre es el SHA-256 del contenido del documento, del {@link ExecutionPlan#fingerprint()} de los conceptos y
+ * de la configuracion, del {@link TextExtractionMode} y del limite de errores, de modo que un cambio en cualquiera
+ * de ellos produce otra entrada. Los resultados se guardan comprimidos en un formato binario propio.
+ * <p>
+ * El tamano total de las entradas esta limitado por [maxBytes]; al superarlo se eliminan las entradas usadas hace mas
+ * tiempo. Las entradas se escriben en un archivo temporal y se mueven a su nombre final, por lo que nunca se lee una
+ * entrada incompleta. Puede compartirse entre hilos. Una entrada que no puede leerse se descarta y cuenta como fallo.
+ *
+ * @author aalaniz
+ */
+public final class ResultCache {
+    private static final Logger LOGGER = Logger.getLogger(ResultCache.class.getName());
+
+    private static final String INVALID_MAX_BYTES = "[maxBytes] debe ser mayor a 0";
+    private static final String INVALID_ENTRY = "La entrada [%s] de la cache de resultados no es valida y sera eliminada";
+    private static final String WRITE_ERROR = "No se pudo guardar la entrada [%s] en la cache de resultados";
+    private static final String INVALID_FORMAT = "El contenido de la entrada no tiene un formato valido [%s]";
+    private static final String UNSUPPORTED_VALUE = "El tipo [%s] no puede guardarse en la cache de resultados";
+    private static final String EXTENSION = ".dxr";
+    private static final String TEMPORARY_EXTENSION = EXTENSION + ".tmp";
+    private static final byte[] MAGIC = {'D', 'X', 'R', 'C'};
+    private static final int VERSION = 2;
+
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int STRING_BUILDER = 2;
+    private static final int CHARACTER = 3;
+    private static final int BOOLEAN = 4;
+    private static final int BYTE = 5;
+    private static final int SHORT = 6;
+    private static final int INTEGER = 7;
+    private static final int LONG = 8;
+    private static final int FLOAT = 9;
+    private static final int DOUBLE = 10;
+    private static final int BIG_INTEGER = 11;
+    private static final int BIG_DECIMAL = 12;
+    private static final int LOCAL_DATE = 13;
+    private static final int LOCAL_DATE_TIME = 14;
+    private static final int DATE = 15;
+    private static final int SQL_DATE = 16;
+    private static final int SQL_TIME = 17;
+    private static final int SQL_TIMESTAMP = 18;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long size;
+
+    /**
+     * Crea [directory] si no existe y recupera las entradas que ya contiene, ordenadas por fecha de ultimo uso. Los
+     * archivos temporales que quedaron de una escritura interrumpida se eliminan, ver {@link TemporaryFiles}.
+     */
+    public ResultCache(Path directory, long maxBytes) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException(INVALID_MAX_BYTES);
+        }
+        this.directory = Files.createDirectories(Objects.requireNonNull(directory, "[directory] es requerido"));
+        this.maxBytes = maxBytes;
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(EXTENSION)) {
+                    files.add(file);
+                } else if (name.endsWith(TEMPORARY_EXTENSION)) {
+                    TemporaryFiles.deleteIfStale(file, TEMPORARY_EXTENSION);
+                }
+            }
+        }
+        Map<Path, FileTime> lastModified = new IdentityHashMap<>();
+        for (Path file : files) {
+            lastModified.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort(Comparator.comparing(lastModified::get));
+        synchronized (this) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long length = Files.size(file);
+                entries.put(name.substring(0, name.length() - EXTENSION.length()), length);
+                size += length;
+            }
+            evict(null);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Tamano total en bytes de las entradas guardadas.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized void clear() throws IOException {
+        for (String key : entries.keySet()) {
+            Files.deleteIfExists(file(key));
+        }
+        entries.clear();
+        size = 0;
+    }
+
+    /**
+     * Calcula la clave de la entrada. Lee el contenido completo de [source], pero no lo carga con PDFBox.
+     */
+    String key(PdfSource source, ExecutionPlan plan, TextExtractionMode extractionMode, ErrorLimit errorLimit)
+            throws IOException {
+        MessageDigest digest = Fingerprint.sha256();
+        digest.update((byte) VERSION);
+        digest.update(extractionMode.name().getBytes(StandardCharsets.UTF_8));
+        digest.update(plan.fingerprint().getBytes(StandardCharsets.UTF_8));
+        errorLimit.digest(digest);
+        source.digest(digest);
+        return Fingerprint.hex(digest.digest());
+    }
+
+    /**
+     * Devuelve null si no hay una entrada para [key].
+     */
+    TextParsingResult get(String key, ExecutionPlan plan) {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+        }
+        Path file = file(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            TextParsingResult result = read(in, plan);
+            hits.incrementAndGet();
+            touch(file);
+            return result;
+        } catch (NoSuchFileException e) {
+            // La entrada fue eliminada por otro hilo o proceso
+            remove(key);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, String.format(INVALID_ENTRY, file), e);
+            remove(key);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Guarda [result] bajo [key]. Si el resultado contiene valores de un tipo que el formato no soporta, o ocupa mas
+     * que [maxBytes], no se guarda. Un error al escribir se registra y no se propaga.
+     */
+    void put(String key, ExecutionPlan plan, TextParsingResult result) {
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(directory, key, TEMPORARY_EXTENSION);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                write(out, plan, result);
+            }
+            long length = Files.size(temporary);
+            if (length > maxBytes) {
+                return;
+            }
+            synchronized (this) {
+                Files.move(temporary, file(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                temporary = null;
+                Long previous = entries.put(key, length);
+                size += length - (previous == null ? 0 : previous);
+                evict(key);
+            }
+        } catch (UnsupportedOperationException e) {
+            LOGGER.fine(e.getMessage());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, String.format(WRITE_ERROR, key), e);
+        } finally {
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, String.format(WRITE_ERROR, key), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Elimina las entradas usadas hace mas tiempo hasta que el tamano total no supere [maxBytes], sin eliminar
+     * [keep].
+     */
+    private void evict(String keep) throws IOException {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (size > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            Files.deleteIfExists(file(eldest.getKey()));
+            size -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    private synchronized void remove(String key) {
+        Long length = entries.remove(key);
+        if (length != null) {
+            size -= length;
+            try {
+                Files.deleteIfExists(file(key));
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, String.format(INVALID_ENTRY, key), e);
+            }
+        }
+    }
+
+    /**
+     * La fecha de modificacion conserva el orden de uso entre instancias de la cache.
+     */
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, e.getMessage(), e);
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+
+    static void write(DataOutputStream file, ExecutionPlan plan, TextParsingResult result) throws IOException {
+        file.write(MAGIC);
+        file.writeByte(VERSION);
+        Map<Concept, Integer> indexes = new IdentityHashMap<>(plan.size() * 2);
+        for (int i = 0; i < plan.size(); i++) {
+            indexes.putIfAbsent(plan.concept(i), i);
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            DeflaterOutputStream deflated = new DeflaterOutputStream(file, deflater, 8192);
+            DataOutputStream out = new DataOutputStream(deflated);
+            writeVarLong(out, plan.size());
+            writeVarLong(out, result.size());
+            for (ConceptOutput output : result) {
+                writeVarLong(out, index(indexes, output.getConcept()));
+                writeVarLong(out, output.getPage());
+                writeVarLong(out, output.getLine());
+                writeValue(out, output.getValue());
+            }
+            List<ConceptError> errors = result.conceptErrors();
+            writeVarLong(out, errors.size());
+            for (ConceptError error : errors) {
+                writeVarLong(out, index(indexes, error.getConcept()));
+                writeVarLong(out, error.getPage());
+                writeVarLong(out, error.getLine());
+                writeString(out, error.getContent());
+                writeString(out, error.getError());
+            }
+            writeOmittedErrors(out, plan, result);
+            out.flush();
+            deflated.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static TextParsingResult read(DataInputStream file, ExecutionPlan plan) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        file.readFully(magic);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (magic[i] != MAGIC[i]) {
+                throw new IOException(String.format(INVALID_FORMAT, "magic"));
+            }
+        }
+        if (file.readUnsignedByte() != VERSION) {
+            throw new IOException(String.format(INVALID_FORMAT, "version"));
+        }
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(file)));
+        if (readVarLong(in) != plan.size()) {
+            throw new IOException(String.format(INVALID_FORMAT, "size"));
+        }
+        TextParsingResult result = new TextParsingResult();
+        long outputs = readVarLong(in);
+        for (long i = 0; i < outputs; i++) {
+            Concept concept = plan.concept(readIndex(in, plan));
+            int page = readVarInt(in);
+            int line = readVarInt(in);
+            result.addConceptOutput(new ConceptOutput(page, line, concept, readValue(in)));
+        }
+        long errors = readVarLong(in);
+        for (long i = 0; i < errors; i++) {
+            Concept concept = plan.concept(readIndex(in, plan));
+            int page = readVarInt(in);
+            int line = readVarInt(in);
+            String content = readString(in);
+            result.addConceptError(new ConceptError(page, line, concept, content, readString(in)));
+        }
+        long omitted = readVarLong(in);
+        for (long i = 0; i < omitted; i++) {
+            String description = readString(in);
+            result.addOmittedErrors(description, readVarInt(in));
+        }
+        if (in.read() != -1) {
+            throw new IOException(String.format(INVALID_FORMAT, "length"));
+        }
+        return result;
+    }
+
+    /**
+     * Cantidad de errores no conservados de cada concepto que tiene alguno.
+     */
+    private static void writeOmittedErrors(DataOutputStream out, ExecutionPlan plan, TextParsingResult result)
+            throws IOException {
+        Map<String, Integer> omitted = new LinkedHashMap<>();
+        for (int i = 0; i < plan.size(); i++) {
+            String description = plan.concept(i).getDescription();
+            int count = result.omittedErrors(description);
+            if (count > 0) {
+                omitted.put(description, count);
+            }
+        }
+        writeVarLong(out, omitted.size());
+        for (Map.Entry<String, Integer> entry : omitted.entrySet()) {
+            writeString(out, entry.getKey());
+            writeVarLong(out, entry.getValue());
+        }
+    }
+
+    private static int index(Map<Concept, Integer> indexes, Concept concept) {
+        Integer index = indexes.get(concept);
+        if (index == null) {
+            throw new UnsupportedOperationException(String.format(UNSUPPORTED_VALUE, Concept.class.getName()));
+        }
+        return index;
+    }
+
+    private static int readIndex(DataInputStream in, ExecutionPlan plan) throws IOException {
+        int index = readVarInt(in);
+        if (index < 0 || index >= plan.size()) {
+            throw new IOException(String.format(INVALID_FORMAT, index));
+        }
+        return index;
+    }
+
+    /**
+     * Solo se aceptan los tipos que produce {@link com.popoyo.text.converter.StringInputConverter}, comparando la
+     * clase exacta para que el valor leido sea del mismo tipo.
+     */
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        Class<?> type = value == null ? null : value.getClass();
+        if (type == null) {
+            out.writeByte(NULL);
+        } else if (type == String.class) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (type == StringBuilder.class) {
+            out.writeByte(STRING_BUILDER);
+            writeString(out, value.toString());
+        } else if (type == Character.class) {
+            out.writeByte(CHARACTER);
+            out.writeChar((Character) value);
+        } else if (type == Boolean.class) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (type == Byte.class) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (type == Short.class) {
+            out.writeByte(SHORT);
+            writeSignedVarLong(out, (Short) value);
+        } else if (type == Integer.class) {
+            out.writeByte(INTEGER);
+            writeSignedVarLong(out, (Integer) value);
+        } else if (type == Long.class) {
+            out.writeByte(LONG);
+            writeSignedVarLong(out, (Long) value);
+        } else if (type == Float.class) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (type == Double.class) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (type == BigInteger.class) {
+            out.writeByte(BIG_INTEGER);
+            writeBytes(out, ((BigInteger) value).toByteArray());
+        } else if (type == BigDecimal.class) {
+            BigDecimal decimal = (BigDecimal) value;
+            out.writeByte(BIG_DECIMAL);
+            writeSignedVarLong(out, decimal.scale());
+            writeBytes(out, decimal.unscaledValue().toByteArray());
+        } else if (type == LocalDate.class) {
+            out.writeByte(LOCAL_DATE);
+            writeSignedVarLong(out, ((LocalDate) value).toEpochDay());
+        } else if (type == LocalDateTime.class) {
+            LocalDateTime dateTime = (LocalDateTime) value;
+            out.writeByte(LOCAL_DATE_TIME);
+            writeSignedVarLong(out, dateTime.toLocalDate().toEpochDay());
+            writeVarLong(out, dateTime.toLocalTime().toNanoOfDay());
+        } else if (type == Date.class) {
+            out.writeByte(DATE);
+            writeSignedVarLong(out, ((Date) value).getTime());
+        } else if (type == java.sql.Date.class) {
+            out.writeByte(SQL_DATE);
+            writeSignedVarLong(out, ((Date) value).getTime());
+        } else if (type == java.sql.Time.class) {
+            out.writeByte(SQL_TIME);
+            writeSignedVarLong(out, ((Date) value).getTime());
+        } else if (type == java.sql.Timestamp.class) {
+            java.sql.Timestamp timestamp = (java.sql.Timestamp) value;
+            out.writeByte(SQL_TIMESTAMP);
+            writeSignedVarLong(out, timestamp.getTime());
+            writeVarLong(out, timestamp.getNanos());
+        } else {
+            throw new UnsupportedOperationException(String.format(UNSUPPORTED_VALUE, type.getName()));
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case STRING_BUILDER:
+                return new StringBuilder(readString(in));
+            case CHARACTER:
+                return in.readChar();
+            case BOOLEAN:
+                return in.readBoolean();
+            case BYTE:
+                return in.readByte();
+            case SHORT:
+                return (short) readSignedVarLong(in);
+            case INTEGER:
+                return (int) readSignedVarLong(in);
+            case LONG:
+                return readSignedVarLong(in);
+            case FLOAT:
+                return in.readFloat();
+            case DOUBLE:
+                return in.readDouble();
+            case BIG_INTEGER:
+                return new BigInteger(readBytes(in));
+            case BIG_DECIMAL:
+                int scale = (int) readSignedVarLong(in);
+                return new BigDecimal(new BigInteger(readBytes(in)), scale);
+            case LOCAL_DATE:
+                return LocalDate.ofEpochDay(readSignedVarLong(in));
+            case LOCAL_DATE_TIME:
+                LocalDate date = LocalDate.ofEpochDay(readSignedVarLong(in));
+                return LocalDateTime.of(date, LocalTime.ofNanoOfDay(readVarLong(in)));
+            case DATE:
+                return new Date(readSignedVarLong(in));
+            case SQL_DATE:
+                return new java.sql.Date(readSignedVarLong(in));
+            case SQL_TIME:
+                return new java.sql.Time(readSignedVarLong(in));
+            case SQL_TIMESTAMP:
+                java.sql.Timestamp timestamp = new java.sql.Timestamp(readSignedVarLong(in));
+                timestamp.setNanos(readVarInt(in));
+                return timestamp;
+            default:
+                throw new IOException(String.format(INVALID_FORMAT, tag));
+        }
+    }
+
+    /**
+     * Los textos null se guardan con longitud 0 y los demas con su longitud en bytes mas uno.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, bytes.length + 1L);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeSignedVarLong(OutputStream out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static long readSignedVarLong(InputStream in) throws IOException {
+        long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Siete bits por byte, el bit mas alto indica si siguen mas bytes.
+     */
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException(String.format(INVALID_FORMAT, "varint"));
+    }
+
+    private static int readVarInt(InputStream in) throws IOException {
+        long value = readVarLong(in);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException(String.format(INVALID_FORMAT, value));
+        }
+        return (int) value;
+    }
+}
@@ -0,0 +1,50 @@
+package com.popoyo.text.parser;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Limpieza de los archivos temporales que dejan las escrituras interrumpidas en los directorios de {@link ResultCache}
+ * y {@link PageTextCache}. Un directorio puede compartirse entre instancias y procesos, por
+ * lo que solo se eliminan los temporales con el nombre que genera la clase, su clave seguida de
+ * {@link Files#createTempFile}, y que no se modificaron en {@link #STALE_MILLIS}; uno mas reciente puede ser una
+ * escritura en curso.
+ *
+ * @author aalaniz
+ */
+final class TemporaryFiles {
+
+    static final long STALE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final String NAME = "[0-9a-f]{64}[0-9]+";
+
+    private TemporaryFiles() {
+    }
+
+    static void deleteStale(Path directory, String temporaryExtension) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + temporaryExtension)) {
+            for (Path file : stream) {
+                deleteIfStale(file, temporaryExtension);
+            }
+        }
+    }
+
+    static void deleteIfStale(Path file, String temporaryExtension) throws IOException {
+        String name = file.getFileName().toString();
+        if (!Pattern.matches(NAME + Pattern.quote(temporaryExtension), name)) {
+            return;
+        }
+        try {
+            if (Files.getLastModifiedTime(file).toMillis() < System.currentTimeMillis() - STALE_MILLIS) {
+                Files.deleteIfExists(file);
+            }
+        } catch (NoSuchFileException e) {
+            // La escritura termino y el temporal ya fue movido
+        }
+    }
+}
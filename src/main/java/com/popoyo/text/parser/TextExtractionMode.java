@@ -0,0 +1,21 @@
+package com.popoyo.text.parser;
+
+/**
+ * Define cuanto trabajo de maquetacion hace PDFBox al obtener el texto de una pagina.
+ *
+ * @author aalaniz
+ */
+public enum TextExtractionMode {
+
+    /**
+     * Configuracion por defecto de {@link org.apache.pdfbox.text.PDFTextStripper}.
+     */
+    STANDARD,
+
+    /**
+     * No ordena el texto por posicion, no separa el texto por articulos (beads) y no elimina el texto duplicado que se
+     * superpone. Solo debe usarse con plantillas simples cuyo texto se escribe en orden de lectura y sin texto
+     * superpuesto, de lo contrario las lineas pueden diferir de las del modo {@link #STANDARD}.
+     */
+    FAST
+}
@@ -1,13 +1,20 @@
 package com.popoyo.text.parser;
 
 import com.popoyo.text.converter.ConversionConfiguration;
-import com.popoyo.text.converter.ConversionException;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -17,70 +24,547 @@ import java.util.logging.Logger;
 public class TextParser {
     private static final Logger LOGGER = Logger.getLogger(TextParser.class.getName());
 
-    private static final String FILE_NOT_FOUND = "El archivo [%s] no existe";
     private static final String NO_ACCESS_PERMISSION = "No tiene permisos para extraer texto del pdf [%s]";
     private static final String PDF_IS_ENCRYPTED = "El archivo pdf [%s] esta encriptado";
+    private static final String INVALID_WORKERS = "[workers] debe ser mayor o igual a 1";
+    private static final String PDF_LOADED = "Pdf [%s] cargado, %d paginas en %d ms";
+    private static final String PARSING_INTERRUPTED = "La extraccion de texto del pdf [%s] fue interrumpida";
 
-    private final File file;
-    private final List<Concept> concepts;
-    private final ConversionConfiguration configuration;
+    private final PdfSource source;
+    private final ExecutionPlan plan;
+    private final PdfLoadStrategy loadStrategy;
+    private TextExtractionMode extractionMode = TextExtractionMode.STANDARD;
+    private ResultCache resultCache;
+    private PageTextCache pageTextCache;
+    private ParsingMetrics metrics = ParsingMetrics.NONE;
+    private ErrorLimit errorLimit = ErrorLimit.NONE;
+    private ParsingCheckpoints checkpoints;
 
     public TextParser(String path, List<Concept> concepts) {
         this(path, concepts, ConversionConfiguration.DEFAULT_CONFIGURATION);
     }
 
     public TextParser(String path, List<Concept> concepts, ConversionConfiguration configuration) {
-        this.file = new File(path);
-        this.concepts = concepts;
-        this.configuration = configuration;
+        this(PdfSource.of(path), concepts, configuration);
+    }
+
+    public TextParser(PdfSource source, List<Concept> concepts) {
+        this(source, concepts, ConversionConfiguration.DEFAULT_CONFIGURATION);
+    }
+
+    public TextParser(PdfSource source, List<Concept> concepts, ConversionConfiguration configuration) {
+        this(source, concepts, configuration, PdfLoadStrategy.DEFAULT);
+    }
+
+    public TextParser(PdfSource source, List<Concept> concepts, ConversionConfiguration configuration,
+                      PdfLoadStrategy loadStrategy) {
+        this(source, new ExecutionPlan(concepts, Objects.requireNonNull(configuration, "[configuration] es requerido")),
+                loadStrategy);
+    }
+
+    TextParser(PdfSource source, ExecutionPlan plan, PdfLoadStrategy loadStrategy) {
+        this.source = Objects.requireNonNull(source, "[source] es requerido");
+        this.plan = plan;
+        this.loadStrategy = Objects.requireNonNull(loadStrategy, "[loadStrategy] es requerido");
+    }
+
+    /**
+     * Por defecto se usa {@link TextExtractionMode#STANDARD}.
+     */
+    public TextParser withExtractionMode(TextExtractionMode extractionMode) {
+        this.extractionMode = Objects.requireNonNull(extractionMode, "[extractionMode] es requerido");
+        return this;
+    }
+
+    /**
+     * Con una cache, {@link #parsePdf()} y {@link #parsePdf(int)} devuelven el resultado guardado para el mismo
+     * documento, conceptos, configuracion y modo de extraccion sin cargar el pdf, y guardan los resultados nuevos.
+     * Con null no se usa cache, que es el valor por defecto.
+     */
+    public TextParser withResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+        return this;
+    }
+
+    /**
+     * Con una cache, el texto de las paginas se extrae del pdf una sola vez y se guarda, y los conceptos se evaluan
+     * sobre el texto guardado. El pdf solo se carga si no hay una entrada para el documento o si esta vencida. Con
+     * null no se usa cache, que es el valor por defecto.
+     */
+    public TextParser withPageTextCache(PageTextCache pageTextCache) {
+        this.pageTextCache = pageTextCache;
+        return this;
+    }
+
+    /**
+     * Por defecto se usa {@link ParsingMetrics#NONE}, que no mide ningun tiempo.
+     */
+    public TextParser withMetrics(ParsingMetrics metrics) {
+        this.metrics = Objects.requireNonNull(metrics, "[metrics] es requerido");
+        return this;
+    }
+
+    /**
+     * Conserva a lo sumo [maxErrorsPerConcept] {@link ConceptError} por concepto, los primeros en orden de pagina y
+     * linea; los demas solo se cuentan, ver {@link TextParsingListener#onErrorsOmitted(Concept, int)}. Si
+     * [keepContent] es false los errores no guardan el texto de la linea. Por defecto se conservan todos los errores
+     * con su texto.
+     */
+    public TextParser withErrorLimit(int maxErrorsPerConcept, boolean keepContent) {
+        return withErrorLimit(new ErrorLimit(maxErrorsPerConcept, keepContent));
+    }
+
+    TextParser withErrorLimit(ErrorLimit errorLimit) {
+        this.errorLimit = errorLimit;
+        return this;
+    }
+
+    /**
+     * Con checkpoints, {@link #parsePdf()} y {@link #parsePdf(int)} agregan al checkpoint los resultados producidos
+     * desde el anterior y el estado de la extraccion cada {@link ParsingCheckpoints#getInterval()} paginas. Una
+     * extraccion interrumpida del mismo documento, conceptos, configuracion, modo de extraccion y limite de errores
+     * continua desde el ultimo checkpoint y devuelve el mismo resultado; el checkpoint se elimina al terminar. Con mas
+     * de un worker el documento se divide en rangos de a lo sumo el intervalo y el checkpoint se guarda cuando un
+     * rango y todos los anteriores han terminado. Con null no se guardan checkpoints, que es el valor por defecto.
+     */
+    public TextParser withCheckpoints(ParsingCheckpoints checkpoints) {
+        this.checkpoints = checkpoints;
+        return this;
     }
 
     public TextParsingResult parsePdf() throws IOException {
-        if (!file.exists()) {
-            throw new IOException(String.format(FILE_NOT_FOUND, file.getPath()));
+        return parsePdfWithCache(1);
+    }
+
+    /**
+     * Igual que {@link #parsePdf()} pero guarda los valores de cada concepto en columnas primitivas, ver
+     * {@link ColumnarParsingResult}.
+     */
+    public ColumnarParsingResult parsePdfColumnar() throws IOException {
+        ColumnarParsingResult result = new ColumnarParsingResult(plan);
+        parsePdf(result);
+        return result;
+    }
+
+    public ColumnarParsingResult parsePdfColumnar(int workers) throws IOException {
+        ColumnarParsingResult result = new ColumnarParsingResult(plan);
+        parsePdf(workers, result);
+        return result;
+    }
+
+    /**
+     * Entrega cada resultado a [listener] tan pronto como se evalua la linea, sin acumularlos en memoria.
+     */
+    public void parsePdf(TextParsingListener listener) throws IOException {
+        parsePdf(1, listener, null);
+    }
+
+    /**
+     * Divide el documento en tantos rangos de paginas como [workers] y procesa cada rango en un hilo distinto, cada
+     * uno con su propio {@link PDDocument} y {@link LineTextStripper}. Los resultados se unen en orden de pagina y
+     * linea, por lo que el resultado es el mismo que el de {@link #parsePdf()}.
+     */
+    public TextParsingResult parsePdf(int workers) throws IOException {
+        if (workers < 1) {
+            throw new IllegalArgumentException(INVALID_WORKERS);
+        }
+        return parsePdfWithCache(workers);
+    }
+
+    private TextParsingResult parsePdfWithCache(int workers) throws IOException {
+        String key = resultCache == null ? null : resultCache.key(source, plan, extractionMode, errorLimit);
+        if (key != null) {
+            TextParsingResult cached = resultCache.get(key, plan);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        TextParsingResult result;
+        if (checkpoints != null) {
+            result = parseWithCheckpoints(workers);
+        } else {
+            result = new TextParsingResult();
+            parsePdf(workers, result, null);
+        }
+        if (key != null) {
+            resultCache.put(key, plan, result);
+        }
+        return result;
+    }
+
+    /**
+     * Version en paralelo de {@link #parsePdf(TextParsingListener)}. Los resultados de cada rango se entregan a
+     * [listener] en cuanto el rango y todos los anteriores han terminado.
+     */
+    public void parsePdf(int workers, TextParsingListener listener) throws IOException {
+        if (workers < 1) {
+            throw new IllegalArgumentException(INVALID_WORKERS);
+        }
+        parsePdf(workers, listener, null);
+    }
+
+    /**
+     * Retoma la extraccion desde el checkpoint del documento, si existe.
+     */
+    private TextParsingResult parseWithCheckpoints(int workers) throws IOException {
+        String key = checkpoints.key(source, plan, extractionMode, errorLimit);
+        ParsingCheckpoints.Checkpoint checkpoint = checkpoints.get(key, plan);
+        Checkpointing checkpointing = checkpoint == null
+                ? new Checkpointing(key, new TextParsingResult(), 1, new int[plan.size()], false)
+                : new Checkpointing(key, checkpoint.getResult(), checkpoint.getNextPage(), checkpoint.getErrorCounts(),
+                true);
+        parsePdf(workers, checkpointing, checkpointing);
+        checkpoints.remove(key);
+        return checkpointing.result;
+    }
+
+    private void parsePdf(int workers, TextParsingListener listener, Checkpointing checkpointing) throws IOException {
+        if (pageTextCache != null) {
+            parseCachedPages(workers, listener, checkpointing);
+            return;
+        }
+        if (workers == 1) {
+            try (PageLines pages = openPdf(source)) {
+                parsePages(pages, 1, pages.getNumberOfPages() - 1, listener, checkpointing);
+            }
+            return;
+        }
+        PdfSource rangeSource = source.reloadable(loadStrategy);
+        try {
+            parseInParallel(() -> openPdf(rangeSource), workers, listener, checkpointing);
+        } finally {
+            if (rangeSource != source) {
+                rangeSource.release();
+            }
+        }
+    }
+
+    /**
+     * Evalua los conceptos sobre la entrada de {@link PageTextCache} del documento, generandola si no existe. Con
+     * mas de un [worker] cada rango de paginas lee la misma entrada.
+     */
+    private void parseCachedPages(int workers, TextParsingListener listener, Checkpointing checkpointing)
+            throws IOException {
+        String key = pageTextCache.key(source, extractionMode);
+        PageTextCache.Entry entry = pageTextCache.get(key);
+        if (entry == null) {
+            try (PDDocument pdfDocument = loadPdf(source)) {
+                entry = pageTextCache.put(key, pdfDocument, extractionMode);
+            }
+        }
+        if (workers == 1) {
+            try (PageLines pages = entry.pages()) {
+                parsePages(pages, 1, pages.getNumberOfPages() - 1, listener, checkpointing);
+            }
+        } else {
+            parseInParallel(entry::pages, workers, listener, checkpointing);
+        }
+    }
+
+    private void parseInParallel(PageLinesSource pageSource, int workers, TextParsingListener listener,
+                                 Checkpointing checkpointing) throws IOException {
+        PageDemand pageDemand = plan.pageDemand();
+        int firstPage = pageDemand.firstPage();
+        if (checkpointing != null) {
+            firstPage = Math.max(firstPage, checkpointing.nextPage);
+        }
+        int lastPage;
+        try (PageLines pages = pageSource.open()) {
+            lastPage = Math.min(pages.getNumberOfPages() - 1, pageDemand.lastPage());
+            if (lastPage <= firstPage) {
+                parsePages(pages, firstPage, lastPage, listener, checkpointing);
+                return;
+            }
+        }
+        int pagesPerRange = (lastPage - firstPage + workers) / workers;
+        if (checkpointing != null) {
+            pagesPerRange = Math.min(pagesPerRange, checkpoints.getInterval());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        Map<Concept, int[]> errorCounts = new IdentityHashMap<>();
+        if (checkpointing != null) {
+            for (int i = 0; i < plan.size(); i++) {
+                errorCounts.putIfAbsent(plan.concept(i), new int[]{checkpointing.errorCounts[i]});
+            }
+        }
+        try {
+            List<Future<PageRangeResult>> futures = new ArrayList<>(workers);
+            for (int startPage = firstPage; startPage <= lastPage; startPage += pagesPerRange) {
+                int fromPage = startPage;
+                int toPage = Math.min(startPage + pagesPerRange - 1, lastPage);
+                futures.add(executor.submit(() -> parsePageRange(pageSource, fromPage, toPage)));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                PageRangeResult pageRangeResult = waitFor(futures.get(i));
+                pageRangeResult.replay(listener, errorCounts);
+                if (pageRangeResult.stopped) {
+                    // El [stopAtKeyword] se encontro en este rango, los rangos siguientes no aportan resultados
+                    for (int j = i + 1; j < futures.size(); j++) {
+                        futures.get(j).cancel(true);
+                    }
+                    break;
+                }
+                if (checkpointing != null && checkpointing.isDue(pageRangeResult.endPage)) {
+                    int[] counts = new int[plan.size()];
+                    for (int j = 0; j < counts.length; j++) {
+                        counts[j] = errorCounts.getOrDefault(plan.concept(j), new int[1])[0];
+                    }
+                    checkpointing.save(pageRangeResult.endPage, counts);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private PageRangeResult parsePageRange(PageLinesSource pageSource, int startPage, int endPage) throws IOException {
+        try (PageLines pages = pageSource.open()) {
+            PageRangeResult result = new PageRangeResult(endPage);
+            result.stopped = parsePages(pages, startPage, endPage, result, null);
+            return result;
+        }
+    }
+
+    /**
+     * Con [checkpointing] la extraccion empieza en la pagina del checkpoint con los errores ya contados, y guarda un
+     * checkpoint nuevo cada {@link ParsingCheckpoints#getInterval()} paginas. Al encontrar el [stopAtKeyword] la
+     * extraccion termina, por lo que un checkpoint nunca tiene un {@link StopAtConcept} activo.
+     */
+    private boolean parsePages(PageLines pages, int startPage, int endPage, TextParsingListener listener,
+                               Checkpointing checkpointing) throws IOException {
+        ConceptEvaluator evaluator = new ConceptEvaluator(plan, metrics, errorLimit);
+        if (checkpointing != null) {
+            startPage = Math.max(startPage, checkpointing.nextPage);
+            evaluator.restoreErrorCounts(checkpointing.errorCounts);
+        }
+        boolean timed = metrics != ParsingMetrics.NONE;
+        PageDemand pageDemand = plan.pageDemand();
+        int lastPage = Math.min(endPage, pageDemand.lastPage());
+
+        for (int page = startPage; page <= lastPage; page++) {
+            if (!pageDemand.isRequired(page)) {
+                continue;
+            }
+            int currentPage = page;
+            long start = timed ? System.nanoTime() : 0;
+            pages.processPage(page, (line, content) -> {
+                evaluator.evaluate(currentPage, line, content, listener);
+                return !evaluator.hasStopped();
+            });
+            if (timed) {
+                evaluator.completePage(page, System.nanoTime() - start);
+            }
+            listener.onPageComplete(page);
+            if (evaluator.hasStopped()) {
+                return true;
+            }
+            if (checkpointing != null && checkpointing.isDue(page)) {
+                checkpointing.save(page, evaluator.errorCounts());
+            }
         }
-        try (PDDocument pdfDocument = PDDocument.load(file)) {
+        return false;
+    }
+
+    private PageLines openPdf(PdfSource pdfSource) throws IOException {
+        PDDocument pdfDocument = loadPdf(pdfSource);
+        try {
+            return PageLines.of(pdfDocument, extractionMode);
+        } catch (IOException ioe) {
+            pdfDocument.close();
+            throw ioe;
+        }
+    }
+
+    private PDDocument loadPdf(PdfSource pdfSource) throws IOException {
+        long start = System.nanoTime();
+        PDDocument pdfDocument = pdfSource.load(loadStrategy);
+        long nanos = System.nanoTime() - start;
+        metrics.onDocumentLoaded(nanos);
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine(String.format(PDF_LOADED, pdfSource.getName(), pdfDocument.getNumberOfPages(), nanos / 1_000_000));
+        }
+        try {
             if (!pdfDocument.getCurrentAccessPermission().canExtractContent()) {
-                throw new IOException(String.format(NO_ACCESS_PERMISSION, file.getPath()));
+                throw new IOException(String.format(NO_ACCESS_PERMISSION, pdfSource.getName()));
             }
             if (pdfDocument.isEncrypted()) {
-                throw new IOException(String.format(PDF_IS_ENCRYPTED, file.getPath()));
-            }
-
-            PDFTextStripper stripper = new PDFTextStripper();
-            TextParsingResult result = new TextParsingResult();
-            StopAtConcept stopAtConcept = null;
-
-            for (int page = 1; page < pdfDocument.getNumberOfPages(); page++) {
-                stripper.setStartPage(page);
-                stripper.setEndPage(page);
-
-                String currentPageContent = stripper.getText(pdfDocument);
-                String[] lines = currentPageContent.split("\\n");
-
-                for (int j = 0; j < lines.length; j++) {
-                    int line = j + 1;
-                    String content = lines[j];
-
-                    for (Concept concept : concepts) {
-                        try {
-                            if (stopAtConcept == null) {
-                                stopAtConcept = concept.createStopAtConcept(page, line, content);
-                            }
-                            if (concept.isProcessable(page, line, stopAtConcept)) {
-                                Object value = concept.value(content, configuration);
-                                ConceptOutput conceptOutput = new ConceptOutput(page, line, concept, value);
-                                result.addConceptOutput(conceptOutput);
-                            }
-                        } catch (ConceptException | ConversionException | IllegalArgumentException | NullPointerException exc) {
-                            ConceptError conceptError = new ConceptError(page, line, concept, content, exc.getMessage());
-                            result.addConceptError(conceptError);
-                        }
+                throw new IOException(String.format(PDF_IS_ENCRYPTED, pdfSource.getName()));
+            }
+            return pdfDocument;
+        } catch (IOException ioe) {
+            pdfDocument.close();
+            throw ioe;
+        }
+    }
+
+    private PageRangeResult waitFor(Future<PageRangeResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(String.format(PARSING_INTERRUPTED, source.getName()));
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IOException(cause);
+            }
+        }
+    }
+
+    /**
+     * Abre las paginas del documento para un rango procesado en paralelo.
+     */
+    private interface PageLinesSource {
+
+        PageLines open() throws IOException;
+    }
+
+    /**
+     * Conserva, en el orden en que se produjeron, los resultados de un rango de paginas procesado en paralelo.
+     */
+    private final class PageRangeResult implements TextParsingListener {
+        private final List<Object> events = new ArrayList<>();
+        private final int endPage;
+        private boolean stopped;
+
+        PageRangeResult(int endPage) {
+            this.endPage = endPage;
+        }
+
+        @Override
+        public void onOutput(ConceptOutput output) {
+            events.add(output);
+        }
+
+        @Override
+        public void onError(ConceptError error) {
+            events.add(error);
+        }
+
+        @Override
+        public void onErrorsOmitted(Concept concept, int count) {
+            events.add(new OmittedErrors(concept, count));
+        }
+
+        @Override
+        public void onPageComplete(int page) {
+            events.add(page);
+        }
+
+        /**
+         * Cada rango aplica el limite de errores por su cuenta; [errorCounts] acumula los errores de los rangos
+         * anteriores, de modo que se conservan los mismos errores que al procesar el documento en un solo hilo.
+         */
+        void replay(TextParsingListener listener, Map<Concept, int[]> errorCounts) {
+            for (Object event : events) {
+                if (event instanceof ConceptOutput) {
+                    listener.onOutput((ConceptOutput) event);
+                } else if (event instanceof ConceptError) {
+                    ConceptError error = (ConceptError) event;
+                    int[] count = errorCounts.computeIfAbsent(error.getConcept(), key -> new int[1]);
+                    if (errorLimit.keeps(++count[0])) {
+                        listener.onError(error);
+                    } else {
+                        listener.onErrorsOmitted(error.getConcept(), 1);
                     }
+                } else if (event instanceof OmittedErrors) {
+                    OmittedErrors omitted = (OmittedErrors) event;
+                    errorCounts.computeIfAbsent(omitted.concept, key -> new int[1])[0] += omitted.count;
+                    listener.onErrorsOmitted(omitted.concept, omitted.count);
+                } else {
+                    listener.onPageComplete((Integer) event);
                 }
             }
+        }
+    }
 
-            return result;
+    /**
+     * Errores omitidos por el limite de errores de un rango, se entregan en el mismo lugar que al procesar el
+     * documento en un solo hilo.
+     */
+    private static final class OmittedErrors {
+        private final Concept concept;
+        private final int count;
+
+        OmittedErrors(Concept concept, int count) {
+            this.concept = concept;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Estado de una extraccion con checkpoints: el resultado acumulado, la pagina desde la que continua y la cantidad
+     * de errores de cada concepto al guardar el checkpoint. Recibe los resultados de la extraccion y guarda en cada
+     * checkpoint solo los producidos desde el anterior. Si un checkpoint no puede guardarse la extraccion continua sin
+     * checkpoints.
+     */
+    private final class Checkpointing implements TextParsingListener {
+        private final String key;
+        private final TextParsingResult result;
+        private final int nextPage;
+        private final int[] errorCounts;
+        private TextParsingResult pending = new TextParsingResult();
+        private int savedPage;
+        private boolean started;
+        private boolean disabled;
+
+        Checkpointing(String key, TextParsingResult result, int nextPage, int[] errorCounts, boolean started) {
+            this.key = key;
+            this.result = result;
+            this.nextPage = nextPage;
+            this.errorCounts = errorCounts;
+            this.savedPage = nextPage - 1;
+            this.started = started;
+        }
+
+        @Override
+        public void onOutput(ConceptOutput output) {
+            result.addConceptOutput(output);
+            if (!disabled) {
+                pending.addConceptOutput(output);
+            }
+        }
+
+        @Override
+        public void onError(ConceptError error) {
+            result.addConceptError(error);
+            if (!disabled) {
+                pending.addConceptError(error);
+            }
+        }
+
+        @Override
+        public void onErrorsOmitted(Concept concept, int count) {
+            result.onErrorsOmitted(concept, count);
+            if (!disabled) {
+                pending.onErrorsOmitted(concept, count);
+            }
+        }
+
+        boolean isDue(int page) {
+            return !disabled && page - savedPage >= checkpoints.getInterval();
+        }
+
+        /**
+         * [page] es la ultima pagina procesada.
+         */
+        void save(int page, int[] counts) {
+            if (checkpoints.append(key, plan, !started, page + 1, counts, pending)) {
+                started = true;
+                savedPage = page;
+                pending = new TextParsingResult();
+            } else {
+                disabled = true;
+                pending = new TextParsingResult();
+            }
         }
     }
 }
@@ -0,0 +1,24 @@
+package com.popoyo.text.parser;
+
+/**
+ * Recibe los resultados de {@link TextParser} a medida que se evalua cada linea, en orden de pagina y linea.
+ *
+ * @author aalaniz
+ */
+public interface TextParsingListener {
+
+    void onOutput(ConceptOutput output);
+
+    void onError(ConceptError error);
+
+    /**
+     * Recibe la cantidad de errores de [concept] que no se entregaron a {@link #onError(ConceptError)} por superar
+     * el limite de errores por concepto, ver {@link TextParser#withErrorLimit(int, boolean)}.
+     */
+    default void onErrorsOmitted(Concept concept, int count) {
+    }
+
+    default void onPageComplete(int page) {
+    }
+
+}
@@ -1,33 +1,245 @@
 package com.popoyo.text.parser;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
 
 /**
+ * Resultados de la extraccion en el orden en que se produjeron, guardados en un arreglo e indexados por la
+ * descripcion del concepto. Mientras los resultados se agreguen en orden de pagina, como lo hace {@link TextParser},
+ * las consultas por rango de paginas usan busqueda binaria; si se agregan fuera de orden se recorre el arreglo.
  *
  * @author aalaniz
  */
-public class TextParsingResult implements Iterable<ConceptOutput> {
-    private final List<ConceptOutput> outputs = new LinkedList<>();
-    private final List<ConceptError> errors = new LinkedList<>();
+public class TextParsingResult implements Iterable<ConceptOutput>, TextParsingListener {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int[] EMPTY = new int[0];
+
+    private ConceptOutput[] outputs = new ConceptOutput[INITIAL_CAPACITY];
+    private int size;
+    private boolean ordered = true;
+    private final Map<String, Positions> positionsByDescription = new HashMap<>();
+    private final List<ConceptError> errors = new ArrayList<>();
+    private final Map<String, int[]> omittedErrors = new HashMap<>();
+    private int omittedErrorCount;
 
     public void addConceptOutput(ConceptOutput output) {
-        outputs.add(output);
+        if (size == outputs.length) {
+            outputs = Arrays.copyOf(outputs, size + (size >> 1));
+        }
+        if (size > 0 && output.getPage() < outputs[size - 1].getPage()) {
+            ordered = false;
+        }
+        positionsByDescription.computeIfAbsent(output.getConcept().getDescription(), description -> new Positions())
+                .add(size);
+        outputs[size++] = output;
     }
 
     public void addConceptError(ConceptError error) {
         errors.add(error);
     }
 
+    /**
+     * Agrega [count] errores del concepto [description] que no se conservaron.
+     */
+    public void addOmittedErrors(String description, int count) {
+        omittedErrors.computeIfAbsent(description, key -> new int[1])[0] += count;
+        omittedErrorCount += count;
+    }
+
+    @Override
+    public void onOutput(ConceptOutput output) {
+        addConceptOutput(output);
+    }
+
+    @Override
+    public void onError(ConceptError error) {
+        addConceptError(error);
+    }
+
+    @Override
+    public void onErrorsOmitted(Concept concept, int count) {
+        addOmittedErrors(concept.getDescription(), count);
+    }
+
     public List<ConceptError> conceptErrors() {
         return Collections.unmodifiableList(errors);
     }
 
+    /**
+     * Cantidad de errores que no estan en {@link #conceptErrors()} por superar el limite de errores por concepto.
+     */
+    public int omittedErrors() {
+        return omittedErrorCount;
+    }
+
+    public int omittedErrors(String description) {
+        int[] count = omittedErrors.get(description);
+        return count == null ? 0 : count[0];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Primer resultado del concepto [description], o null si el concepto no produjo resultados.
+     */
+    public ConceptOutput firstOutput(String description) {
+        Positions positions = positionsByDescription.get(description);
+        return positions == null ? null : outputs[positions.get(0)];
+    }
+
+    /**
+     * Valor del primer resultado del concepto [description], util para los conceptos fijos que producen un solo
+     * valor. Devuelve null si el concepto no produjo resultados.
+     */
+    public Object value(String description) {
+        ConceptOutput output = firstOutput(description);
+        return output == null ? null : output.getValue();
+    }
+
+    /**
+     * Todos los resultados del concepto [description] en el orden en que se produjeron, sin copiarlos.
+     */
+    public List<ConceptOutput> outputs(String description) {
+        Positions positions = positionsByDescription.get(description);
+        return positions == null ? Collections.emptyList() : new OutputList(positions.values, 0, positions.size);
+    }
+
+    public List<ConceptOutput> outputs(Concept concept) {
+        return outputs(concept.getDescription());
+    }
+
+    /**
+     * Resultados del concepto [description] de las paginas [fromPage, toPage].
+     */
+    public List<ConceptOutput> outputs(String description, int fromPage, int toPage) {
+        Positions positions = positionsByDescription.get(description);
+        if (positions == null) {
+            return Collections.emptyList();
+        }
+        if (!ordered) {
+            return filter(positions.values, positions.size, fromPage, toPage);
+        }
+        int from = firstAtOrAfter(positions.values, positions.size, fromPage);
+        int to = firstAtOrAfter(positions.values, positions.size, toPage + 1);
+        return new OutputList(positions.values, from, Math.max(from, to));
+    }
+
+    /**
+     * Resultados de todos los conceptos de las paginas [fromPage, toPage].
+     */
+    public List<ConceptOutput> outputs(int fromPage, int toPage) {
+        if (!ordered) {
+            return filter(null, size, fromPage, toPage);
+        }
+        int from = firstAtOrAfter(null, size, fromPage);
+        int to = firstAtOrAfter(null, size, toPage + 1);
+        return Collections.unmodifiableList(Arrays.asList(outputs).subList(from, Math.max(from, to)));
+    }
+
+    /**
+     * Busqueda binaria de la primera posicion cuya pagina es mayor o igual a [page]. Si [positions] es null se busca
+     * sobre todos los resultados.
+     */
+    private int firstAtOrAfter(int[] positions, int length, int page) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int position = positions == null ? middle : positions[middle];
+            if (outputs[position].getPage() < page) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private List<ConceptOutput> filter(int[] positions, int length, int fromPage, int toPage) {
+        List<ConceptOutput> filtered = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            ConceptOutput output = outputs[positions == null ? i : positions[i]];
+            if (output.getPage() >= fromPage && output.getPage() <= toPage) {
+                filtered.add(output);
+            }
+        }
+        return Collections.unmodifiableList(filtered);
+    }
+
     @Override
     public Iterator<ConceptOutput> iterator() {
-        return outputs.iterator();
+        return new Iterator<ConceptOutput>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public ConceptOutput next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return outputs[next++];
+            }
+        };
     }
 
+    /**
+     * Posiciones de los resultados de un concepto dentro del arreglo de resultados.
+     */
+    private static final class Positions {
+        private int[] values = EMPTY;
+        private int size;
+
+        void add(int position) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(4, size + (size >> 1)));
+            }
+            values[size++] = position;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+    }
+
+    /**
+     * Vista de solo lectura de los resultados en [positions] entre [from] y [to].
+     */
+    private final class OutputList extends AbstractList<ConceptOutput> implements RandomAccess {
+        private final int[] positions;
+        private final int from;
+        private final int to;
+
+        OutputList(int[] positions, int from, int to) {
+            this.positions = positions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public ConceptOutput get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+            return outputs[positions[from + index]];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
 }
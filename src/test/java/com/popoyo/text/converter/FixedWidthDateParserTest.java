@@ -0,0 +1,154 @@
+package com.popoyo.text.converter;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Las fechas leidas por {@link FixedWidthDateParser}, o por el formateador cuando el valor requiere sus reglas de
+ * resolucion, deben ser las mismas que las de {@link DateTimeFormatter}: con la resolucion SMART de
+ * {@link DateTimeFormatter#ofPattern(String)} y con la resolucion STRICT de los formatos ISO que se usan cuando no se
+ * indica un formato.
+ *
+ * @author aalaniz
+ */
+public class FixedWidthDateParserTest {
+
+    private static final String[] DATE_PATTERNS = {"uuuu-MM-dd", "yyyy-MM-dd", "dd/MM/uuuu", "dd/MM/yyyy", null};
+    private static final String[] DATE_TIME_PATTERNS = {"uuuu-MM-dd'T'HH:mm:ss", "yyyy-MM-dd'T'HH:mm:ss", null};
+    private static final int[] YEARS = {0, 1, 1900, 1999, 2000, 2019, 2020, 2100, 9999};
+    private static final int[] MONTHS = {0, 1, 2, 4, 12, 13};
+    private static final int[] DAYS = {0, 1, 28, 29, 30, 31, 32};
+
+    @Test
+    public void leapDaysAreReadOnlyInLeapYears() throws Exception {
+        assertEquals(LocalDate.of(2000, 2, 29), FixedWidthDateParser.forPattern("dd/MM/yyyy")
+                .parseDate("29/02/2000", 0, 10));
+        assertNull(FixedWidthDateParser.forPattern("dd/MM/yyyy").parseDate("29/02/1900", 0, 10));
+        // El formateador ajusta el dia al ultimo dia valido del mes
+        assertEquals(LocalDate.of(1900, 2, 28), rule("dd/MM/yyyy").parseDate("29/02/1900", 0, 10));
+        assertEquals(LocalDate.of(2000, 2, 29), rule("dd/MM/yyyy").parseDate("29/02/2000", 0, 10));
+    }
+
+    @Test
+    public void invalidDaysAreResolvedByTheFormatter() throws Exception {
+        for (String value : new String[]{"31/04/2019", "30/02/2019", "30/02/2020", "31/06/2019"}) {
+            assertNull(value, FixedWidthDateParser.forPattern("dd/MM/uuuu").parseDate(value, 0, 10));
+        }
+        assertEquals(LocalDate.of(2019, 4, 30), rule("dd/MM/uuuu").parseDate("31/04/2019", 0, 10));
+        assertEquals(LocalDate.of(2019, 2, 28), rule("dd/MM/uuuu").parseDate("30/02/2019", 0, 10));
+        assertEquals(LocalDate.of(2020, 2, 29), rule("uuuu-MM-dd").parseDate("2020-02-30", 0, 10));
+        assertRejected(rule("dd/MM/uuuu"), "32/01/2019");
+    }
+
+    @Test
+    public void yearZeroDependsOnTheYearField() throws Exception {
+        assertNull(FixedWidthDateParser.forPattern("uuuu-MM-dd").parseDate("0000-01-01", 0, 10));
+        // uuuu es el anio proleptico, que incluye el anio 0; yyyy es el anio de la era, que empieza en 1
+        assertEquals(LocalDate.of(0, 1, 1), rule("uuuu-MM-dd").parseDate("0000-01-01", 0, 10));
+        assertEquals(LocalDate.of(0, 1, 1), rule(null).parseDate("0000-01-01", 0, 10));
+        assertRejected(rule(null), "0000-02-30");
+        assertRejected(rule("yyyy-MM-dd"), "0000-01-01");
+        assertRejected(rule("dd/MM/yyyy"), "01/01/0000");
+    }
+
+    @Test
+    public void datesAreTheSameAsTheFormatter() throws Exception {
+        for (String pattern : DATE_PATTERNS) {
+            ConversionConfigurationBuilder.DateConversionRule rule = rule(pattern);
+            DateTimeFormatter formatter = pattern == null ? DateTimeFormatter.ISO_DATE
+                    : DateTimeFormatter.ofPattern(pattern);
+            for (String value : dates(pattern)) {
+                String line = "<" + value + ">";
+                LocalDate expected;
+                try {
+                    expected = LocalDate.parse(value, formatter);
+                } catch (DateTimeParseException e) {
+                    expected = null;
+                }
+                assertEquals(pattern + " / " + value, expected, rule.tryParseDate(line, 1, line.length() - 1));
+            }
+        }
+    }
+
+    @Test
+    public void dateTimesAreTheSameAsTheFormatter() throws Exception {
+        List<String> values = new ArrayList<>();
+        for (String date : dates("uuuu-MM-dd")) {
+            for (String time : new String[]{"00:00:00", "13:45:30", "23:59:59", "24:00:00", "12:60:00", "12:00:60",
+                    "1:00:00", "13:45", "13:45:30.5", "13:45:30Z", "13:45:30-03:00"}) {
+                values.add(date + "T" + time);
+            }
+            values.add(date + " 13:45:30");
+        }
+        for (String pattern : DATE_TIME_PATTERNS) {
+            ConversionConfigurationBuilder.DateConversionRuleBuilder builder = new ConversionConfigurationBuilder()
+                    .whenIsDate();
+            if (pattern != null) {
+                builder.dateTimeFormat(pattern);
+            }
+            ConversionConfigurationBuilder.DateConversionRule rule = builder.and().build().getDateConversionRule();
+            DateTimeFormatter formatter = pattern == null ? DateTimeFormatter.ISO_DATE_TIME
+                    : DateTimeFormatter.ofPattern(pattern);
+            for (String value : values) {
+                LocalDateTime expected;
+                try {
+                    expected = LocalDateTime.parse(value, formatter);
+                } catch (DateTimeParseException e) {
+                    expected = null;
+                }
+                assertEquals(pattern + " / " + value, expected, rule.tryParseDateTime(value, 0, value.length()));
+            }
+        }
+        assertEquals(LocalDateTime.of(2019, 10, 21, 13, 45, 30), FixedWidthDateParser.isoDateTime()
+                .parseDateTime("2019-10-21T13:45:30", 0, 19));
+    }
+
+    private static ConversionConfigurationBuilder.DateConversionRule rule(String pattern) {
+        ConversionConfigurationBuilder.DateConversionRuleBuilder builder = new ConversionConfigurationBuilder()
+                .whenIsDate();
+        if (pattern != null) {
+            builder.dateFormat(pattern);
+        }
+        return builder.and().build().getDateConversionRule();
+    }
+
+    private static void assertRejected(ConversionConfigurationBuilder.DateConversionRule rule, String value) {
+        try {
+            rule.parseDate(value, 0, value.length());
+            fail(value);
+        } catch (ConversionException e) {
+            // El formateador tampoco acepta el valor
+        }
+    }
+
+    /**
+     * Todas las combinaciones de anio, mes y dia con la forma de [pattern], y algunos valores mal formados.
+     */
+    private static List<String> dates(String pattern) {
+        boolean dayFirst = pattern != null && pattern.startsWith("dd");
+        List<String> dates = new ArrayList<>();
+        for (int year : YEARS) {
+            for (int month : MONTHS) {
+                for (int day : DAYS) {
+                    dates.add(dayFirst ? String.format("%02d/%02d/%04d", day, month, year)
+                            : String.format("%04d-%02d-%02d", year, month, day));
+                }
+            }
+        }
+        for (String value : new String[]{"2019-1-021", "2019/10/21", "21-10-2019", "2019-10-2a", "+2019-10-21",
+                "2019-10-21 ", "\uff11\uff19/10/2019", "19/10/\uff12\uff10\uff11\uff19", ""}) {
+            dates.add(value);
+        }
+        return dates;
+    }
+}
@@ -0,0 +1,215 @@
+package com.popoyo.text.converter;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Compara los convertidores numericos de {@link StringInputConverter} con la conversion original: quitar el separador
+ * de miles, mover el signo menos final y convertir con valueOf o el constructor del tipo, redondeando con
+ * {@link RoundingMode#HALF_UP} solo cuando la regla tiene [round].
+ *
+ * @author aalaniz
+ */
+public class NumericConversionTest {
+
+    private static final List<Class<? extends Number>> TYPES = Arrays.asList(Byte.class, Short.class, Integer.class,
+            Long.class, BigInteger.class, Float.class, Double.class, BigDecimal.class);
+    private static final int[] ROUNDS = {-1, 0, 2};
+
+    @Test
+    public void longFractionsAreNotTruncatedWithoutRound() throws ConversionException {
+        ConversionConfiguration configuration = configuration(false, -1);
+        ValueConverter<BigDecimal> converter = StringInputConverter.INSTANCE.converterFor(BigDecimal.class, configuration);
+
+        assertEquals(new BigDecimal("1.234E-33"), converter.convert("0.000000000000000000000000000000001234"));
+        assertEquals(new BigDecimal("1.2345678901234567890123456789012345"),
+                converter.convert("1.2345678901234567890123456789012345"));
+    }
+
+    @Test
+    public void roundIsAppliedHalfUp() throws ConversionException {
+        assertEquals(new BigDecimal("12346"), convert(BigDecimal.class, "12,345.5", false, 0));
+        assertEquals(new BigDecimal("12345.68"), convert(BigDecimal.class, "12,345.675", false, 2));
+        assertEquals(new BigDecimal("1.00"), convert(BigDecimal.class, "0.995", false, 2));
+        assertEquals(new BigDecimal("3.10"), convert(BigDecimal.class, "3.1", false, 2));
+        assertEquals(new BigDecimal("0.00"), convert(BigDecimal.class, "0.000000000000000000000000000000001234", false, 2));
+        assertEquals(Double.valueOf(2.68), convert(Double.class, "2.675", false, 2));
+        assertEquals(Double.valueOf(0.0), convert(Double.class, "-0.001", false, 2));
+        assertEquals(Double.valueOf(-0.0), convert(Double.class, "-0.0", false, -1));
+    }
+
+    @Test
+    public void trailingMinusAndGroupingSeparators() throws ConversionException {
+        assertEquals(Integer.valueOf(-1234567), convert(Integer.class, "1,234,567-", true, -1));
+        assertEquals(new BigDecimal("-1234.50"), convert(BigDecimal.class, "1,234.50-", true, 2));
+        assertEquals(Long.valueOf(1234), convert(Long.class, ",1,2,3,4,", false, -1));
+        assertFails(Integer.class, "1,234-", false, -1);
+        assertFails(Integer.class, "-1,234-", true, -1);
+        assertFails(Integer.class, "12-34", true, -1);
+    }
+
+    @Test
+    public void valuesBeyondMaxUnscaledFallBackToExactConversion() throws ConversionException {
+        assertEquals(Long.valueOf(99_999_999_999_999_999L), convert(Long.class, "99999999999999999", false, -1));
+        assertEquals(Long.valueOf(100_000_000_000_000_000L), convert(Long.class, "100000000000000000", false, -1));
+        assertEquals(Long.valueOf(Long.MIN_VALUE), convert(Long.class, "-9223372036854775808", false, -1));
+        assertFails(Long.class, "9223372036854775808", false, -1);
+        assertEquals(new BigInteger("123456789012345678901234567890"),
+                convert(BigInteger.class, "123456789012345678901234567890", false, -1));
+        assertEquals(new BigDecimal("100000000000000000"), convert(BigDecimal.class, "99999999999999999.5", false, 0));
+        assertEquals(new BigDecimal("99999999999999999.99"), convert(BigDecimal.class, "99999999999999999.99", false, 2));
+        assertFails(Byte.class, "128", false, -1);
+        assertEquals(Byte.valueOf((byte) -128), convert(Byte.class, "-128", false, -1));
+    }
+
+    @Test
+    public void matchesOriginalConversion() throws ConversionException {
+        Random random = new Random(13);
+        for (int i = 0; i < 20_000; i++) {
+            String value = randomNumber(random);
+            if (value.isEmpty()) {
+                // Los valores vacios se resuelven con la regla de valores vacios
+                continue;
+            }
+            for (boolean minusSignAtEnd : new boolean[]{false, true}) {
+                for (int round : ROUNDS) {
+                    ConversionConfiguration configuration = configuration(minusSignAtEnd, round);
+                    for (Class<? extends Number> type : TYPES) {
+                        check(type, value, configuration, minusSignAtEnd, round);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void check(Class<? extends Number> type, String value, ConversionConfiguration configuration,
+                              boolean minusSignAtEnd, int round) throws ConversionException {
+        String message = type.getSimpleName() + " [" + value + "] minusSignAtEnd=" + minusSignAtEnd + " round=" + round;
+        ValueConverter<? extends Number> converter = StringInputConverter.INSTANCE.converterFor(type, configuration);
+        Object expected;
+        try {
+            expected = expected(type, clean(value, minusSignAtEnd), round);
+        } catch (NumberFormatException e) {
+            expected = null;
+        }
+        String content = "<<" + value + ">>";
+        if (expected == null) {
+            assertSame(message, ValueConverter.INVALID, converter.tryConvert(value));
+            assertSame(message, ValueConverter.INVALID, converter.tryConvert(content, 2, content.length() - 2));
+            try {
+                converter.convert(value);
+                fail(message);
+            } catch (ConversionException | IllegalArgumentException e) {
+                // Igual que la conversion original
+            }
+        } else {
+            assertEquals(message, expected, converter.convert(value));
+            assertEquals(message, expected, converter.convert(content, 2, content.length() - 2));
+            assertEquals(message, expected, converter.tryConvert(content, 2, content.length() - 2));
+        }
+    }
+
+    private static Object expected(Class<?> type, String cleanValue, int round) {
+        if (type == Byte.class) {
+            return Byte.valueOf(cleanValue);
+        } else if (type == Short.class) {
+            return Short.valueOf(cleanValue);
+        } else if (type == Integer.class) {
+            return Integer.valueOf(cleanValue);
+        } else if (type == Long.class) {
+            return Long.valueOf(cleanValue);
+        } else if (type == BigInteger.class) {
+            return new BigInteger(cleanValue);
+        } else if (type == Float.class) {
+            Float value = Float.valueOf(cleanValue);
+            return round < 0 ? value : new BigDecimal(cleanValue).setScale(round, RoundingMode.HALF_UP).floatValue();
+        } else if (type == Double.class) {
+            Double value = Double.valueOf(cleanValue);
+            return round < 0 ? value : new BigDecimal(cleanValue).setScale(round, RoundingMode.HALF_UP).doubleValue();
+        } else {
+            BigDecimal value = new BigDecimal(cleanValue);
+            // Los valores con exponente positivo no se completan con ceros
+            return round < 0 || value.scale() < 0 ? value : value.setScale(round, RoundingMode.HALF_UP);
+        }
+    }
+
+    private static String clean(String value, boolean minusSignAtEnd) {
+        String cleanValue = value.replace(",", "");
+        if (minusSignAtEnd && cleanValue.endsWith("-")) {
+            cleanValue = "-" + cleanValue.substring(0, cleanValue.length() - 1);
+        }
+        return cleanValue;
+    }
+
+    /**
+     * Digitos con separadores, punto decimal y signos en posiciones validas e invalidas.
+     */
+    private static String randomNumber(Random random) {
+        StringBuilder value = new StringBuilder();
+        int sign = random.nextInt(8);
+        if (sign == 0) {
+            value.append('-');
+        } else if (sign == 1) {
+            value.append('+');
+        }
+        int digits = random.nextInt(5) == 0 ? random.nextInt(40) : random.nextInt(20);
+        int point = random.nextInt(3) == 0 ? -1 : random.nextInt(digits + 1);
+        for (int i = 0; i < digits; i++) {
+            if (i == point) {
+                value.append('.');
+            }
+            value.append(random.nextInt(4) == 0 ? '9' : (char) ('0' + random.nextInt(10)));
+            if (random.nextInt(6) == 0) {
+                value.append(',');
+            }
+        }
+        if (point == digits) {
+            value.append('.');
+        }
+        int suffix = random.nextInt(10);
+        if (suffix == 0) {
+            value.append('-');
+        } else if (suffix == 1) {
+            value.append(random.nextBoolean() ? "e3" : "x");
+        }
+        return value.toString();
+    }
+
+    private static <T> T convert(Class<T> type, String value, boolean minusSignAtEnd, int round)
+            throws ConversionException {
+        return StringInputConverter.INSTANCE.converterFor(type, configuration(minusSignAtEnd, round)).convert(value);
+    }
+
+    private static void assertFails(Class<?> type, String value, boolean minusSignAtEnd, int round)
+            throws ConversionException {
+        ValueConverter<?> converter = StringInputConverter.INSTANCE.converterFor(type, configuration(minusSignAtEnd, round));
+        assertSame(ValueConverter.INVALID, converter.tryConvert(value));
+        try {
+            converter.convert(value);
+            fail(value);
+        } catch (ConversionException | IllegalArgumentException e) {
+            // Valor invalido
+        }
+    }
+
+    private static ConversionConfiguration configuration(boolean minusSignAtEnd, int round) {
+        ConversionConfigurationBuilder.NumberConversionRuleBuilder number = new ConversionConfigurationBuilder()
+                .whenIsNumber()
+                .millisSeparator(',')
+                .minusSignAtEnd(minusSignAtEnd);
+        if (round >= 0) {
+            number.round(round);
+        }
+        return number.and().build();
+    }
+}
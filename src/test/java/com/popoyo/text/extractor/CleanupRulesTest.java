@@ -0,0 +1,87 @@
+package com.popoyo.text.extractor;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * {@link CleanupRules#apply(CharSequence, int, int)} debe dar el mismo resultado que aplicar
+ * {@link String#replaceAll(String, String)} regla por regla sobre el rango del valor.
+ *
+ * @author aalaniz
+ */
+public class CleanupRulesTest {
+
+    private static final String[] LITERALS = {",", "\\$", ".", "\\.", "-", "ITEM", "0", "00", "ab", "a", " ", "\\(",
+            "\\)", "USD ", "\\\\", "}", "a-b", ""};
+    private static final String[] REGEXES = {"\\s+", "^0+", "0+$", "[.,]", "(?<=a)b", "\\d{2}", "x*", "b?", "^",
+            "\\bab\\b", "(ab)+", "[^0-9]", "I(TE)?M", "\\$|USD"};
+    private static final String ALPHABET = "ab0129 ,.$-()\\ITEMUSDx";
+
+    @Test
+    public void literalRulesAreTheSameAsReplaceAll() {
+        assertSameAsReplaceAll(new String[]{",", "\\$"}, "$1,234.50");
+        assertSameAsReplaceAll(new String[]{"ITEM", "0"}, "ITEM00042");
+        assertSameAsReplaceAll(new String[]{"00", "0"}, "1000000");
+        assertSameAsReplaceAll(new String[]{"ab", "a", "b"}, "aabbab");
+        assertSameAsReplaceAll(new String[]{""}, "abc");
+    }
+
+    @Test
+    public void mixedRulesAreTheSameAsReplaceAll() {
+        assertSameAsReplaceAll(new String[]{"USD ", "\\s+", ",", "^0+"}, "USD 0 001,234");
+        assertSameAsReplaceAll(new String[]{"a", "(?<=a)b", "b"}, "abab");
+        assertSameAsReplaceAll(new String[]{"-", "[.,]", "x*", "\\."}, "1.2-3,x4");
+    }
+
+    @Test
+    public void randomRulesAreTheSameAsReplaceAll() {
+        Random random = new Random(20191021);
+        for (int i = 0; i < 1000; i++) {
+            String[] cleanup = new String[1 + random.nextInt(5)];
+            for (int r = 0; r < cleanup.length; r++) {
+                String[] rules = random.nextInt(3) == 0 ? REGEXES : LITERALS;
+                cleanup[r] = rules[random.nextInt(rules.length)];
+            }
+            StringBuilder content = new StringBuilder();
+            int length = random.nextInt(16);
+            for (int c = 0; c < length; c++) {
+                content.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            assertSameAsReplaceAll(cleanup, content.toString());
+        }
+    }
+
+    @Test
+    public void rulesWithoutTextToRemoveAreNotCompiled() {
+        assertNull(CleanupRules.compile(null));
+        assertNull(CleanupRules.compile(new String[0]));
+        assertNull(CleanupRules.compile(new String[]{"", ""}));
+    }
+
+    /**
+     * Compara con el valor completo y con todos los rangos del valor dentro de una linea mas larga.
+     */
+    private static void assertSameAsReplaceAll(String[] cleanup, String value) {
+        CleanupRules rules = CleanupRules.compile(cleanup);
+        for (String prefix : new String[]{"", "0 ab"}) {
+            for (String suffix : new String[]{"", "ab 0"}) {
+                String line = prefix + value + suffix;
+                for (int start = 0; start <= line.length(); start++) {
+                    for (int end = start; end <= line.length(); end++) {
+                        String expected = line.substring(start, end);
+                        for (String regex : cleanup) {
+                            expected = expected.replaceAll(regex, "");
+                        }
+                        String message = String.join(" | ", cleanup) + " / " + line + " [" + start + ", " + end + ")";
+                        assertEquals(message, expected, rules == null ? line.substring(start, end)
+                                : rules.apply(line, start, end));
+                    }
+                }
+            }
+        }
+    }
+}
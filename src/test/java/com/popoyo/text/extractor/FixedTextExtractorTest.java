@@ -0,0 +1,46 @@
+package com.popoyo.text.extractor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author aalaniz
+ */
+public class FixedTextExtractorTest {
+
+    @Test
+    public void extractsRangesInsideTheLine() {
+        assertEquals("def", new FixedTextExtractor<String>(3, 3).rawValue("abcdef"));
+        assertEquals("def", new FixedTextExtractor<String>(3, -1).rawValue("abcdef"));
+        assertEquals("", new FixedTextExtractor<String>(6, -1).rawValue("abcdef"));
+        assertEquals(TextSpan.of(0, 6), new FixedTextExtractor<String>(0, 6).span("abcdef"));
+    }
+
+    @Test
+    public void rangesOutsideTheLineAreInvalid() {
+        assertEquals(TextSpan.INVALID, new FixedTextExtractor<String>(3, 4).span("abcdef"));
+        assertEquals(TextSpan.INVALID, new FixedTextExtractor<String>(0, 10).span("abcdefghi"));
+        assertEquals(TextSpan.INVALID, new FixedTextExtractor<String>(7, -1).span("abcdef"));
+        assertEquals(TextSpan.INVALID, new FixedTextExtractor<String>(7, 1).span("abcdef"));
+        assertEquals(TextSpan.INVALID, new FixedTextExtractor<String>(0, 1).span(""));
+    }
+
+    @Test
+    public void rawValueRejectsRangesOutsideTheLine() {
+        assertRejected(new FixedTextExtractor<>(3, 4), "abcdef", "[4] es mayor que la cantidad de caracteres disponibles [3]");
+        assertRejected(new FixedTextExtractor<>(7, -1), "abcdef", "El rango [7, 6) esta fuera de la linea de longitud [6]");
+        assertRejected(new FixedTextExtractor<>(10, 3), "abcdef", "El rango [10, 13) esta fuera de la linea de longitud [6]");
+    }
+
+    private static void assertRejected(FixedTextExtractor<String> extractor, String content, String message) {
+        try {
+            extractor.rawValue(content);
+            fail(content);
+        } catch (IllegalArgumentException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.popoyo.text.extractor;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link RegexPrefilter#mayMatch(CharSequence)} solo puede descartar una linea en la que {@link Pattern} no encuentra
+ * ninguna coincidencia, y con una expresion literal debe dar exactamente el mismo resultado que la busqueda.
+ *
+ * @author aalaniz
+ */
+public class RegexPrefilterTest {
+
+    private static final String[] OPTIONAL = {"ab?c", "ab{0}c", "ab{0,1}c", "ab*c", "ITEM\\d*", "a?", "x{0}", "ab{2}c",
+            "ab{1}c", "ab{1,}c", "ab+?c", "ab++c", "a{0}b{0}c"};
+    private static final String[] GROUPS = {"(ab)c", "(ab)?c", "(a|b)c", "a(b|c)d", "a|b", "ab|cd", "(?:ab)+c",
+            "I(TE|T)M", "(a)\\1", "(?<name>ab)c\\k<name>", "a(b(c|d))?e", "(?i)abc", "(?i:ab)c"};
+    private static final String[] QUOTATIONS = {"\\Qa.b\\E", "\\Qa.b\\E?", "\\Q(ab)\\Ec", "x\\Q*\\E+y", "\\Qab",
+            "a\\Q\\Eb", "(\\Q)\\E)c"};
+    private static final String[] CLASSES = {"[abc]", "[a-c]+", "[^a]", "[-a]", "[a-]", "[\\]a]", "[.]", "[\\d]",
+            "[\\w]", "[a-c&&[b]]", "[0-9]{0}", "[0-9]{2}", "\\d", "\\d?a", "[\u00e9a]", "[0-9,]+\\.\\d\\d-?$"};
+    private static final String[] LOOKAROUNDS = {"(?=ab)a", "a(?=b)", "(?!a)b", "(?<=a)b", "(?<!a)b", "ab(?=c)",
+            "\\bab\\b", "^ab", "ab$", "\\Aab\\z"};
+    private static final String[] ESCAPES = {"a\\.b", "\\$1\\.00", "a\\tb", "\\x41B", "\\u0041B", "\\0101B", "\\cAB",
+            "\\p{L}b", "\\P{L}b", "\\pLb", "\\sa", "\\Sa", "\\wa", "\\Da", "a\\Rb", "\\Xa", "\\\\a"};
+    private static final String[] LITERALS = {"ITEM", "TOTAL GENERAL", "a\\.b", "\\Qa+b\\E", "ab\\-c", "a}b",
+            "a]b", "a\\\\b"};
+
+    private static final char[] ALPHABET = "abcdeITEMOTALGNR019 .,-$()[]{}+*?\\|\t".toCharArray();
+    private static final int LINES = 2000;
+
+    @Test
+    public void optionalQuantifiers() {
+        assertMayMatchIsSound(OPTIONAL);
+        assertRejects("ab?c", "cbd");
+        assertRejects("ab{2}c", "xbbc");
+        assertRejects("ITEM\\d*", "ITE");
+    }
+
+    @Test
+    public void groupsAndAlternatives() {
+        assertMayMatchIsSound(GROUPS);
+        assertRejects("(ab)?c", "abd");
+        assertRejects("(?:ab)+c", "abd");
+        // Con alternativas de primer nivel o flags en linea no se descarta ninguna linea
+        assertTrue(RegexPrefilter.of("a|b").mayMatch(""));
+        assertTrue(RegexPrefilter.of("(?i)abc").mayMatch(""));
+    }
+
+    @Test
+    public void quotations() {
+        assertMayMatchIsSound(QUOTATIONS);
+        assertRejects("\\Qa.b\\E", "axb");
+        assertRejects("x\\Q*\\E+y", "xy");
+    }
+
+    @Test
+    public void characterClasses() {
+        assertMayMatchIsSound(CLASSES);
+        assertRejects("[abc]", "xyz");
+        assertRejects("\\d?a", "bcd");
+        assertRejects("[0-9,]+\\.\\d\\d-?$", "TOTAL GENERAL");
+    }
+
+    @Test
+    public void lookarounds() {
+        assertMayMatchIsSound(LOOKAROUNDS);
+        assertRejects("(?<=a)b", "ccc");
+        assertRejects("\\bab\\b", "acb");
+    }
+
+    @Test
+    public void escapes() {
+        assertMayMatchIsSound(ESCAPES);
+        assertRejects("a\\.b", "axb");
+        assertRejects("\\$1\\.00", "$1,00");
+        assertRejects("a\\tb", "a b");
+    }
+
+    @Test
+    public void literalsAreFoundWithIndexOf() {
+        assertMayMatchIsSound(LITERALS);
+        for (String regex : LITERALS) {
+            RegexPrefilter prefilter = RegexPrefilter.of(regex);
+            Pattern pattern = Pattern.compile(regex);
+            for (String line : lines(regex, new Random(regex.hashCode()))) {
+                assertEquals(regex + " / " + line, pattern.matcher(line).find(), prefilter.mayMatch(line));
+                assertEquals(regex + " / " + line, pattern.matcher(line).find(),
+                        line.contains(prefilter.literal()));
+            }
+            assertTrue(regex, prefilter.mayMatch("x" + prefilter.literal() + "y"));
+            assertTrue(regex, pattern.matcher("x" + prefilter.literal() + "y").find());
+        }
+        assertEquals("a.b", RegexPrefilter.of("a\\.b").literal());
+        assertEquals("a+b", RegexPrefilter.of("\\Qa+b\\E").literal());
+        for (String regex : Arrays.asList("a.b", "^ab", "ab?", "ab+", "(ab)", "[a]", "a\\d")) {
+            assertNull(regex, RegexPrefilter.of(regex).literal());
+        }
+    }
+
+    /**
+     * Compara con {@link Pattern} en lineas al azar que contienen partes de la expresion.
+     */
+    private static void assertMayMatchIsSound(String[] regexes) {
+        for (String regex : regexes) {
+            Pattern pattern = Pattern.compile(regex);
+            RegexPrefilter prefilter = RegexPrefilter.of(regex);
+            for (String line : lines(regex, new Random(regex.hashCode()))) {
+                if (pattern.matcher(line).find()) {
+                    assertTrue(regex + " / " + line, prefilter.mayMatch(line));
+                }
+            }
+        }
+    }
+
+    private static void assertRejects(String regex, String line) {
+        assertFalse(Pattern.compile(regex).matcher(line).find());
+        assertFalse(regex + " / " + line, RegexPrefilter.of(regex).mayMatch(line));
+    }
+
+    private static List<String> lines(String regex, Random random) {
+        List<String> lines = new ArrayList<>(LINES);
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            line.setLength(0);
+            int length = random.nextInt(12);
+            while (line.length() < length) {
+                if (random.nextInt(4) == 0) {
+                    int start = random.nextInt(regex.length());
+                    line.append(regex, start, Math.min(regex.length(), start + 1 + random.nextInt(4)));
+                } else {
+                    line.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+                }
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,162 @@
+package com.popoyo.text.parser;
+
+import com.popoyo.text.converter.ConversionConfiguration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Cada documento del lote debe tener exactamente un {@link DocumentResult}, aunque falle, y la cantidad de documentos
+ * en proceso nunca debe superar [maxInFlight].
+ *
+ * @author aalaniz
+ */
+public class BatchTextParserTest {
+
+    private static final int DOCUMENTS = 8;
+    private static final int PAGES = 3;
+    // Como en TextParser, la ultima pagina de cada documento no se procesa
+    private static final int PARSED_PAGES = PAGES - 1;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private List<Concept> concepts;
+    private Path directory;
+    private List<String> expected;
+
+    @Before
+    public void setUp() throws Exception {
+        concepts = TestDocuments.concepts(folder.newFile("concepts.json").toPath());
+        directory = folder.newFolder("documents").toPath();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            TestDocuments.pdf(directory.resolve("document" + i + ".pdf"), PAGES, 0);
+        }
+        Files.write(directory.resolve("notes.txt"), "no es un pdf".getBytes(StandardCharsets.US_ASCII));
+        expected = TestDocuments.lines(new TextParser(directory.resolve("document0.pdf").toString(), concepts)
+                .parsePdf(), concepts);
+    }
+
+    @Test
+    public void failingDocumentsAreReportedWithTheRestOfTheBatch() throws Exception {
+        Files.write(directory.resolve("broken.pdf"), "%PDF-1.4 danado".getBytes(StandardCharsets.US_ASCII));
+        // La primera carga termina con un Error en lugar de una excepcion
+        AtomicBoolean failed = new AtomicBoolean();
+        ParsingMetrics metrics = new ParsingMetrics() {
+            @Override
+            public void onDocumentLoaded(long nanos) {
+                if (failed.compareAndSet(false, true)) {
+                    throw new OutOfMemoryError("test");
+                }
+            }
+        };
+        List<DocumentResult> results = Collections.synchronizedList(new ArrayList<>());
+
+        BatchStatistics statistics = new BatchTextParser(concepts, 3).withMetrics(metrics).parse(directory,
+                results::add);
+
+        assertEquals(DOCUMENTS + 1, results.size());
+        assertEquals(DOCUMENTS + 1, statistics.getDocuments());
+        assertEquals(2, statistics.getFailedDocuments());
+        assertEquals((DOCUMENTS - 1) * PARSED_PAGES, statistics.getPages());
+        int errors = 0;
+        for (DocumentResult result : results) {
+            if (result.isSuccessful()) {
+                assertEquals(PARSED_PAGES, result.getPages());
+                assertEquals(expected, TestDocuments.lines(result.getResult(), concepts));
+            } else {
+                assertNull(result.getResult());
+                assertEquals(0, result.getPages());
+                errors += result.getError() instanceof OutOfMemoryError ? 1 : 0;
+                assertTrue(result.getError() instanceof OutOfMemoryError || result.getError() instanceof IOException);
+            }
+        }
+        assertEquals(1, errors);
+    }
+
+    @Test
+    public void documentsInFlightAreLimited() throws Exception {
+        int workers = 2;
+        int maxInFlight = 3;
+        // Los documentos no terminan hasta que el lote pide un origen con [maxInFlight] documentos en proceso
+        CountDownLatch full = new CountDownLatch(1);
+        ParsingMetrics metrics = new ParsingMetrics() {
+            @Override
+            public void onDocumentLoaded(long nanos) {
+                try {
+                    assertTrue(full.await(1, TimeUnit.MINUTES));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        CountingSources sources = new CountingSources(full, maxInFlight);
+
+        BatchStatistics statistics = new BatchTextParser(concepts, ConversionConfiguration.DEFAULT_CONFIGURATION,
+                PdfLoadStrategy.DEFAULT, workers, maxInFlight).withMetrics(metrics).parse(sources, sources);
+
+        assertEquals(maxInFlight, sources.maxInFlight);
+        assertEquals(DOCUMENTS, sources.completed);
+        assertEquals(DOCUMENTS, statistics.getDocuments());
+        assertEquals(0, statistics.getFailedDocuments());
+        assertEquals(DOCUMENTS * PARSED_PAGES, statistics.getPages());
+        assertFalse(sources.hasNext());
+    }
+
+    /**
+     * Registra cuantos documentos entregados todavia no terminaron cada vez que el lote pide el siguiente.
+     */
+    private final class CountingSources implements Iterator<PdfSource>, BatchListener {
+        private final CountDownLatch full;
+        private final int limit;
+        private int next;
+        private int completed;
+        private int maxInFlight;
+
+        CountingSources(CountDownLatch full, int limit) {
+            this.full = full;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < DOCUMENTS;
+        }
+
+        @Override
+        public PdfSource next() {
+            synchronized (this) {
+                int inFlight = next - completed;
+                maxInFlight = Math.max(maxInFlight, inFlight);
+                if (inFlight == limit) {
+                    full.countDown();
+                }
+            }
+            return PdfSource.of(directory.resolve("document" + next++ + ".pdf").toFile());
+        }
+
+        @Override
+        public synchronized void onDocument(DocumentResult documentResult) {
+            assertTrue(documentResult.isSuccessful());
+            completed++;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.popoyo.text.parser;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Los valores de {@link TextParser#parsePdfColumnar()} y {@link TextParser#parsePdfColumnar(int)}, leidos de cada
+ * {@link ConceptColumn}, deben ser los mismos que los de {@link TextParser#parsePdf()}.
+ *
+ * @author aalaniz
+ */
+public class ColumnarParsingResultTest {
+
+    private static final String[] TYPES = {"B", "S", "I", "L", "F", "D", "M", "T"};
+    private static final String[] JAVA_TYPES = {"java.lang.Byte", "java.lang.Short", "java.lang.Integer",
+            "java.lang.Long", "java.lang.Float", "java.lang.Double", "java.math.BigDecimal", "java.lang.String"};
+    private static final String[][] VALUES = {
+            {"127", "-128", "0"},
+            {"32767", "-32768", "7"},
+            {"2147483647", "-2147483648", "0", "42"},
+            {"9223372036854775807", "-9223372036854775808", "1"},
+            {"0.1", "-3.5", "16777217"},
+            {"3.25", "-0.5", "1234567.891", "0"},
+            {"9223372036854775807", "-9223372036854775808", "9223372036854775808", "-9223372036854775809",
+                    "92233720368547758.075", "0.5", "123.4500", "-1.00", "0.333333333333333333333"},
+            {"ABC", "X-1"}};
+    private static final int PAGES = 4;
+    private static final int LINES_PER_PAGE = 30;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private List<Concept> concepts;
+    private String pdf;
+
+    @Before
+    public void setUp() throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < TYPES.length; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"description\": \"").append(TYPES[i])
+                    .append("\", \"javaType\": \"").append(JAVA_TYPES[i])
+                    .append("\", \"strategy\": \"PATTERN\", \"page\": 1, \"line\": 1, \"regex\": \"")
+                    .append(TYPES[i]).append(":\\\\S+\", \"cleanup\": [\"").append(TYPES[i])
+                    .append(":\"], \"detail\": true}");
+        }
+        Path file = folder.newFile("concepts.json").toPath();
+        Files.write(file, json.append("]").toString().getBytes(StandardCharsets.UTF_8));
+        concepts = ConceptReader.readFromFile(file);
+        pdf = pdf(folder.getRoot().toPath().resolve("columns.pdf")).toString();
+    }
+
+    @Test
+    public void columnsHaveTheSameValuesAsTheResult() throws Exception {
+        TextParsingResult expected = new TextParser(pdf, concepts).parsePdf();
+        ColumnarParsingResult columnar = new TextParser(pdf, concepts).parsePdfColumnar();
+
+        assertSameValues(expected, columnar);
+        assertEquals(ConceptColumn.Kind.INT, columnar.column("B").getKind());
+        assertEquals(ConceptColumn.Kind.LONG, columnar.column("L").getKind());
+        assertEquals(ConceptColumn.Kind.DOUBLE, columnar.column("F").getKind());
+        assertEquals(ConceptColumn.Kind.DECIMAL, columnar.column("M").getKind());
+        assertEquals(ConceptColumn.Kind.OBJECT, columnar.column("T").getKind());
+        // Cada linea tiene un solo valor, los demas conceptos son null en esa linea
+        assertTrue(columnar.column("M").isNull(0));
+        assertNull(columnar.column("M").getDecimal(0));
+        assertEquals(0, columnar.column("M").getLong(0));
+
+        // Con la escala por defecto los valores desde Long.MAX_VALUE / 100 no caben en un long sin escala
+        int largeDecimals = 0;
+        ConceptColumn column = columnar.column("M");
+        for (int position = 0; position < column.size(); position++) {
+            if (!column.isNull(position) && column.getDecimal(position).unscaledValue().bitLength() >= Long.SIZE) {
+                largeDecimals++;
+            }
+        }
+        assertEquals(7, largeDecimals);
+    }
+
+    @Test
+    public void parallelColumnsHaveTheSameValuesAsTheResult() throws Exception {
+        TextParsingResult expected = new TextParser(pdf, concepts).parsePdf();
+        for (int workers = 2; workers <= PAGES; workers++) {
+            assertSameValues(expected, new TextParser(pdf, concepts).parsePdfColumnar(workers));
+        }
+    }
+
+    private void assertSameValues(TextParsingResult expected, ColumnarParsingResult columnar) {
+        int values = 0;
+        for (Concept concept : concepts) {
+            List<ConceptOutput> outputs = expected.outputs(concept.getDescription());
+            ConceptColumn column = columnar.column(concept);
+            assertEquals(concept.getDescription(), outputs.size(), column.size());
+            for (int position = 0; position < outputs.size(); position++) {
+                ConceptOutput output = outputs.get(position);
+                String message = concept.getDescription() + " / " + output.getPage() + ":" + output.getLine();
+                assertEquals(message, output.getPage(), column.getPage(position));
+                assertEquals(message, output.getLine(), column.getLine(position));
+                assertEquals(message, output.getValue(), column.getValue(position));
+                assertEquals(message, output.getValue() == null, column.isNull(position));
+                if (output.getValue() instanceof Number) {
+                    assertNumber(message, (Number) output.getValue(), column, position);
+                    values++;
+                }
+            }
+        }
+        assertTrue(values > 0);
+        assertEquals(lines(expected.conceptErrors()), lines(columnar.conceptErrors()));
+        assertEquals(expected.omittedErrors(), columnar.omittedErrors());
+    }
+
+    private static void assertNumber(String message, Number value, ConceptColumn column, int position) {
+        if (value instanceof BigDecimal) {
+            assertEquals(message, value, column.getDecimal(position));
+        } else if (value instanceof Float || value instanceof Double) {
+            // Float se guarda como double
+            assertEquals(message, BigDecimal.valueOf(value.doubleValue()), column.getDecimal(position));
+        } else {
+            assertEquals(message, BigDecimal.valueOf(value.longValue()), column.getDecimal(position));
+        }
+        assertEquals(message, value.longValue(), column.getLong(position));
+        assertEquals(message, value.intValue(), column.getInt(position));
+        assertEquals(message, value.doubleValue(), column.getDouble(position), 0);
+    }
+
+    private static List<String> lines(List<ConceptError> errors) {
+        List<String> lines = new ArrayList<>();
+        for (ConceptError error : errors) {
+            lines.add(error.getPage() + "|" + error.getLine() + "|" + error.getConcept().getDescription() + "|"
+                    + error.getContent() + "|" + error.getError());
+        }
+        return lines;
+    }
+
+    /**
+     * Cada linea tiene un valor de uno de los tipos; la ultima pagina no se procesa.
+     */
+    private static Path pdf(Path file) throws Exception {
+        try (PDDocument document = new PDDocument()) {
+            int value = 0;
+            for (int page = 1; page <= PAGES; page++) {
+                PDPage pdPage = new PDPage();
+                document.addPage(pdPage);
+                try (PDPageContentStream stream = new PDPageContentStream(document, pdPage)) {
+                    stream.setFont(PDType1Font.COURIER, 6);
+                    stream.setLeading(8);
+                    stream.beginText();
+                    stream.newLineAtOffset(20, 760);
+                    for (int i = 0; i < LINES_PER_PAGE; i++, value++) {
+                        int type = value % TYPES.length;
+                        String[] values = VALUES[type];
+                        stream.showText(TYPES[type] + ":" + values[(value / TYPES.length) % values.length]);
+                        stream.newLine();
+                    }
+                    stream.endText();
+                }
+            }
+            document.save(file.toFile());
+        }
+        return file;
+    }
+}
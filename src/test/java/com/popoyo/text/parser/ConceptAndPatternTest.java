@@ -0,0 +1,97 @@
+package com.popoyo.text.parser;
+
+import com.popoyo.text.converter.ConversionConfiguration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Los conceptos BETWEEN_CONCEPT_AND_PATTERN deben producir el mismo valor con {@link Concept#rawValue(String)} que con
+ * {@link ConceptEvaluator}.
+ *
+ * @author aalaniz
+ */
+public class ConceptAndPatternTest {
+
+    private static final String CONCEPTS = "["
+            + "{\"description\": \"account\", \"javaType\": \"java.lang.String\", \"strategy\": \"FIXED\", \"page\": 1, "
+            + "\"line\": 1, \"index\": 10, \"length\": 3},"
+            + "{\"description\": \"branch\", \"javaType\": \"java.lang.String\", \"strategy\": \"BETWEEN_CONCEPT_AND_PATTERN\", "
+            + "\"page\": 1, \"line\": 1, \"afterConcept\": \"account\", \"beforeRegex\": \"END\"},"
+            + "{\"description\": \"refLabel\", \"javaType\": \"java.lang.String\", \"strategy\": \"PATTERN\", \"page\": 1, "
+            + "\"line\": 1, \"regex\": \"Ref\"},"
+            + "{\"description\": \"refCode\", \"javaType\": \"java.lang.String\", \"strategy\": \"BETWEEN_CONCEPT_AND_PATTERN\", "
+            + "\"page\": 1, \"line\": 1, \"afterConcept\": \"refLabel\", \"beforeRegex\": \"Name\"},"
+            + "{\"description\": \"refName\", \"javaType\": \"java.lang.String\", \"strategy\": \"BETWEEN_CONCEPT_AND_PATTERN\", "
+            + "\"page\": 1, \"line\": 1, \"afterConcept\": \"refCode\", \"beforeRegex\": \"END\"}"
+            + "]";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void valueStartsAtTheSpanOfTheAfterConcept() throws Exception {
+        List<Concept> concepts = concepts();
+        // "ABC" aparece antes del rango [10, 13) de account
+        String line = "ABC1234567ABC-branch-END Ref 42 Name Juan END";
+
+        assertEquals("-branch-", concept(concepts, "branch").rawValue(line));
+        assertEquals("42", concept(concepts, "refCode").rawValue(line));
+        assertEquals("Name Juan", concept(concepts, "refName").rawValue(line));
+        assertSameAsEvaluator(concepts, line);
+    }
+
+    @Test
+    public void invalidAfterConceptIsRejected() throws Exception {
+        List<Concept> concepts = concepts();
+        String line = "Ref 1 END";
+        try {
+            concept(concepts, "branch").rawValue(line);
+            fail(line);
+        } catch (IllegalArgumentException e) {
+            assertEquals("El rango [10, 13) esta fuera de la linea de longitud [9]", e.getMessage());
+        }
+
+        TextParsingResult result = new TextParsingResult();
+        new ConceptEvaluator(new ExecutionPlan(concepts, ConversionConfiguration.DEFAULT_CONFIGURATION))
+                .evaluate(1, 1, line, result);
+        assertEquals(2, result.conceptErrors().size());
+        assertEquals("account", result.conceptErrors().get(0).getConcept().getDescription());
+        assertEquals("branch", result.conceptErrors().get(1).getConcept().getDescription());
+    }
+
+    private static void assertSameAsEvaluator(List<Concept> concepts, String line) throws ConceptException {
+        TextParsingResult result = new TextParsingResult();
+        new ConceptEvaluator(new ExecutionPlan(concepts, ConversionConfiguration.DEFAULT_CONFIGURATION))
+                .evaluate(1, 1, line, result);
+        assertTrue(result.conceptErrors().isEmpty());
+        for (Concept concept : concepts) {
+            assertEquals(concept.getDescription(), concept.rawValue(line), result.value(concept.getDescription()));
+        }
+    }
+
+    private List<Concept> concepts() throws IOException, ConceptException {
+        Path file = folder.newFile("concepts.json").toPath();
+        Files.write(file, CONCEPTS.getBytes(StandardCharsets.UTF_8));
+        return ConceptReader.readFromFile(file);
+    }
+
+    private static Concept concept(List<Concept> concepts, String description) {
+        for (Concept concept : concepts) {
+            if (concept.getDescription().equals(description)) {
+                return concept;
+            }
+        }
+        throw new AssertionError(description);
+    }
+}
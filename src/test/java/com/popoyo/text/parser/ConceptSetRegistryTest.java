@@ -0,0 +1,160 @@
+package com.popoyo.text.parser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link ConceptReader} debe ordenar cada concepto despues de su [afterConcept] y rechazar las dependencias
+ * circulares; {@link ConceptSetRegistry} debe conservar los conjuntos usados mas recientemente y volver a leer un
+ * archivo solo cuando cambia.
+ *
+ * @author aalaniz
+ */
+public class ConceptSetRegistryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void circularDependenciesAreRejected() throws Exception {
+        assertRejected("[afterConcept] forma una dependencia circular entre los siguientes conceptos: a, c, b, a",
+                concept("a", "c"), concept("b", "a"), concept("c", "b"));
+        // El ciclo no incluye a los conceptos que solo dependen de el
+        assertRejected("[afterConcept] forma una dependencia circular entre los siguientes conceptos: b, c, b",
+                concept("a", "b"), concept("b", "c"), concept("c", "b"), concept("d", null));
+    }
+
+    @Test
+    public void conceptsAreSortedAfterTheirDependencies() throws Exception {
+        List<Concept> concepts = read(concept("d", "c"), concept("x", null), concept("c", "b"), concept("b", "a"),
+                concept("y", "x"), concept("a", null), concept("z", null));
+
+        // Las dependencias se adelantan al primer concepto que las necesita
+        assertEquals(Arrays.asList("a", "b", "c", "d", "x", "y", "z"), descriptions(concepts));
+        // Cada concepto aparece una sola vez aunque varios dependan de el
+        concepts = read(concept("c", "a"), concept("b", "a"), concept("a", null));
+        assertEquals(Arrays.asList("a", "c", "b"), descriptions(concepts));
+    }
+
+    @Test
+    public void leastRecentlyUsedConceptSetIsEvicted() throws Exception {
+        ConceptSetRegistry registry = new ConceptSetRegistry(2);
+        Path a = file("a.json", concept("a", null));
+        Path b = file("b.json", concept("b", null));
+        Path c = file("c.json", concept("c", null));
+
+        List<Concept> first = registry.fromFile(a);
+        List<Concept> second = registry.fromFile(b);
+        assertSame(first, registry.fromFile(a));
+        registry.fromFile(c);
+
+        assertEquals(2, registry.size());
+        assertSame(first, registry.fromFile(a));
+        assertNotSame(second, registry.fromFile(b));
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    public void fileIsReadAgainWhenItChanges() throws Exception {
+        ConceptSetRegistry registry = new ConceptSetRegistry(4);
+        Path file = file("concepts.json", concept("a", null));
+        FileTime lastModified = FileTime.fromMillis(1571616000000L);
+        Files.setLastModifiedTime(file, lastModified);
+
+        List<Concept> concepts = registry.fromFile(file);
+        assertSame(concepts, registry.fromFile(file));
+
+        // La misma fecha de modificacion con otro tamano
+        write(file, concept("ab", null));
+        Files.setLastModifiedTime(file, lastModified);
+        List<Concept> changedSize = registry.fromFile(file);
+        assertEquals(Arrays.asList("ab"), descriptions(changedSize));
+
+        // El mismo tamano con otra fecha de modificacion
+        write(file, concept("cd", null));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified.toMillis() + 1000));
+        List<Concept> changedTime = registry.fromFile(file);
+        assertEquals(Arrays.asList("cd"), descriptions(changedTime));
+        assertSame(changedTime, registry.fromFile(file));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void invalidVersionKeepsThePreviousConceptSet() throws Exception {
+        ConceptSetRegistry registry = new ConceptSetRegistry(4);
+        Path file = file("concepts.json", concept("a", null));
+        byte[] valid = Files.readAllBytes(file);
+        FileTime lastModified = Files.getLastModifiedTime(file);
+        List<Concept> concepts = registry.fromFile(file);
+
+        write(file, concept("a", "b"), concept("b", "a"));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified.toMillis() + 1000));
+        try {
+            registry.fromFile(file);
+            fail();
+        } catch (ConceptException e) {
+            // La nueva version tiene una dependencia circular
+        }
+
+        // Con el archivo original se obtiene la misma lista, sin volver a leerlo
+        Files.write(file, valid);
+        Files.setLastModifiedTime(file, lastModified);
+        assertSame(concepts, registry.fromFile(file));
+        assertEquals(1, registry.size());
+    }
+
+    private void assertRejected(String message, String... concepts) throws IOException {
+        try {
+            read(concepts);
+            fail(message);
+        } catch (ConceptException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    private List<Concept> read(String... concepts) throws IOException, ConceptException {
+        return ConceptReader.readFromFile(file("concepts.json", concepts));
+    }
+
+    private Path file(String name, String... concepts) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(name);
+        write(file, concepts);
+        return file;
+    }
+
+    private static void write(Path file, String... concepts) throws IOException {
+        Files.write(file, ("[" + String.join(",", concepts) + "]").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Un concepto BETWEEN_CONCEPT_AND_PATTERN despues de [afterConcept], o un concepto PATTERN si es null.
+     */
+    private static String concept(String description, String afterConcept) {
+        if (afterConcept == null) {
+            return "{\"description\": \"" + description + "\", \"javaType\": \"java.lang.String\", "
+                    + "\"strategy\": \"PATTERN\", \"page\": 1, \"line\": 1, \"regex\": \"" + description + "\"}";
+        }
+        return "{\"description\": \"" + description + "\", \"javaType\": \"java.lang.String\", "
+                + "\"strategy\": \"BETWEEN_CONCEPT_AND_PATTERN\", \"page\": 1, \"line\": 1, "
+                + "\"afterConcept\": \"" + afterConcept + "\", \"beforeRegex\": \"END\"}";
+    }
+
+    private static List<String> descriptions(List<Concept> concepts) {
+        return concepts.stream().map(Concept::getDescription).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,187 @@
+package com.popoyo.text.parser;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Un snapshot debe producir los mismos conceptos, en el mismo orden, que el JSON de origen, compilar las expresiones
+ * regulares recien al usarlas y rechazar los archivos de otra version o generados a partir de otro JSON.
+ *
+ * @author aalaniz
+ */
+public class ConceptSnapshotTest {
+
+    private static final String CONCEPTS = "["
+            + "{\"description\": \"invoice\", \"javaType\": \"java.lang.String\", \"strategy\": \"OFFSET\", \"page\": 1, "
+            + "\"line\": 1, \"leadingText\": \"No:\"},"
+            + "{\"description\": \"customer\", \"javaType\": \"java.lang.String\", \"strategy\": \"BETWEEN\", \"page\": 1, "
+            + "\"line\": 2, \"leadingText\": \"Customer:\", \"trailingText\": \"|\"},"
+            + "{\"description\": \"date\", \"javaType\": \"java.time.LocalDate\", \"strategy\": \"OFFSET\", \"page\": 1, "
+            + "\"line\": 3, \"leadingText\": \"Date:\"},"
+            + "{\"description\": \"account\", \"javaType\": \"java.lang.Long\", \"strategy\": \"FIXED\", \"page\": 1, "
+            + "\"line\": 4, \"index\": 8, \"length\": 10},"
+            + "{\"description\": \"branch\", \"javaType\": \"java.lang.String\", \"strategy\": \"BETWEEN_CONCEPT_AND_PATTERN\", "
+            + "\"page\": 1, \"line\": 4, \"afterConcept\": \"account\", \"beforeRegex\": \"END\"},"
+            + "{\"description\": \"self\", \"javaType\": \"java.lang.String\", \"strategy\": \"SELF\", \"page\": 2, \"line\": 3},"
+            + "{\"description\": \"itemCode\", \"javaType\": \"java.lang.String\", \"strategy\": \"PATTERN\", \"page\": 1, "
+            + "\"line\": 6, \"regex\": \"ITEM\\\\d+\", \"cleanup\": [\"ITEM\", \"0\"], \"detail\": true, "
+            + "\"stopAtKeyword\": \"TOTAL\"}"
+            + "]";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path source;
+    private Path snapshot;
+
+    @Before
+    public void setUp() throws Exception {
+        source = folder.newFile("concepts.json").toPath();
+        Files.write(source, CONCEPTS.getBytes(StandardCharsets.UTF_8));
+        snapshot = folder.getRoot().toPath().resolve("concepts.dxc");
+    }
+
+    @Test
+    public void snapshotHasTheSameConceptsAsTheJson() throws Exception {
+        List<Concept> expected = ConceptReader.readFromFile(source);
+        ConceptSnapshot.compile(source, snapshot);
+
+        assertEquals(describe(expected), describe(ConceptSnapshot.read(snapshot)));
+        assertEquals(describe(expected), describe(ConceptSnapshot.read(snapshot, source)));
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            assertEquals(Arrays.asList("concepts.dxc", "concepts.json"),
+                    files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void snapshotConceptsExtractTheSameValues() throws Exception {
+        List<Concept> expected = ConceptReader.readFromFile(source);
+        ConceptSnapshot.write(expected, snapshot);
+        List<Concept> concepts = ConceptSnapshot.read(snapshot);
+
+        String line = "Account 0012345678 Branch Main Office END";
+        assertEquals(concept(expected, "branch").rawValue(line), concept(concepts, "branch").rawValue(line));
+        assertEquals("Branch Main Office", concept(concepts, "branch").rawValue(line));
+        assertEquals(concept(expected, "itemCode").rawValue("2019-01-02 ITEM00042 Item"),
+                concept(concepts, "itemCode").rawValue("2019-01-02 ITEM00042 Item"));
+
+        Path pdf = TestDocuments.pdf(folder.getRoot().toPath().resolve("document.pdf"), 3, 0);
+        List<Concept> documentConcepts = TestDocuments.concepts(folder.newFile("document.json").toPath());
+        ConceptSnapshot.write(documentConcepts, snapshot);
+        List<Concept> snapshotConcepts = ConceptSnapshot.read(snapshot);
+        assertEquals(TestDocuments.lines(new TextParser(pdf.toString(), documentConcepts).parsePdf(), documentConcepts),
+                TestDocuments.lines(new TextParser(pdf.toString(), snapshotConcepts).parsePdf(), snapshotConcepts));
+    }
+
+    @Test
+    public void snapshotOfAnotherJsonIsRejected() throws Exception {
+        ConceptSnapshot.compile(source, snapshot);
+        Files.write(source, CONCEPTS.replace("No:", "Nro:").getBytes(StandardCharsets.UTF_8));
+
+        assertRejected(String.format("El snapshot [%s] no corresponde al contenido actual del JSON de origen", snapshot),
+                () -> ConceptSnapshot.read(snapshot, source));
+        // Sin el JSON de origen el snapshot sigue siendo valido
+        ConceptSnapshot.read(snapshot);
+    }
+
+    @Test
+    public void snapshotOfAnotherVersionIsRejected() throws Exception {
+        ConceptSnapshot.compile(source, snapshot);
+        modify(4, (byte) 2);
+
+        assertRejected(String.format("El snapshot [%s] fue generado con otra version del formato", snapshot),
+                () -> ConceptSnapshot.read(snapshot));
+    }
+
+    @Test
+    public void snapshotKeepsTheDependencyOrder() throws Exception {
+        // [branch] aparece en el JSON antes que su [afterConcept]
+        String branch = CONCEPTS.substring(CONCEPTS.indexOf("{\"description\": \"branch\""),
+                CONCEPTS.indexOf("{\"description\": \"self\""));
+        Files.write(source, CONCEPTS.replace(branch, "").replace("{\"description\": \"account\"",
+                branch + "{\"description\": \"account\"").getBytes(StandardCharsets.UTF_8));
+        ConceptSnapshot.compile(source, snapshot);
+        List<Concept> concepts = ConceptSnapshot.read(snapshot);
+
+        assertEquals(describe(ConceptReader.readFromFile(source)), describe(concepts));
+        List<String> order = concepts.stream().map(Concept::getDescription).collect(Collectors.toList());
+        assertEquals(order.indexOf("account") + 1, order.indexOf("branch"));
+    }
+
+    @Test
+    public void regexesAreCompiledOnFirstUse() throws Exception {
+        Concept concept = new Concept.ConceptBuilder().withDescription("code").withJavaType("java.lang.String")
+                .withStrategy(TextExtractorStrategy.PATTERN).withPage(1).withLine(1).withRegex("ITEM(").build();
+        ConceptSnapshot.write(Collections.singletonList(concept), snapshot);
+
+        // La expresion invalida no se compila al leer el snapshot, sino al extraer el primer valor
+        Concept read = ConceptSnapshot.read(snapshot).get(0);
+        try {
+            read.rawValue("ITEM1");
+            fail();
+        } catch (PatternSyntaxException e) {
+            assertEquals("ITEM(", e.getPattern());
+        }
+    }
+
+    private void modify(int position, byte value) throws IOException {
+        byte[] content = Files.readAllBytes(snapshot);
+        content[position] = value;
+        Files.write(snapshot, content);
+    }
+
+    private static void assertRejected(String message, SnapshotRead read) {
+        try {
+            read.read();
+            fail(message);
+        } catch (IOException e) {
+            assertEquals(message, e.getMessage());
+        } catch (ConceptException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static List<String> describe(List<Concept> concepts) {
+        List<String> descriptions = new ArrayList<>();
+        for (Concept concept : concepts) {
+            descriptions.add(String.join("|", concept.getDescription(), concept.getJavaType(),
+                    String.valueOf(concept.getStrategy()), String.valueOf(concept.getPage()),
+                    String.valueOf(concept.getLine()), concept.getLeadingText(), concept.getTrailingText(),
+                    String.valueOf(concept.getIndex()), String.valueOf(concept.getLength()),
+                    concept.getStopAtKeyword(), String.valueOf(concept.isDetail()), concept.getRegex(),
+                    Arrays.toString(concept.getCleanup()), concept.getAfterConceptKey(), concept.getBeforeRegex()));
+        }
+        return descriptions;
+    }
+
+    private static Concept concept(List<Concept> concepts, String description) {
+        for (Concept concept : concepts) {
+            if (concept.getDescription().equals(description)) {
+                return concept;
+            }
+        }
+        throw new AssertionError(description);
+    }
+
+    private interface SnapshotRead {
+        List<Concept> read() throws IOException, ConceptException;
+    }
+}
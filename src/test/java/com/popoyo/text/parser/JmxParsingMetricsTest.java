@@ -0,0 +1,130 @@
+package com.popoyo.text.parser;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link JmxParsingMetrics} debe publicar como MXBeans las mediciones de cada fase y de cada concepto.
+ *
+ * @author aalaniz
+ */
+public class JmxParsingMetricsTest {
+
+    private static final String DOMAIN = "com.popoyo.text.test";
+    private static final int PAGES = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MBeanServer server;
+
+    /**
+     * Un servidor propio de cada prueba, para no registrar nada en el servidor de la plataforma.
+     */
+    @Before
+    public void setUp() {
+        server = MBeanServerFactory.newMBeanServer();
+    }
+
+    @Test
+    public void phasesAreRegisteredWithTheirAttributes() throws Exception {
+        JmxParsingMetrics metrics = new JmxParsingMetrics(server, DOMAIN);
+        metrics.onDocumentLoaded(100);
+        metrics.onPage(1, 40, 1000, 3000);
+        metrics.onPage(2, 20, 2000, 1000);
+
+        ObjectName load = new ObjectName(DOMAIN + ":type=Phase,name=\"load\"");
+        ObjectName strip = new ObjectName(DOMAIN + ":type=Phase,name=\"strip\"");
+        ObjectName evaluate = new ObjectName(DOMAIN + ":type=Phase,name=\"evaluate\"");
+        assertEquals(1L, server.getAttribute(load, "Count"));
+        assertEquals(0L, server.getAttribute(load, "Lines"));
+        assertEquals(100L, server.getAttribute(load, "MaxNanos"));
+        assertEquals(2L, server.getAttribute(strip, "Count"));
+        assertEquals(60L, server.getAttribute(strip, "Lines"));
+        assertEquals(3000L, server.getAttribute(strip, "TotalNanos"));
+        assertEquals(1500L, server.getAttribute(strip, "MeanNanos"));
+        assertEquals(4000L, server.getAttribute(evaluate, "TotalNanos"));
+        assertEquals(3000L, server.getAttribute(evaluate, "MaxNanos"));
+        assertEquals(1023L, server.getAttribute(evaluate, "P50Nanos"));
+        assertEquals(3000L, server.getAttribute(evaluate, "P99Nanos"));
+        assertEquals(2L, metrics.getPhase("evaluate").getCount());
+        assertNull(metrics.getPhase("unknown"));
+    }
+
+    @Test
+    public void conceptIsRegisteredWhenItIsFirstEvaluated() throws Exception {
+        JmxParsingMetrics metrics = new JmxParsingMetrics(server, DOMAIN);
+        Concept concept = new Concept.ConceptBuilder().withDescription("item, code=\"1\"")
+                .withJavaType("java.lang.String").withStrategy(TextExtractorStrategy.PATTERN).withPage(1).withLine(1)
+                .withRegex("ITEM").build();
+        ObjectName name = new ObjectName(DOMAIN + ":type=Concept,name=" + ObjectName.quote(concept.getDescription()));
+        assertNull(metrics.getConcept(concept.getDescription()));
+        assertFalse(server.isRegistered(name));
+
+        metrics.onConceptValue(concept, true, 10, 20);
+        metrics.onConceptValue(concept, false, 30, 40);
+        metrics.onConceptError(concept, 50);
+
+        assertTrue(server.isRegistered(name));
+        assertEquals(3L, server.getAttribute(name, "Evaluations"));
+        assertEquals(1L, server.getAttribute(name, "Hits"));
+        assertEquals(1L, server.getAttribute(name, "Errors"));
+        assertEquals(40L, server.getAttribute(name, "ExtractNanos"));
+        assertEquals(60L, server.getAttribute(name, "ConvertNanos"));
+        assertEquals(50L, server.getAttribute(name, "ErrorNanos"));
+        assertEquals(30L, server.getAttribute(name, "ExtractP99Nanos"));
+        assertEquals(40L, server.getAttribute(name, "ConvertP99Nanos"));
+    }
+
+    @Test
+    public void metricsAreKeptWhenTheDomainIsAlreadyRegistered() throws Exception {
+        JmxParsingMetrics first = new JmxParsingMetrics(server, DOMAIN);
+        JmxParsingMetrics second = new JmxParsingMetrics(server, DOMAIN);
+        second.onDocumentLoaded(100);
+
+        // Los MXBeans son los de la primera instancia
+        ObjectName load = new ObjectName(DOMAIN + ":type=Phase,name=\"load\"");
+        assertEquals(0L, server.getAttribute(load, "Count"));
+        assertEquals(1, second.getPhase("load").getCount());
+
+        second.unregister();
+        assertTrue(server.isRegistered(load));
+        first.unregister();
+        assertTrue(server.queryNames(new ObjectName(DOMAIN + ":*"), null).isEmpty());
+    }
+
+    @Test
+    public void parserReportsEachPhaseAndConcept() throws Exception {
+        List<Concept> concepts = TestDocuments.concepts(folder.newFile("concepts.json").toPath());
+        String pdf = TestDocuments.pdf(folder.getRoot().toPath().resolve("document.pdf"), PAGES, 0).toString();
+        JmxParsingMetrics metrics = new JmxParsingMetrics(server, DOMAIN);
+        TextParsingResult result = new TextParser(pdf, concepts).withMetrics(metrics).parsePdf();
+
+        assertEquals(1, metrics.getPhase("load").getCount());
+        // La ultima pagina no se procesa
+        assertEquals(PAGES - 1, metrics.getPhase("strip").getCount());
+        assertEquals(PAGES - 1, metrics.getPhase("evaluate").getCount());
+        assertEquals(metrics.getPhase("strip").getLines(), metrics.getPhase("evaluate").getLines());
+        long errors = 0;
+        for (Concept concept : concepts) {
+            JmxParsingMetrics.ConceptStatsMXBean stats = metrics.getConcept(concept.getDescription());
+            long hits = result.outputs(concept).stream().filter(output -> output.getValue() != null).count();
+            assertEquals(concept.getDescription(), hits, stats.getHits());
+            assertTrue(concept.getDescription(), stats.getEvaluations() >= stats.getHits() + stats.getErrors());
+            errors += stats.getErrors();
+        }
+        assertEquals(result.conceptErrors().size(), errors);
+    }
+}
@@ -0,0 +1,86 @@
+package com.popoyo.text.parser;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link KeywordMatcher} debe devolver para cada palabra clave la misma posicion que {@link String#indexOf(String)}.
+ *
+ * @author aalaniz
+ */
+public class KeywordMatcherTest {
+
+    // Caracteres que no suelen estar en las palabras clave; \uffff es mayor que cualquier caracter de las palabras
+    private static final String OUTSIDE = " z\u00f1\uffff";
+    private static final int LINES = 500;
+
+    @Test
+    public void overlappingKeywords() {
+        assertSameAsIndexOf(Arrays.asList("abab", "bab", "aba", "ba"), "ab");
+        assertSameAsIndexOf(Arrays.asList("aa", "aaa", "aaaa"), "ab");
+    }
+
+    @Test
+    public void prefixAndSuffixKeywords() {
+        assertSameAsIndexOf(Arrays.asList("abc", "a", "ab", "bc", "c"), "abc");
+        assertSameAsIndexOf(Arrays.asList("No:", "No: ", "Invoice No:", "o:"), "Invoice No:");
+    }
+
+    @Test
+    public void repeatedKeywords() {
+        assertSameAsIndexOf(Arrays.asList("ab", "b", "ab", "b", "ab"), "ab");
+    }
+
+    @Test
+    public void randomKeywords() {
+        Random random = new Random(20191021);
+        for (int i = 0; i < 200; i++) {
+            List<String> keywords = new ArrayList<>();
+            int count = 1 + random.nextInt(8);
+            while (keywords.size() < count) {
+                keywords.add(text(random, "abc", 1 + random.nextInt(5)));
+            }
+            assertSameAsIndexOf(keywords, "abc");
+        }
+    }
+
+    @Test
+    public void keywordsWithCharactersOutsideTheLatinAlphabet() {
+        assertSameAsIndexOf(Arrays.asList("a\u00f1o", "\u00f1", "\u20ac 1", "1"), "a\u00f1o\u20ac 1");
+    }
+
+    /**
+     * Compara con {@link String#indexOf(String)} en lineas al azar formadas por [alphabet] y caracteres que no
+     * aparecen en las palabras clave.
+     */
+    private static void assertSameAsIndexOf(List<String> keywords, String alphabet) {
+        KeywordMatcher matcher = new KeywordMatcher(keywords);
+        assertEquals(keywords.size(), matcher.size());
+        Random random = new Random(keywords.hashCode());
+        int[] positions = new int[keywords.size() + 1];
+        for (int i = 0; i < LINES; i++) {
+            String line = text(random, alphabet + OUTSIDE, random.nextInt(20));
+            if (random.nextBoolean()) {
+                line += keywords.get(random.nextInt(keywords.size()));
+            }
+            matcher.match(line, positions);
+            for (int k = 0; k < keywords.size(); k++) {
+                assertEquals(keywords + " / " + line, line.indexOf(keywords.get(k)), positions[k]);
+            }
+        }
+    }
+
+    private static String text(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
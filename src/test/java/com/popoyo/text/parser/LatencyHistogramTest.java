@@ -0,0 +1,91 @@
+package com.popoyo.text.parser;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Los percentiles de {@link LatencyHistogram} deben ser el limite superior del intervalo de potencias de 2 que los
+ * contiene, sin superar el maximo registrado.
+ *
+ * @author aalaniz
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogramIsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.mean());
+        assertEquals(0, histogram.max());
+        assertEquals(0, histogram.percentile(0.5));
+        assertEquals(0, histogram.percentile(1));
+    }
+
+    @Test
+    public void zeroAndNegativeValuesAreInTheFirstInterval() {
+        LatencyHistogram histogram = histogram(0, -5);
+        assertEquals(2, histogram.count());
+        assertEquals(0, histogram.total());
+        assertEquals(0, histogram.percentile(0));
+        assertEquals(0, histogram.percentile(1));
+
+        // 0 y 1 comparten el intervalo [0, 1]
+        histogram.record(1);
+        assertEquals(1, histogram.percentile(0));
+        assertEquals(1, histogram.max());
+    }
+
+    @Test
+    public void powersOfTwoStartANewInterval() {
+        for (int bit = 1; bit < Long.SIZE - 1; bit++) {
+            long power = 1L << bit;
+            String message = String.valueOf(power);
+            // Un solo valor: el limite del intervalo se acota al maximo
+            assertEquals(message, power, histogram(power).percentile(0.5));
+            // 2^n - 1 esta en el intervalo anterior y 2^(n+1) - 1 en el mismo que 2^n
+            LatencyHistogram histogram = histogram(power - 1, power, power * 2 - 1);
+            assertEquals(message, power - 1, histogram.percentile(1.0 / 3));
+            assertEquals(message, power * 2 - 1, histogram.percentile(2.0 / 3));
+            assertEquals(message, power * 2 - 1, histogram.percentile(1));
+            // Sin el maximo, el percentil es el limite superior del intervalo
+            histogram = histogram(power, power, Long.MAX_VALUE);
+            assertEquals(message, power * 2 - 1, histogram.percentile(0.5));
+        }
+    }
+
+    @Test
+    public void maxValueIsInTheLastInterval() {
+        LatencyHistogram histogram = histogram(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.max());
+        assertEquals(Long.MAX_VALUE, histogram.mean());
+        assertEquals(Long.MAX_VALUE, histogram.percentile(0.5));
+
+        histogram = histogram(1L << 62, 1L << 62, Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.percentile(0.5));
+        assertEquals(Long.MAX_VALUE, histogram.percentile(1));
+        assertEquals(Long.MAX_VALUE, histogram.max());
+    }
+
+    @Test
+    public void percentilesRoundTheRankUp() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(10);
+        }
+        histogram.record(1000);
+        assertEquals(15, histogram.percentile(0.5));
+        assertEquals(15, histogram.percentile(0.99));
+        assertEquals(1000, histogram.percentile(0.991));
+        assertEquals(1000, histogram.max());
+        assertEquals(19, histogram.mean());
+    }
+
+    private static LatencyHistogram histogram(long... values) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value : values) {
+            histogram.record(value);
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,207 @@
+package com.popoyo.text.parser;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Las paginas leidas de {@link PageTextCache} deben tener exactamente las mismas lineas que las extraidas del pdf, y
+ * el pdf solo debe cargarse cuando el documento no tiene una entrada valida en la cache.
+ *
+ * @author aalaniz
+ */
+public class PageTextCacheTest {
+
+    private static final int PAGES = 5;
+    // Una pagina con contenido pero sin texto, el stripper solo escribe el fin de pagina y no se extrae ninguna linea
+    private static final int BLANK_PAGE = 2;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path pdf;
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        pdf = TestDocuments.pdf(folder.getRoot().toPath().resolve("document.pdf"), PAGES - 1, 0);
+        try (PDDocument document = PDDocument.load(pdf.toFile())) {
+            PDPage blank = new PDPage();
+            try (PDPageContentStream stream = new PDPageContentStream(document, blank)) {
+                stream.addRect(30, 30, 100, 100);
+                stream.fill();
+            }
+            document.getPages().insertBefore(blank, document.getPage(BLANK_PAGE - 1));
+            document.save(pdf.toFile());
+        }
+        directory = folder.newFolder("cache").toPath();
+    }
+
+    @Test
+    public void pagesHaveTheSameLinesAsThePdf() throws Exception {
+        for (TextExtractionMode extractionMode : TextExtractionMode.values()) {
+            PageTextCache cache = new PageTextCache(directory);
+            String key = cache.key(PdfSource.of(pdf.toString()), extractionMode);
+            try (PDDocument document = PDDocument.load(pdf.toFile());
+                 PageLines expected = PageLines.of(document, extractionMode)) {
+                cache.put(key, document, extractionMode);
+
+                PageTextCache.Entry entry = new PageTextCache(directory).get(key);
+                assertNotNull(entry);
+                assertEquals(document.getNumberOfPages(), entry.getNumberOfPages());
+                try (PageLines pages = entry.pages()) {
+                    for (int page = 1; page <= PAGES; page++) {
+                        assertEquals(lines(expected, page), lines(pages, page));
+                    }
+                    assertEquals(Collections.emptyList(), lines(expected, BLANK_PAGE));
+                    // Un handler que devuelve false termina la pagina
+                    List<String> first = new ArrayList<>();
+                    pages.processPage(3, (line, content) -> first.add(line + "|" + content) && line < 3);
+                    assertEquals(lines(expected, 3).subList(0, 3), first);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parserReadsTheSameResultFromTheCache() throws Exception {
+        List<Concept> concepts = TestDocuments.concepts(folder.newFile("concepts.json").toPath());
+        List<String> expected = TestDocuments.lines(new TextParser(pdf.toString(), concepts).parsePdf(), concepts);
+        PageTextCache cache = new PageTextCache(directory);
+
+        int[] workers = {1, 1, 3};
+        for (int i = 0; i < workers.length; i++) {
+            LoadCounter loads = new LoadCounter();
+            TextParser parser = new TextParser(pdf.toString(), concepts).withPageTextCache(cache).withMetrics(loads);
+            assertEquals(expected, TestDocuments.lines(parser.parsePdf(workers[i]), concepts));
+            // Con la entrada en la cache el pdf no se vuelve a cargar
+            assertEquals(i == 0 ? 1 : 0, loads.count.get());
+        }
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    public void changedDocumentIsExtractedAgain() throws Exception {
+        List<Concept> concepts = TestDocuments.concepts(folder.newFile("concepts.json").toPath());
+        PageTextCache cache = new PageTextCache(directory);
+        new TextParser(pdf.toString(), concepts).withPageTextCache(cache).parsePdf();
+
+        TestDocuments.pdf(pdf, PAGES, 2);
+        LoadCounter loads = new LoadCounter();
+        TextParsingResult result = new TextParser(pdf.toString(), concepts).withPageTextCache(cache)
+                .withMetrics(loads).parsePdf();
+
+        assertEquals(TestDocuments.lines(new TextParser(pdf.toString(), concepts).parsePdf(), concepts),
+                TestDocuments.lines(result, concepts));
+        assertEquals(1, loads.count.get());
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void eachExtractionModeHasItsOwnEntry() throws Exception {
+        List<Concept> concepts = TestDocuments.concepts(folder.newFile("concepts.json").toPath());
+        PageTextCache cache = new PageTextCache(directory);
+
+        for (int i = 0; i < 2; i++) {
+            for (TextExtractionMode extractionMode : TextExtractionMode.values()) {
+                TextParser parser = new TextParser(pdf.toString(), concepts).withExtractionMode(extractionMode);
+                List<String> expected = TestDocuments.lines(parser.parsePdf(), concepts);
+                assertEquals(expected, TestDocuments.lines(parser.withPageTextCache(cache).parsePdf(), concepts));
+            }
+        }
+        assertEquals(TextExtractionMode.values().length, cache.getMisses());
+        assertEquals(TextExtractionMode.values().length, cache.getHits());
+    }
+
+    @Test
+    public void entryOfAnotherVersionIsReplaced() throws Exception {
+        List<Concept> concepts = TestDocuments.concepts(folder.newFile("concepts.json").toPath());
+        PageTextCache cache = new PageTextCache(directory);
+        String key = put(cache);
+        Path file = directory.resolve(key + ".dxt");
+        byte[] content = Files.readAllBytes(file);
+        content[4] = 1;
+        Files.write(file, content);
+
+        TextParser parser = new TextParser(pdf.toString(), concepts).withPageTextCache(cache);
+        assertEquals(TestDocuments.lines(new TextParser(pdf.toString(), concepts).parsePdf(), concepts),
+                TestDocuments.lines(parser.parsePdf(), concepts));
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getHits());
+        // La entrada descartada se vuelve a generar con la version actual
+        assertNotNull(cache.get(key));
+    }
+
+    @Test
+    public void corruptPageFailsWhenItIsRead() throws Exception {
+        PageTextCache cache = new PageTextCache(directory);
+        String key = put(cache);
+        Path file = directory.resolve(key + ".dxt");
+        byte[] content = Files.readAllBytes(file);
+        // La posicion de la pagina 1 esta al inicio de la tabla, despues de la cabecera
+        int offset = (int) readLong(content, 9);
+        for (int i = offset; i < offset + 8; i++) {
+            content[i] ^= 0x5A;
+        }
+        Files.write(file, content);
+
+        try (PageLines pages = cache.get(key).pages()) {
+            pages.processPage(1, (line, text) -> true);
+            fail();
+        } catch (IOException e) {
+            // La pagina no se puede descomprimir
+        }
+    }
+
+    private String put(PageTextCache cache) throws IOException {
+        String key = cache.key(PdfSource.of(pdf.toString()), TextExtractionMode.STANDARD);
+        try (PDDocument document = PDDocument.load(pdf.toFile())) {
+            cache.put(key, document, TextExtractionMode.STANDARD);
+        }
+        return key;
+    }
+
+    private static List<String> lines(PageLines pages, int page) throws IOException {
+        List<String> lines = new ArrayList<>();
+        pages.processPage(page, (line, content) -> lines.add(line + "|" + content));
+        return lines;
+    }
+
+    private static long readLong(byte[] content, int position) {
+        long value = 0;
+        for (int i = position; i < position + 8; i++) {
+            value = value << 8 | content[i] & 0xFF;
+        }
+        return value;
+    }
+
+    /**
+     * Cuenta las veces que se carga el pdf.
+     */
+    private static final class LoadCounter implements ParsingMetrics {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void onDocumentLoaded(long nanos) {
+            count.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.popoyo.text.parser;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Procesar un documento en paralelo debe entregar los mismos resultados, en el mismo orden, que procesarlo en un solo
+ * hilo, con cualquier cantidad de workers.
+ *
+ * @author aalaniz
+ */
+public class ParallelParsingTest {
+
+    private static final int PAGES = 12;
+    private static final int STOP_PAGE = 6;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private List<Concept> concepts;
+
+    @Before
+    public void setUp() throws Exception {
+        concepts = TestDocuments.concepts(folder.newFile("concepts.json").toPath());
+    }
+
+    @Test
+    public void parallelResultIsTheSameAsSequential() throws Exception {
+        assertSameAsSequential(pdf(0), 0);
+    }
+
+    @Test
+    public void parallelResultStopsAtTheKeywordInAMiddleRange() throws Exception {
+        String pdf = pdf(STOP_PAGE);
+        List<String> events = assertSameAsSequential(pdf, 0);
+
+        // La extraccion termina en la pagina del [stopAtKeyword], las paginas siguientes no se procesan
+        assertTrue(events.contains("P|" + STOP_PAGE));
+        assertTrue(events.stream().anyMatch(event -> event.startsWith("O|" + STOP_PAGE + "|")));
+        assertTrue(events.stream().noneMatch(event -> event.equals("P|" + (STOP_PAGE + 1))
+                || event.startsWith("O|" + (STOP_PAGE + 1) + "|")));
+    }
+
+    @Test
+    public void parallelResultKeepsTheErrorLimit() throws Exception {
+        assertSameAsSequential(pdf(0), 3);
+        assertSameAsSequential(pdf(STOP_PAGE), 3);
+    }
+
+    /**
+     * Devuelve los eventos de la extraccion en un solo hilo.
+     */
+    private List<String> assertSameAsSequential(String pdf, int maxErrors) throws Exception {
+        RecordingListener sequential = new RecordingListener();
+        parser(pdf, maxErrors).parsePdf(sequential);
+        List<String> sequentialResult = TestDocuments.lines(parser(pdf, maxErrors).parsePdf(), concepts);
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int workers : new int[]{1, 2, 3, 4, PAGES - 1, PAGES + 5, processors}) {
+            RecordingListener parallel = new RecordingListener();
+            parser(pdf, maxErrors).parsePdf(workers, parallel);
+            assertEquals("workers " + workers, sequential.events, parallel.events);
+            assertEquals("workers " + workers, sequentialResult,
+                    TestDocuments.lines(parser(pdf, maxErrors).parsePdf(workers), concepts));
+        }
+        return sequential.events;
+    }
+
+    private TextParser parser(String pdf, int maxErrors) {
+        TextParser parser = new TextParser(pdf, concepts);
+        if (maxErrors > 0) {
+            parser.withErrorLimit(maxErrors, true);
+        }
+        return parser;
+    }
+
+    private String pdf(int stopPage) throws Exception {
+        Path file = folder.getRoot().toPath().resolve("document" + stopPage + ".pdf");
+        return TestDocuments.pdf(file, PAGES, stopPage).toString();
+    }
+
+    /**
+     * Registra cada llamada en el orden en que se recibe.
+     */
+    private static final class RecordingListener implements TextParsingListener {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onOutput(ConceptOutput output) {
+            events.add("O|" + output.getPage() + "|" + output.getLine() + "|" + output.getConcept().getDescription()
+                    + "|" + output.getValue());
+        }
+
+        @Override
+        public void onError(ConceptError error) {
+            events.add("E|" + error.getPage() + "|" + error.getLine() + "|" + error.getConcept().getDescription()
+                    + "|" + error.getContent() + "|" + error.getError());
+        }
+
+        @Override
+        public void onErrorsOmitted(Concept concept, int count) {
+            events.add("M|" + concept.getDescription() + "|" + count);
+        }
+
+        @Override
+        public void onPageComplete(int page) {
+            events.add("P|" + page);
+        }
+    }
+}
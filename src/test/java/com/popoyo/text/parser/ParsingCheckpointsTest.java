@@ -0,0 +1,221 @@
+package com.popoyo.text.parser;
+
+import com.popoyo.text.converter.ConversionConfiguration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Una extraccion interrumpida debe continuar desde el ultimo checkpoint y devolver el mismo resultado que una
+ * extraccion sin checkpoints, solo con el mismo documento y la misma configuracion; un checkpoint danado se recorta
+ * hasta el ultimo segmento valido o se descarta.
+ *
+ * @author aalaniz
+ */
+public class ParsingCheckpointsTest {
+
+    private static final int PAGES = 14;
+    // Como en la extraccion sin checkpoints, la ultima pagina del documento no se procesa
+    private static final int PARSED_PAGES = PAGES - 1;
+    private static final int INTERVAL = 3;
+    private static final int CRASH_PAGE = 11;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String pdf;
+    private List<Concept> concepts;
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        pdf = TestDocuments.pdf(folder.getRoot().toPath().resolve("document.pdf"), PAGES, 0).toString();
+        concepts = TestDocuments.concepts(folder.newFile("concepts.json").toPath());
+        directory = folder.newFolder("checkpoints").toPath();
+    }
+
+    @Test
+    public void resumedParseReturnsTheSameResultWithOneWorker() throws Exception {
+        assertResumesWithTheSameResult(1, 0);
+    }
+
+    @Test
+    public void resumedParseReturnsTheSameResultWithManyWorkers() throws Exception {
+        assertResumesWithTheSameResult(3, 0);
+        assertResumesWithTheSameResult(Runtime.getRuntime().availableProcessors() + 1, 0);
+    }
+
+    @Test
+    public void resumedParseKeepsTheErrorLimit() throws Exception {
+        assertResumesWithTheSameResult(1, 4);
+        assertResumesWithTheSameResult(3, 4);
+    }
+
+    @Test
+    public void incompleteSegmentIsDiscarded() throws Exception {
+        Path file = crash(1, 0);
+        // Los checkpoints de las paginas 3, 6 y 9; se pierde la mitad del ultimo
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 10);
+        }
+        ParsingCheckpoints.Checkpoint checkpoint = checkpoints().get(key(file), plan());
+        assertEquals(7, checkpoint.getNextPage());
+        assertTrue(Files.size(file) < size - 10);
+
+        assertEquals(PARSED_PAGES - 6, assertResumes(1, 0));
+    }
+
+    @Test
+    public void corruptSegmentIsDiscardedWithTheFollowingOnes() throws Exception {
+        Path file = crash(1, 0);
+        byte[] content = Files.readAllBytes(file);
+        // El primer byte del resultado del segundo segmento, despues del encabezado del archivo y del primer segmento
+        int firstSegment = 9 + 8 + readInt(content, 9);
+        content[firstSegment + 8 + 4 + 4 * concepts.size()] ^= 0x55;
+        Files.write(file, content);
+
+        ParsingCheckpoints.Checkpoint checkpoint = checkpoints().get(key(file), plan());
+        assertEquals(4, checkpoint.getNextPage());
+        assertEquals(firstSegment, Files.size(file));
+
+        assertEquals(PARSED_PAGES - 3, assertResumes(1, 0));
+    }
+
+    @Test
+    public void checkpointOfAnotherVersionIsRemoved() throws Exception {
+        Path file = crash(1, 0);
+        byte[] content = Files.readAllBytes(file);
+        content[4] = 1;
+        Files.write(file, content);
+
+        assertNull(checkpoints().get(key(file), plan()));
+        assertFalse(Files.exists(file));
+        assertEquals(PARSED_PAGES, assertResumes(1, 0));
+    }
+
+    @Test
+    public void resumedParseStopsAtTheKeywordAfterTheCheckpoint() throws Exception {
+        pdf = TestDocuments.pdf(folder.getRoot().toPath().resolve("stop.pdf"), PAGES, CRASH_PAGE + 1).toString();
+        assertResumesWithTheSameResult(1, 0);
+        assertResumesWithTheSameResult(3, 0);
+    }
+
+    @Test
+    public void checkpointIsOnlyUsedWithTheSameErrorLimit() throws Exception {
+        Path file = crash(1, 0);
+
+        // El limite de errores cambia el resultado, la extraccion empieza otra vez desde la primera pagina
+        assertEquals(PARSED_PAGES, parsedPages(1, 4));
+        assertTrue(Files.exists(file));
+        assertEquals(PARSED_PAGES - 9, assertResumes(1, 0));
+    }
+
+    private void assertResumesWithTheSameResult(int workers, int maxErrors) throws Exception {
+        crash(workers, maxErrors);
+        int parsedPages = assertResumes(workers, maxErrors);
+        assertTrue(String.valueOf(parsedPages), parsedPages < PARSED_PAGES);
+    }
+
+    /**
+     * Devuelve la cantidad de paginas procesadas al continuar la extraccion.
+     */
+    private int assertResumes(int workers, int maxErrors) throws Exception {
+        int pages = parsedPages(workers, maxErrors);
+        assertTrue(files().isEmpty());
+        return pages;
+    }
+
+    /**
+     * Compara la extraccion con checkpoints con la extraccion sin checkpoints y devuelve la cantidad de paginas
+     * procesadas.
+     */
+    private int parsedPages(int workers, int maxErrors) throws Exception {
+        TextParser reference = new TextParser(pdf, concepts);
+        if (maxErrors > 0) {
+            reference.withErrorLimit(maxErrors, true);
+        }
+        AtomicInteger pages = new AtomicInteger();
+        TextParser parser = parser(workers, maxErrors, new ParsingMetrics() {
+            @Override
+            public void onPage(int page, int lines, long stripNanos, long evaluateNanos) {
+                pages.incrementAndGet();
+            }
+        });
+        assertEquals(TestDocuments.lines(reference.parsePdf(workers), concepts),
+                TestDocuments.lines(parser.parsePdf(workers), concepts));
+        return pages.get();
+    }
+
+    /**
+     * Interrumpe la extraccion en {@link #CRASH_PAGE} y devuelve el checkpoint que queda.
+     */
+    private Path crash(int workers, int maxErrors) throws Exception {
+        TextParser parser = parser(workers, maxErrors, new ParsingMetrics() {
+            @Override
+            public void onPage(int page, int lines, long stripNanos, long evaluateNanos) {
+                if (page == CRASH_PAGE) {
+                    throw new IllegalStateException("crash");
+                }
+            }
+        });
+        try {
+            parser.parsePdf(workers);
+            fail();
+        } catch (IllegalStateException | IOException e) {
+            // La extraccion se interrumpe
+        }
+        List<Path> files = files();
+        assertEquals(1, files.size());
+        return files.get(0);
+    }
+
+    private TextParser parser(int workers, int maxErrors, ParsingMetrics metrics) throws IOException {
+        TextParser parser = new TextParser(pdf, concepts).withCheckpoints(checkpoints()).withMetrics(metrics);
+        if (maxErrors > 0) {
+            parser.withErrorLimit(maxErrors, true);
+        }
+        return parser;
+    }
+
+    private ParsingCheckpoints checkpoints() throws IOException {
+        return new ParsingCheckpoints(directory, INTERVAL);
+    }
+
+    private ExecutionPlan plan() {
+        return new ExecutionPlan(concepts, ConversionConfiguration.DEFAULT_CONFIGURATION);
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    private static String key(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(0, name.length() - ".dxk".length());
+    }
+
+    private static int readInt(byte[] content, int position) {
+        return (content[position] & 0xFF) << 24 | (content[position + 1] & 0xFF) << 16
+                | (content[position + 2] & 0xFF) << 8 | content[position + 3] & 0xFF;
+    }
+}
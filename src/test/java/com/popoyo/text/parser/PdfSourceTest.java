@@ -0,0 +1,65 @@
+package com.popoyo.text.parser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Un {@link ByteBuffer} se lee y se resume desde su posicion hasta su limite, de modo que el documento procesado y
+ * la clave de las caches corresponden a los mismos bytes.
+ *
+ * @author aalaniz
+ */
+public class PdfSourceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void bufferIsReadFromItsPosition() throws Exception {
+        Path pdf = TestDocuments.pdf(folder.getRoot().toPath().resolve("document.pdf"), 2, 0);
+        List<Concept> concepts = TestDocuments.concepts(folder.newFile("concepts.json").toPath());
+        byte[] content = Files.readAllBytes(pdf);
+        ByteBuffer buffer = withPrefix(content, "not a pdf");
+
+        assertEquals(TestDocuments.lines(new TextParser(pdf.toString(), concepts).parsePdf(), concepts),
+                TestDocuments.lines(new TextParser(PdfSource.of("document", buffer), concepts).parsePdf(), concepts));
+        assertEquals(9, buffer.position());
+        assertArrayEquals(digest(PdfSource.of("document", content)), digest(PdfSource.of("document", buffer)));
+    }
+
+    @Test
+    public void buffersWithADifferentPrefixHaveTheSameDigestOnlyForTheirContent() throws Exception {
+        byte[] content = "%PDF-1.4 contenido".getBytes("US-ASCII");
+        assertArrayEquals(digest(PdfSource.of("a", withPrefix(content, "uno"))),
+                digest(PdfSource.of("b", withPrefix(content, "otro prefijo"))));
+        assertFalse(Arrays.equals(digest(PdfSource.of("a", withPrefix(content, "uno"))),
+                digest(PdfSource.of("b", ByteBuffer.wrap(("uno" + new String(content, "US-ASCII"))
+                        .getBytes("US-ASCII"))))));
+    }
+
+    private static ByteBuffer withPrefix(byte[] content, String prefix) throws Exception {
+        byte[] bytes = prefix.getBytes("US-ASCII");
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + content.length);
+        buffer.put(bytes).put(content).flip();
+        buffer.position(bytes.length);
+        return buffer;
+    }
+
+    private static byte[] digest(PdfSource source) throws Exception {
+        MessageDigest digest = Fingerprint.sha256();
+        source.digest(digest);
+        return digest.digest();
+    }
+}
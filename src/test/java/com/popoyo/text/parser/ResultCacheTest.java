@@ -0,0 +1,311 @@
+package com.popoyo.text.parser;
+
+import com.popoyo.text.converter.ConversionConfiguration;
+import com.popoyo.text.converter.ConversionConfigurationBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * El formato de {@link ResultCache} debe conservar el valor y el tipo exacto de cada salida y respetar [maxBytes]. A
+ * traves de {@link TextParser#withResultCache(ResultCache)} una entrada se devuelve sin cargar el pdf y solo para la
+ * misma configuracion del parser.
+ *
+ * @author aalaniz
+ */
+public class ResultCacheTest {
+
+    private static final String KEY = key('a');
+    private static final int THREADS = 6;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private List<Concept> concepts;
+    private ExecutionPlan plan;
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        concepts = TestDocuments.concepts(folder.newFile("concepts.json").toPath());
+        plan = new ExecutionPlan(concepts, ConversionConfiguration.DEFAULT_CONFIGURATION);
+        directory = folder.newFolder("cache").toPath();
+    }
+
+    @Test
+    public void everyValueTypeIsReadWithItsValueAndType() throws Exception {
+        java.sql.Timestamp timestamp = new java.sql.Timestamp(1571616000123L);
+        timestamp.setNanos(123456789);
+        List<Object> values = Arrays.asList(null, "texto", "", "a\u00f1o \u20ac", 'x', true, false, (byte) -7,
+                (short) -300, Integer.MIN_VALUE, 42, Long.MAX_VALUE, -1L, 1.5f, Float.NaN, -0.0d, 1234.5678d,
+                new BigInteger("-123456789012345678901234567890"), new BigDecimal("1.500"), new BigDecimal("-0.00"),
+                new BigDecimal("12E+3"), new BigDecimal("123456789012345678901234567890.123456789"),
+                LocalDate.of(2019, 10, 21), LocalDate.of(1, 1, 1), LocalDateTime.of(2019, 10, 21, 13, 45, 30, 999),
+                new Date(-1000L), new java.sql.Date(1571616000000L), new java.sql.Time(49530000L), timestamp);
+        TextParsingResult result = new TextParsingResult();
+        for (int i = 0; i < values.size(); i++) {
+            result.addConceptOutput(new ConceptOutput(1 + i / 10, i, concepts.get(i % concepts.size()), values.get(i)));
+        }
+        result.addConceptOutput(new ConceptOutput(3, 1, concepts.get(0), new StringBuilder("builder")));
+        result.addConceptError(new ConceptError(2, 4, concepts.get(2), "Subtotal page 2", "No se encontro"));
+        result.addConceptError(new ConceptError(2, 5, concepts.get(3), null, null));
+        result.addOmittedErrors("itemAmount", 5);
+
+        ResultCache cache = new ResultCache(directory, Long.MAX_VALUE);
+        cache.put(KEY, plan, result);
+        TextParsingResult read = new ResultCache(directory, Long.MAX_VALUE).get(KEY, plan);
+
+        assertNotNull(read);
+        List<ConceptOutput> outputs = new ArrayList<>();
+        read.forEach(outputs::add);
+        assertEquals(values.size() + 1, outputs.size());
+        for (int i = 0; i < values.size(); i++) {
+            ConceptOutput output = outputs.get(i);
+            Object expected = values.get(i);
+            assertEquals(1 + i / 10, output.getPage());
+            assertEquals(i, output.getLine());
+            assertTrue(concepts.get(i % concepts.size()) == output.getConcept());
+            assertEquals(String.valueOf(expected), expected, output.getValue());
+            if (expected != null) {
+                assertEquals(expected.getClass(), output.getValue().getClass());
+            }
+        }
+        assertEquals(StringBuilder.class, outputs.get(values.size()).getValue().getClass());
+        assertEquals("builder", outputs.get(values.size()).getValue().toString());
+        assertEquals(TestDocuments.lines(result, concepts), TestDocuments.lines(read, concepts));
+        assertEquals(5, read.omittedErrors("itemAmount"));
+    }
+
+    @Test
+    public void unsupportedValuesAreNotStored() throws Exception {
+        TextParsingResult result = new TextParsingResult();
+        result.addConceptOutput(new ConceptOutput(1, 1, concepts.get(0), new Object()));
+        ResultCache cache = new ResultCache(directory, Long.MAX_VALUE);
+        cache.put(KEY, plan, result);
+
+        assertEquals(0, cache.getEntryCount());
+        assertNull(cache.get(KEY, plan));
+    }
+
+    @Test
+    public void entryOfAnotherVersionIsRejected() throws Exception {
+        ResultCache cache = new ResultCache(directory, Long.MAX_VALUE);
+        cache.put(KEY, plan, result(10));
+        Path file = directory.resolve(KEY + ".dxr");
+        byte[] content = Files.readAllBytes(file);
+        content[4] = 1;
+        Files.write(file, content);
+
+        assertNull(cache.get(KEY, plan));
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getEntryCount());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void hitIsReturnedWithoutLoadingThePdf() throws Exception {
+        String pdf = TestDocuments.pdf(folder.getRoot().toPath().resolve("document.pdf"), 4, 0).toString();
+        List<String> expected = TestDocuments.lines(new TextParser(pdf, concepts).parsePdf(), concepts);
+        ResultCache cache = new ResultCache(directory, Long.MAX_VALUE);
+
+        int[] workers = {1, 1, 3};
+        for (int i = 0; i < workers.length; i++) {
+            LoadCounter loads = new LoadCounter();
+            TextParser parser = new TextParser(pdf, concepts).withResultCache(cache).withMetrics(loads);
+            assertEquals(expected, TestDocuments.lines(parser.parsePdf(workers[i]), concepts));
+            assertEquals(i == 0 ? 1 : 0, loads.count.get());
+        }
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    public void keyChangesWithTheParserConfiguration() throws Exception {
+        String pdf = TestDocuments.pdf(folder.getRoot().toPath().resolve("document.pdf"), 4, 0).toString();
+        Path otherFile = folder.newFile("other.json").toPath();
+        Files.write(otherFile, TestDocuments.CONCEPTS.replace("\"cleanup\": [\"ITEM\"]", "\"cleanup\": [\"ITEM0\"]")
+                .getBytes(StandardCharsets.UTF_8));
+        List<Concept> otherConcepts = ConceptReader.readFromFile(otherFile);
+        ConversionConfiguration otherConfiguration = new ConversionConfigurationBuilder()
+                .whenIsNumber()
+                    .locale()
+                    .roundTo2()
+                    .minusSignAtEnd(true)
+                .and()
+                .whenIsDate()
+                    .isoDateFormat()
+                    .isoDateTimeFormat()
+                .and()
+                .build();
+        List<ParserFactory> parsers = Arrays.asList(
+                () -> new TextParser(pdf, concepts),
+                () -> new TextParser(pdf, otherConcepts),
+                () -> new TextParser(pdf, concepts, otherConfiguration),
+                () -> new TextParser(pdf, concepts).withExtractionMode(TextExtractionMode.FAST),
+                () -> new TextParser(pdf, concepts).withErrorLimit(2, true),
+                () -> new TextParser(pdf, concepts).withErrorLimit(2, false));
+        ResultCache cache = new ResultCache(directory, Long.MAX_VALUE);
+
+        for (int i = 0; i < 2; i++) {
+            // Las dos listas de conceptos tienen las mismas descripciones
+            for (ParserFactory parser : parsers) {
+                assertEquals(TestDocuments.lines(parser.create().parsePdf(), concepts),
+                        TestDocuments.lines(parser.create().withResultCache(cache).parsePdf(), concepts));
+            }
+        }
+        // Cada variante tiene su propia entrada
+        assertEquals(parsers.size(), cache.getEntryCount());
+        assertEquals(parsers.size(), cache.getMisses());
+        assertEquals(parsers.size(), cache.getHits());
+    }
+
+    @Test
+    public void concurrentAccessKeepsEntriesAndSizeConsistent() throws Exception {
+        ResultCache sizing = new ResultCache(folder.newFolder("sizing").toPath(), Long.MAX_VALUE);
+        sizing.put(KEY, plan, result(100));
+        long maxBytes = sizing.getSize() * 4;
+        ResultCache cache = new ResultCache(directory, maxBytes);
+        List<String> expected = TestDocuments.lines(result(100), concepts);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int seed = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        String key = key((char) ('a' + (seed * 7 + i) % 6));
+                        TextParsingResult read = cache.get(key, plan);
+                        if (read == null) {
+                            cache.put(key, plan, result(100));
+                        } else {
+                            assertEquals(expected, TestDocuments.lines(read, concepts));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long size = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                assertTrue(file.toString(), file.toString().endsWith(".dxr"));
+                size += Files.size(file);
+            }
+        }
+        assertEquals(size, cache.getSize());
+        assertTrue(cache.getSize() <= maxBytes);
+        assertEquals(THREADS * 200, cache.getHits() + cache.getMisses());
+        ResultCache reopened = new ResultCache(directory, maxBytes);
+        assertEquals(cache.getEntryCount(), reopened.getEntryCount());
+        assertEquals(cache.getSize(), reopened.getSize());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesAreEvicted() throws Exception {
+        ResultCache sizing = new ResultCache(folder.newFolder("sizing").toPath(), Long.MAX_VALUE);
+        sizing.put(KEY, plan, result(100));
+        long entrySize = sizing.getSize();
+
+        ResultCache cache = new ResultCache(directory, entrySize * 5 / 2);
+        cache.put(key('a'), plan, result(100));
+        cache.put(key('b'), plan, result(100));
+        assertNotNull(cache.get(key('a'), plan));
+        cache.put(key('c'), plan, result(100));
+
+        assertEquals(2, cache.getEntryCount());
+        assertTrue(cache.getSize() <= entrySize * 5 / 2);
+        assertNull(cache.get(key('b'), plan));
+        assertNotNull(cache.get(key('a'), plan));
+        assertNotNull(cache.get(key('c'), plan));
+        assertFalse(Files.exists(directory.resolve(key('b') + ".dxr")));
+
+        cache.put(key('d'), plan, result(1000));
+        assertNull(cache.get(key('d'), plan));
+
+        ResultCache reopened = new ResultCache(directory, entrySize * 5 / 2);
+        assertEquals(2, reopened.getEntryCount());
+        assertEquals(cache.getSize(), reopened.getSize());
+    }
+
+    @Test
+    public void onlyStaleTemporaryFilesOfTheCacheAreDeleted() throws Exception {
+        Path stale = Files.createFile(directory.resolve(KEY + "123.dxr.tmp"));
+        Files.setLastModifiedTime(stale, FileTime.fromMillis(System.currentTimeMillis() - 2 * TemporaryFiles.STALE_MILLIS));
+        Path recent = Files.createFile(directory.resolve(key('b') + "456.dxr.tmp"));
+        Path other = Files.createFile(directory.resolve("report.dxr.tmp"));
+        Files.setLastModifiedTime(other, FileTime.fromMillis(System.currentTimeMillis() - 2 * TemporaryFiles.STALE_MILLIS));
+
+        new ResultCache(directory, Long.MAX_VALUE);
+
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(recent));
+        assertTrue(Files.exists(other));
+    }
+
+    /**
+     * Un resultado de [outputs] salidas con valores distintos, para que la compresion no reduzca su tamano a casi
+     * nada.
+     */
+    private TextParsingResult result(int outputs) {
+        TextParsingResult result = new TextParsingResult();
+        for (int i = 0; i < outputs; i++) {
+            result.addConceptOutput(new ConceptOutput(1, i, concepts.get(1), Long.toHexString(i * 0x9E3779B97F4A7C15L)));
+        }
+        return result;
+    }
+
+    private static String key(char c) {
+        char[] key = new char[64];
+        Arrays.fill(key, c);
+        return new String(key);
+    }
+
+    private interface ParserFactory {
+        TextParser create();
+    }
+
+    /**
+     * Cuenta las veces que se carga el pdf.
+     */
+    private static final class LoadCounter implements ParsingMetrics {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void onDocumentLoaded(long nanos) {
+            count.incrementAndGet();
+        }
+    }
+}
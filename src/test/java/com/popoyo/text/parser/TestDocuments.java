@@ -0,0 +1,104 @@
+package com.popoyo.text.parser;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Documentos y conceptos para las pruebas de extraccion. Cada pagina tiene lineas de detalle con fecha, codigo e
+ * importe y cada tanto una linea de subtotal, que produce errores en los conceptos de detalle.
+ *
+ * @author aalaniz
+ */
+final class TestDocuments {
+
+    static final String STOP_KEYWORD = "TOTAL GENERAL";
+
+    static final String CONCEPTS = "["
+            + "{\"description\": \"invoice\", \"javaType\": \"java.lang.String\", \"strategy\": \"OFFSET\", \"page\": 1, "
+            + "\"line\": 1, \"leadingText\": \"No:\"},"
+            + "{\"description\": \"itemDate\", \"javaType\": \"java.lang.String\", \"strategy\": \"FIXED\", \"page\": 1, "
+            + "\"line\": 2, \"index\": 0, \"length\": 10, \"detail\": true, \"stopAtKeyword\": \"" + STOP_KEYWORD + "\"},"
+            + "{\"description\": \"itemCode\", \"javaType\": \"java.lang.String\", \"strategy\": \"PATTERN\", \"page\": 1, "
+            + "\"line\": 2, \"regex\": \"ITEM\\\\d+\", \"cleanup\": [\"ITEM\"], \"detail\": true},"
+            + "{\"description\": \"itemAmount\", \"javaType\": \"java.math.BigDecimal\", \"strategy\": \"PATTERN\", "
+            + "\"page\": 1, \"line\": 2, \"regex\": \"[0-9,]+\\\\.\\\\d\\\\d-?$\", \"detail\": true}"
+            + "]";
+
+    private static final int LINES_PER_PAGE = 40;
+
+    private TestDocuments() {
+    }
+
+    /**
+     * Con [stopPage] mayor a 0 esa pagina tiene la linea {@link #STOP_KEYWORD} a la mitad.
+     */
+    static Path pdf(Path file, int pages, int stopPage) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            int item = 0;
+            for (int page = 1; page <= pages; page++) {
+                PDPage pdPage = new PDPage();
+                document.addPage(pdPage);
+                try (PDPageContentStream stream = new PDPageContentStream(document, pdPage)) {
+                    stream.setFont(PDType1Font.COURIER, 9);
+                    stream.setLeading(11);
+                    stream.beginText();
+                    stream.newLineAtOffset(30, 760);
+                    if (page == 1) {
+                        stream.showText("INVOICE No: INV-2019-0042");
+                        stream.newLine();
+                    }
+                    for (int i = 0; i < LINES_PER_PAGE; i++) {
+                        String line;
+                        if (page == stopPage && i == LINES_PER_PAGE / 2) {
+                            line = STOP_KEYWORD + " 999,999.99";
+                        } else if (i % 7 == 3) {
+                            line = "Subtotal page " + page;
+                        } else {
+                            item++;
+                            line = String.format("2019-%02d-%02d ITEM%05d Description %d   %,d.%02d%s", item % 12 + 1,
+                                    item % 28 + 1, item, item, item * 37, item % 100, item % 5 == 0 ? "-" : "");
+                        }
+                        stream.showText(line);
+                        stream.newLine();
+                    }
+                    stream.endText();
+                }
+            }
+            document.save(file.toFile());
+        }
+        return file;
+    }
+
+    static List<Concept> concepts(Path file) throws IOException, ConceptException {
+        Files.write(file, CONCEPTS.getBytes(StandardCharsets.UTF_8));
+        return ConceptReader.readFromFile(file);
+    }
+
+    /**
+     * Salidas, errores y errores omitidos de [result] en orden, para comparar resultados.
+     */
+    static List<String> lines(TextParsingResult result, List<Concept> concepts) {
+        List<String> lines = new ArrayList<>();
+        for (ConceptOutput output : result) {
+            lines.add("O|" + output.getPage() + "|" + output.getLine() + "|" + output.getConcept().getDescription()
+                    + "|" + output.getValue());
+        }
+        for (ConceptError error : result.conceptErrors()) {
+            lines.add("E|" + error.getPage() + "|" + error.getLine() + "|" + error.getConcept().getDescription()
+                    + "|" + error.getContent() + "|" + error.getError());
+        }
+        for (Concept concept : concepts) {
+            lines.add("M|" + concept.getDescription() + "|" + result.omittedErrors(concept.getDescription()));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,130 @@
+package com.popoyo.text.parser;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Las consultas de {@link TextParsingResult} deben devolver los mismos resultados que recorrer todos los resultados en
+ * el orden en que se agregaron, tanto con la busqueda binaria por pagina como cuando los resultados se agregan fuera
+ * de orden.
+ *
+ * @author aalaniz
+ */
+public class TextParsingResultTest {
+
+    private static final String[] DESCRIPTIONS = {"invoice", "itemCode", "itemAmount"};
+    private static final int PAGES = 20;
+
+    private final List<Concept> concepts = new ArrayList<>();
+    private final List<ConceptOutput> added = new ArrayList<>();
+    private TextParsingResult result;
+
+    @Before
+    public void setUp() throws Exception {
+        for (String description : DESCRIPTIONS) {
+            concepts.add(new Concept.ConceptBuilder().withDescription(description).withJavaType("java.lang.String")
+                    .withStrategy(TextExtractorStrategy.PATTERN).withPage(1).withLine(1).withRegex(description)
+                    .build());
+        }
+        result = new TextParsingResult();
+        Random random = new Random(20191021);
+        // El primer concepto solo aparece en la primera pagina y algunas paginas no tienen resultados
+        add(1, 1, concepts.get(0));
+        for (int page = 1; page <= PAGES; page++) {
+            if (page % 6 == 4) {
+                continue;
+            }
+            int lines = random.nextInt(8);
+            for (int line = 2; line < 2 + lines; line++) {
+                add(page, line, concepts.get(1));
+                if (random.nextBoolean()) {
+                    add(page, line, concepts.get(2));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void outputsOfAConceptAreInTheOrderTheyWereAdded() {
+        assertEquals(added.size(), result.size());
+        List<ConceptOutput> all = new ArrayList<>();
+        result.forEach(all::add);
+        assertEquals(added, all);
+        for (Concept concept : concepts) {
+            List<ConceptOutput> expected = filter(concept.getDescription(), Integer.MIN_VALUE, Integer.MAX_VALUE);
+            assertEquals(expected, result.outputs(concept.getDescription()));
+            assertEquals(expected, result.outputs(concept));
+            assertSame(expected.get(0), result.firstOutput(concept.getDescription()));
+            assertSame(expected.get(0).getValue(), result.value(concept.getDescription()));
+        }
+        assertNull(result.firstOutput("unknown"));
+        assertNull(result.value("unknown"));
+        assertEquals(Collections.emptyList(), result.outputs("unknown"));
+        assertEquals(Collections.emptyList(), result.outputs("unknown", 1, PAGES));
+    }
+
+    @Test
+    public void pageRangesAreTheSameAsTheFilteredOutputs() {
+        assertPageRanges();
+    }
+
+    @Test
+    public void pageRangesAreTheSameWhenOutputsAreAddedOutOfOrder() {
+        add(PAGES, 99, concepts.get(1));
+        add(3, 99, concepts.get(1));
+        add(1, 99, concepts.get(2));
+        assertPageRanges();
+        assertSame(added.get(0), result.firstOutput(DESCRIPTIONS[0]));
+    }
+
+    @Test
+    public void emptyResultHasNoOutputs() {
+        TextParsingResult empty = new TextParsingResult();
+        assertEquals(0, empty.size());
+        assertEquals(Collections.emptyList(), empty.outputs(1, PAGES));
+        assertEquals(Collections.emptyList(), empty.outputs(DESCRIPTIONS[0]));
+        assertNull(empty.firstOutput(DESCRIPTIONS[0]));
+    }
+
+    /**
+     * Compara todos los rangos de paginas, incluidos los que estan fuera del documento y los rangos invertidos.
+     */
+    private void assertPageRanges() {
+        for (int fromPage = -1; fromPage <= PAGES + 2; fromPage++) {
+            for (int toPage = -1; toPage <= PAGES + 2; toPage++) {
+                String message = "[" + fromPage + ", " + toPage + "]";
+                assertEquals(message, filter(null, fromPage, toPage), result.outputs(fromPage, toPage));
+                for (String description : DESCRIPTIONS) {
+                    assertEquals(description + " " + message, filter(description, fromPage, toPage),
+                            result.outputs(description, fromPage, toPage));
+                }
+            }
+        }
+    }
+
+    private void add(int page, int line, Concept concept) {
+        ConceptOutput output = new ConceptOutput(page, line, concept, concept.getDescription() + page + ":" + line);
+        added.add(output);
+        result.addConceptOutput(output);
+    }
+
+    private List<ConceptOutput> filter(String description, int fromPage, int toPage) {
+        List<ConceptOutput> filtered = new ArrayList<>();
+        for (ConceptOutput output : added) {
+            if ((description == null || description.equals(output.getConcept().getDescription()))
+                    && output.getPage() >= fromPage && output.getPage() <= toPage) {
+                filtered.add(output);
+            }
+        }
+        return filtered;
+    }
+}